@@ -0,0 +1,27 @@
+package com.example.api_gateway;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * The product admin endpoints must never be forwarded by the public gateway.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class ProductAdminRouteTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void testAdminImportIsNotForwarded() {
+		webTestClient.post()
+				.uri("/api/product/admin/import?path=feeds/catalog.csv")
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+}
@@ -0,0 +1,279 @@
+package com.example.cart.cache;
+
+import com.example.cart.entity.Cart;
+import com.example.cart.entity.Product;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary entries, less than half the size of the JSON ones and several times faster to
+ * encode and decode.
+ * <p>
+ * Schema version 1, after the header:
+ * <pre>
+ * cart id             16 bytes, most significant half first
+ * flags               1 byte, which of the nullable fields below are present
+ * total price         8 byte double        (flag {@value #TOTAL_PRICE})
+ * version             varint               (flag {@value #VERSION})
+ * prices checked at   varint epoch seconds, varint nanos (flag {@value #PRICES_CHECKED_AT})
+ * items               varint count, then per item (flag {@value #ITEMS}):
+ *   product id, name, category   strings
+ *   flags                        1 byte
+ *   price                        8 byte double  (flag {@value #PRICE})
+ *   quantity                     zigzag varint  (flag {@value #QUANTITY})
+ * </pre>
+ * Strings are a varint tag: 0 for null, {@code (length << 1) | 1} followed by the UTF-8 bytes for
+ * a string seen for the first time in the entry, or {@code index << 1} to repeat the string
+ * written at that index (from 1). Items of a cart mostly share their categories, which are then
+ * written once.
+ */
+@Component
+public class BinaryCartCodec implements CartCodec {
+
+    static final byte ID = 2;
+    static final byte SCHEMA_VERSION = 1;
+
+    // Entry flags
+    static final int TOTAL_PRICE = 1;
+    static final int VERSION = 1 << 1;
+    static final int PRICES_CHECKED_AT = 1 << 2;
+    static final int ITEMS = 1 << 3;
+    // Item flags
+    static final int PRICE = 1;
+    static final int QUANTITY = 1 << 1;
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public String name() {
+        return "binary";
+    }
+
+    @Override
+    public byte schemaVersion() {
+        return SCHEMA_VERSION;
+    }
+
+    @Override
+    public byte[] encode(CartCache.Entry entry) {
+        Cart cart = entry.cart();
+        List<Product> items = cart.getCartItems();
+        Writer out = new Writer(64 + (items == null ? 0 : items.size() * 48));
+        out.writeByte(ID);
+        out.writeByte(SCHEMA_VERSION);
+        out.writeLong(cart.getId().getMostSignificantBits());
+        out.writeLong(cart.getId().getLeastSignificantBits());
+        out.writeByte((cart.getTotalPrice() != null ? TOTAL_PRICE : 0)
+                | (cart.getVersion() != null ? VERSION : 0)
+                | (entry.pricesCheckedAt() != null ? PRICES_CHECKED_AT : 0)
+                | (items != null ? ITEMS : 0));
+        if (cart.getTotalPrice() != null) {
+            out.writeDouble(cart.getTotalPrice());
+        }
+        if (cart.getVersion() != null) {
+            out.writeVarLong(cart.getVersion());
+        }
+        if (entry.pricesCheckedAt() != null) {
+            out.writeVarLong(entry.pricesCheckedAt().getEpochSecond());
+            out.writeVarLong(entry.pricesCheckedAt().getNano());
+        }
+        if (items != null) {
+            out.writeVarLong(items.size());
+            for (Product item : items) {
+                out.writeString(item.getProductId());
+                out.writeString(item.getProductName());
+                out.writeString(item.getCategory());
+                out.writeByte((item.getPrice() != null ? PRICE : 0) | (item.getQuantity() != null ? QUANTITY : 0));
+                if (item.getPrice() != null) {
+                    out.writeDouble(item.getPrice());
+                }
+                if (item.getQuantity() != null) {
+                    int quantity = item.getQuantity();
+                    out.writeVarLong((quantity << 1) ^ (quantity >> 31));
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public CartCache.Entry decode(byte[] value) {
+        if (value[1] != SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Unsupported binary cart schema version " + value[1]);
+        }
+        try {
+            Reader in = new Reader(value, HEADER_LENGTH);
+            UUID id = new UUID(in.readLong(), in.readLong());
+            int flags = in.readByte();
+            Double totalPrice = (flags & TOTAL_PRICE) != 0 ? in.readDouble() : null;
+            Long version = (flags & VERSION) != 0 ? in.readVarLong() : null;
+            Instant pricesCheckedAt = (flags & PRICES_CHECKED_AT) != 0
+                    ? Instant.ofEpochSecond(in.readVarLong(), in.readVarLong())
+                    : null;
+            List<Product> items = null;
+            if ((flags & ITEMS) != 0) {
+                int count = Math.toIntExact(in.readVarLong());
+                items = new ArrayList<>(Math.min(count, value.length));
+                for (int i = 0; i < count; i++) {
+                    String productId = in.readString();
+                    String productName = in.readString();
+                    String category = in.readString();
+                    int itemFlags = in.readByte();
+                    Double price = (itemFlags & PRICE) != 0 ? in.readDouble() : null;
+                    Integer quantity = null;
+                    if ((itemFlags & QUANTITY) != 0) {
+                        int zigzag = (int) in.readVarLong();
+                        quantity = (zigzag >>> 1) ^ -(zigzag & 1);
+                    }
+                    items.add(new Product(productId, productName, category, price, quantity));
+                }
+            }
+            if (in.remaining() != 0) {
+                throw new IllegalArgumentException(in.remaining() + " trailing bytes");
+            }
+            return new CartCache.Entry(new Cart(id, totalPrice, items, version), pricesCheckedAt);
+        } catch (ArrayIndexOutOfBoundsException | ArithmeticException e) {
+            throw new IllegalArgumentException("Malformed binary cart", e);
+        }
+    }
+
+    // Growable big-endian buffer, one per encode
+    private static final class Writer {
+        private byte[] buffer;
+        private int size;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensure(Long.BYTES);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeDouble(double value) {
+            writeLong(Double.doubleToRawLongBits(value));
+        }
+
+        // Unsigned LEB128, 7 bits per byte, low bits first
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            Integer index = strings.putIfAbsent(value, strings.size() + 1);
+            if (index != null) {
+                writeVarLong((long) index << 1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(((long) bytes.length << 1) | 1);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int bytes) {
+            if (size + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+        private final List<String> strings = new ArrayList<>();
+
+        Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        int readByte() {
+            return buffer[position++] & 0xFF;
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        double readDouble() {
+            return Double.longBitsToDouble(readLong());
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        String readString() {
+            long tag = readVarLong();
+            if (tag == 0) {
+                return null;
+            }
+            if ((tag & 1) == 0) {
+                int index = Math.toIntExact((tag >>> 1) - 1);
+                if (index >= strings.size()) {
+                    throw new IllegalArgumentException("Reference to unknown string " + (index + 1));
+                }
+                return strings.get(index);
+            }
+            int length = Math.toIntExact(tag >>> 1);
+            if (length > buffer.length - position) {
+                throw new IllegalArgumentException("String of " + length + " bytes past the end");
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            strings.add(value);
+            return value;
+        }
+
+        int remaining() {
+            return buffer.length - position;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.cart.cache;
+
+import com.example.cart.entity.Cart;
+import com.example.cart.entity.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Two-level read-through cache of carts: a small in-process L1 in front of Redis (L2).
+ * <p>
+ * Every entry carries the Mongo version of the cart it holds, and a put only replaces an L2 entry
+ * of the same or a lower version (compare-and-set in a Lua script). A reader that loaded a cart just
+ * before a write therefore cannot put the older cart back over the one the writer cached. The L1
+ * keeps the higher version the same way.
+ * <p>
+ * A successful put publishes the cart id on {@value #INVALIDATION_CHANNEL}; the other instances drop
+ * their L1 copy and read the cart from Redis next time. L1 entries expire after
+ * {@code cart.cache.l1.ttl-seconds}, which bounds how long a missed message can leave one stale.
+ * <p>
+ * An entry also records when the product names and prices of its items were last checked against
+ * the product service; {@link #needsPriceCheck} asks for a new check once that is older than
+ * {@code cart.cache.price-check-seconds}. Redis errors are logged and treated as misses, carts are
+ * then served from Mongo; a put that fails deletes the L2 entry, which may be older than the cart
+ * just saved.
+ * <p>
+ * Entries are stored in Redis by the {@link CartCodec} named by {@code cart.cache.codec} and read by
+ * the codec named in their header, so that the codec can change in a rolling deployment.
+ * <p>
+ * Hits and misses are published as {@code cache.gets} with {@code cache=cartL1} and {@code cache=cartL2}.
+ */
+@Slf4j
+@Component
+public class CartCache implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "cart-invalidation";
+    static final String KEY_PREFIX = "cart::";
+    private static final byte[] ENTRY_FIELD = "entry".getBytes(StandardCharsets.UTF_8);
+    private static final RedisSerializer<Long> REPLACED = new GenericToStringSerializer<>(Long.class);
+
+    // Replaces the entry unless Redis holds a newer version of the cart, and restarts its TTL
+    private static final RedisScript<Long> PUT_UNLESS_NEWER = new DefaultRedisScript<>("""
+            local current = redis.call('HGET', KEYS[1], 'version')
+            if current and tonumber(current) > tonumber(ARGV[1]) then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'version', ARGV[1], 'entry', ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CartCodec codec;
+    private final Map<Byte, CartCodec> decoders = new HashMap<>();
+    private final Duration ttl;
+    private final Duration priceCheckInterval;
+    private final Cache<UUID, Entry> local;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    // Ids in invalidation messages, so that an instance skips its own
+    private final String instanceId = UUID.randomUUID().toString();
+    // Bumped by every invalidation, an L2 read that overlapped one does not fill the L1
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CartCache(
+            StringRedisTemplate redisTemplate,
+            List<CartCodec> codecs,
+            @Value("${cart.cache.codec:binary}") String codecName,
+            MeterRegistry meterRegistry,
+            @Value("${cart.cache.ttl-seconds:600}") long ttlSeconds,
+            @Value("${cart.cache.price-check-seconds:60}") long priceCheckSeconds,
+            @Value("${cart.cache.l1.max-size:10000}") long localMaxSize,
+            @Value("${cart.cache.l1.ttl-seconds:5}") long localTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        for (CartCodec candidate : codecs) {
+            if (decoders.putIfAbsent(candidate.id(), candidate) != null) {
+                throw new IllegalArgumentException("Cart codecs " + candidate.name() + " and "
+                        + decoders.get(candidate.id()).name() + " share the id " + candidate.id());
+            }
+        }
+        this.codec = codecs.stream()
+                .filter(candidate -> candidate.name().equals(codecName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown cart.cache.codec: " + codecName));
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.priceCheckInterval = Duration.ofSeconds(priceCheckSeconds);
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "cartL1");
+        this.remoteHits = Counter.builder("cache.gets")
+                .tag("cache", "cartL2").tag("result", "hit")
+                .register(meterRegistry);
+        this.remoteMisses = Counter.builder("cache.gets")
+                .tag("cache", "cartL2").tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return a copy of the cached entry, free to change
+     */
+    public Optional<Entry> get(UUID cartId) {
+        Entry cached = local.getIfPresent(cartId);
+        if (cached != null) {
+            return Optional.of(cached.copy());
+        }
+
+        long invalidationsBefore = invalidations.get();
+        try {
+            byte[] key = key(cartId).getBytes(StandardCharsets.UTF_8);
+            byte[] value = redisTemplate.execute(
+                    (RedisCallback<byte[]>) connection -> connection.hashCommands().hGet(key, ENTRY_FIELD));
+            Entry entry = value == null ? null : decode(cartId, value);
+            if (entry == null) {
+                remoteMisses.increment();
+                return Optional.empty();
+            }
+            remoteHits.increment();
+            if (invalidations.get() == invalidationsBefore) {
+                putLocal(entry);
+            }
+            return Optional.of(entry.copy());
+        } catch (RuntimeException e) {
+            log.warn("get:: cartId - {}, reading from Mongo instead: {}", cartId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Caches a cart as read from or saved to Mongo.
+     *
+     * @param pricesCheckedAt when the item names and prices were last checked, {@code null} when
+     *                        they were not, so that the next read checks them
+     */
+    public void put(Cart cart, Instant pricesCheckedAt) {
+        Entry entry = new Entry(cart, pricesCheckedAt).copy();
+        long version = entry.version();
+        try {
+            byte[] value = codec.encode(entry);
+            Long replaced = redisTemplate.execute(PUT_UNLESS_NEWER, RedisSerializer.byteArray(), REPLACED,
+                    List.of(key(cart.getId())), Long.toString(version).getBytes(StandardCharsets.UTF_8), value,
+                    Long.toString(ttl.toMillis()).getBytes(StandardCharsets.UTF_8));
+            if (replaced == null || replaced == 0) {
+                log.debug("put:: cartId - {}, version {} is older than the cached one", cart.getId(), version);
+                local.invalidate(cart.getId());
+                return;
+            }
+            putLocal(entry);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId + ":" + cart.getId());
+        } catch (RuntimeException e) {
+            log.warn("put:: cartId - {}, version - {}, not cached: {}", cart.getId(), version, e.getMessage());
+            local.invalidate(cart.getId());
+            evictRemote(cart.getId());
+        }
+    }
+
+    // Mongo may already hold a newer version than Redis, drop the entry so that the next read goes to Mongo
+    private void evictRemote(UUID cartId) {
+        try {
+            redisTemplate.delete(key(cartId));
+        } catch (RuntimeException e) {
+            log.warn("put:: cartId - {}, stale entry not evicted, served until it expires: {}", cartId, e.getMessage());
+        }
+    }
+
+    public boolean needsPriceCheck(Entry entry) {
+        return entry.pricesCheckedAt() == null
+                || entry.pricesCheckedAt().plus(priceCheckInterval).isBefore(Instant.now());
+    }
+
+    /**
+     * Drops the L1 copy of a cart another instance cached a new version of.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator < 0 || body.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        try {
+            UUID cartId = UUID.fromString(body.substring(separator + 1));
+            invalidations.incrementAndGet();
+            local.invalidate(cartId);
+        } catch (IllegalArgumentException e) {
+            log.warn("onMessage:: ignoring invalidation message - {}", body);
+        }
+    }
+
+    // Null for values written by an unknown codec or schema version, such as those of a newer instance
+    private Entry decode(UUID cartId, byte[] value) {
+        CartCodec decoder = value.length < CartCodec.HEADER_LENGTH ? null : decoders.get(value[0]);
+        if (decoder == null) {
+            log.debug("get:: cartId - {}, value of an unknown codec", cartId);
+            return null;
+        }
+        try {
+            return decoder.decode(value);
+        } catch (IllegalArgumentException e) {
+            log.debug("get:: cartId - {}, {} value not readable: {}", cartId, decoder.name(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void putLocal(Entry entry) {
+        local.asMap().merge(entry.cart().getId(), entry,
+                (current, candidate) -> current.version() > candidate.version() ? current : candidate);
+    }
+
+    static String key(UUID cartId) {
+        return KEY_PREFIX + cartId;
+    }
+
+    public record Entry(Cart cart, Instant pricesCheckedAt) {
+
+        long version() {
+            return cart.getVersion() == null ? 0 : cart.getVersion();
+        }
+
+        // L1 entries are shared between requests, which change the carts they read
+        Entry copy() {
+            List<Product> items = cart.getCartItems() == null ? null : cart.getCartItems().stream()
+                    .map(item -> new Product(item.getProductId(), item.getProductName(), item.getCategory(),
+                            item.getPrice(), item.getQuantity()))
+                    .collect(Collectors.toCollection(ArrayList::new));
+            return new Entry(new Cart(cart.getId(), cart.getTotalPrice(), items, cart.getVersion()), pricesCheckedAt);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.cart.cache;
+
+/**
+ * Encodes cart cache entries to the bytes stored in Redis.
+ * <p>
+ * Every value starts with a two byte header: the {@link #id} of the codec that wrote it and the
+ * {@link #schemaVersion} of its layout. {@link CartCache} writes with the configured codec and
+ * reads a value with whichever codec wrote it, so a rollout that switches codecs or changes a
+ * layout can run old and new instances side by side. A value no instance can read is a cache miss
+ * and gets replaced by the next put.
+ */
+public interface CartCodec {
+
+    int HEADER_LENGTH = 2;
+
+    /**
+     * @return the first header byte of the values this codec writes, unique across codecs
+     */
+    byte id();
+
+    /**
+     * @return name used to select the codec through {@code cart.cache.codec}
+     */
+    String name();
+
+    /**
+     * @return the second header byte of the values this codec writes
+     */
+    byte schemaVersion();
+
+    /**
+     * @return the entry, header included
+     */
+    byte[] encode(CartCache.Entry entry);
+
+    /**
+     * Decodes a value written by this codec, in any schema version it still reads.
+     *
+     * @throws IllegalArgumentException when the schema version is not supported or the value is malformed
+     */
+    CartCache.Entry decode(byte[] value);
+}
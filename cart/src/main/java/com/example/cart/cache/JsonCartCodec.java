@@ -0,0 +1,64 @@
+package com.example.cart.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Jackson JSON entries, readable with {@code redis-cli} after the two header bytes.
+ */
+@Component
+public class JsonCartCodec implements CartCodec {
+
+    static final byte ID = 1;
+    static final byte SCHEMA_VERSION = 1;
+
+    private final ObjectMapper objectMapper;
+
+    public JsonCartCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte id() {
+        return ID;
+    }
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public byte schemaVersion() {
+        return SCHEMA_VERSION;
+    }
+
+    @Override
+    public byte[] encode(CartCache.Entry entry) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(entry);
+            byte[] value = new byte[HEADER_LENGTH + json.length];
+            value[0] = ID;
+            value[1] = SCHEMA_VERSION;
+            System.arraycopy(json, 0, value, HEADER_LENGTH, json.length);
+            return value;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public CartCache.Entry decode(byte[] value) {
+        if (value[1] != SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Unsupported JSON cart schema version " + value[1]);
+        }
+        try {
+            return objectMapper.readValue(value, HEADER_LENGTH, value.length - HEADER_LENGTH, CartCache.Entry.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON cart: " + e.getMessage(), e);
+        }
+    }
+}
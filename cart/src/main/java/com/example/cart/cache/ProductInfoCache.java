@@ -0,0 +1,375 @@
+package com.example.cart.cache;
+
+import com.example.cart.dto.response.GenericResponseSingleDTO;
+import com.example.cart.dto.response.ProductBatchResponse;
+import com.example.cart.dto.response.ProductServiceResponse;
+import com.example.cart.feign.ProductFeignClient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * In-process cache of product snapshots (name, price, ...) looked up by the cart, keyed by product id.
+ * <p>
+ * A hot product sits in many carts, so without it every cart view asks the product service for
+ * the same products again. Snapshots are served from memory for {@code cart.product-cache.fresh-seconds}.
+ * After that they are still served, stale, while one background batch lookup refreshes all the
+ * stale products a read came across (stale-while-revalidate). A snapshot that was not refreshed
+ * within {@code cart.product-cache.max-stale-seconds} expires and the next read waits for the
+ * product service again.
+ * <p>
+ * Ids the product service reports as missing are remembered the same way, so that carts holding a
+ * deleted product do not look it up on every view. Single lookups for adding a product to a cart
+ * do not trust such an entry and ask the product service.
+ * <p>
+ * Concurrent cart views missing the same product wait for one lookup of it instead of each
+ * starting their own, so a popular product expiring does not send a burst of calls.
+ * Product service calls run on dedicated virtual thread executors, never on the caller's pool.
+ * A cart view waits at most {@code cart.product-service.lookup-timeout-ms} for the products it
+ * misses and goes on with the ones it has; the late answer is still cached for the next view.
+ * At most {@code cart.product-service.max-concurrent-calls} batch calls run at once, counting the
+ * ones no view waits for anymore: past that, lookups fail fast and refreshes are skipped, so a slow
+ * product service cannot make calls pile up.
+ * <p>
+ * Hits and misses are published under the {@code cache} metrics with {@code cache=productInfo}.
+ * Batch lookups a cart view waits for are timed as {@code cart.product.lookup}, tagged with their
+ * {@code outcome} (complete, timeout, error, rejected), and the products served without a snapshot
+ * because of a timeout, an error or the call limit are counted as {@code cart.product.lookup.fallbacks}.
+ */
+@Slf4j
+@Component
+public class ProductInfoCache {
+
+    // Most ids the product service's /batch endpoint accepts in one call
+    static final int MAX_IDS_PER_CALL = 500;
+
+    private final ProductFeignClient productFeignClient;
+    private final Executor lookupExecutor;
+    private final Executor refreshExecutor;
+    private final Duration lookupTimeout;
+    private final Ticker ticker;
+    private final long freshNanos;
+    private final Cache<String, Snapshot> cache;
+    // Ids with a background refresh in flight, so that concurrent reads do not start another one
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    // Lookups cart views wait for, by id, so that concurrent reads missing the same product share one call
+    private final Map<String, CompletableFuture<ProductServiceResponse>> inFlight = new ConcurrentHashMap<>();
+    // Batch calls to the product service in flight, lookups and refreshes together, including abandoned ones
+    private final Semaphore callPermits;
+    private final MeterRegistry meterRegistry;
+    private final Timer completeLookups;
+    private final Timer timedOutLookups;
+    private final Timer failedLookups;
+    private final Timer rejectedLookups;
+    private final Counter fallbacks;
+
+    @Autowired
+    public ProductInfoCache(
+            ProductFeignClient productFeignClient,
+            MeterRegistry meterRegistry,
+            @Value("${cart.product-cache.fresh-seconds:30}") long freshSeconds,
+            @Value("${cart.product-cache.max-stale-seconds:300}") long maxStaleSeconds,
+            @Value("${cart.product-cache.max-size:100000}") long maxSize,
+            @Value("${cart.product-service.lookup-timeout-ms:500}") long lookupTimeoutMillis,
+            @Value("${cart.product-service.max-concurrent-calls:64}") int maxConcurrentCalls,
+            @Qualifier("productLookupExecutor") Executor lookupExecutor,
+            @Qualifier("productRefreshExecutor") Executor refreshExecutor) {
+        this(productFeignClient, meterRegistry, freshSeconds, maxStaleSeconds, maxSize,
+                Duration.ofMillis(lookupTimeoutMillis), maxConcurrentCalls, lookupExecutor, refreshExecutor,
+                Ticker.systemTicker());
+    }
+
+    ProductInfoCache(
+            ProductFeignClient productFeignClient,
+            MeterRegistry meterRegistry,
+            long freshSeconds,
+            long maxStaleSeconds,
+            long maxSize,
+            Duration lookupTimeout,
+            int maxConcurrentCalls,
+            Executor lookupExecutor,
+            Executor refreshExecutor,
+            Ticker ticker) {
+        if (maxStaleSeconds < freshSeconds) {
+            throw new IllegalArgumentException("cart.product-cache.max-stale-seconds must not be below fresh-seconds");
+        }
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("cart.product-service.max-concurrent-calls must be at least 1");
+        }
+        this.callPermits = new Semaphore(maxConcurrentCalls);
+        this.productFeignClient = productFeignClient;
+        this.lookupTimeout = lookupTimeout;
+        this.lookupExecutor = lookupExecutor;
+        this.refreshExecutor = refreshExecutor;
+        this.ticker = ticker;
+        this.freshNanos = Duration.ofSeconds(freshSeconds).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(maxStaleSeconds))
+                .maximumSize(maxSize)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productInfo");
+        this.meterRegistry = meterRegistry;
+        this.completeLookups = lookupTimer(meterRegistry, "complete");
+        this.timedOutLookups = lookupTimer(meterRegistry, "timeout");
+        this.failedLookups = lookupTimer(meterRegistry, "error");
+        this.rejectedLookups = lookupTimer(meterRegistry, "rejected");
+        this.fallbacks = Counter.builder("cart.product.lookup.fallbacks")
+                .description("Products that kept their stored name and price in a cart view, "
+                        + "as their lookup timed out, failed or was rejected at the call limit")
+                .register(meterRegistry);
+    }
+
+    private static Timer lookupTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("cart.product.lookup")
+                .description("Batch product lookups a cart view waited for")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Looks up the products to refresh the items of a cart with. Products missing from the cache
+     * are fetched with batch calls of at most {@value #MAX_IDS_PER_CALL} ids, waited for until the lookup timeout; stale ones are returned
+     * at once and refreshed in the background.
+     *
+     * @return the snapshots by product id, without the ids the product service does not know, and
+     * incomplete when some products could not be fetched in time
+     */
+    public Lookup getAll(Collection<String> productIds) {
+        Map<String, ProductServiceResponse> products = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        List<String> stale = new ArrayList<>();
+        long now = ticker.read();
+        for (String productId : new LinkedHashSet<>(productIds)) {
+            Snapshot snapshot = cache.getIfPresent(productId);
+            if (snapshot == null) {
+                missing.add(productId);
+                continue;
+            }
+            if (snapshot.product() != null) {
+                products.put(productId, snapshot.product());
+            }
+            if (now - snapshot.fetchedAt() >= freshNanos) {
+                stale.add(productId);
+            }
+        }
+
+        refreshInBackground(stale);
+        if (missing.isEmpty()) {
+            return new Lookup(products, true);
+        }
+        return fetchWithin(missing, products);
+    }
+
+    private Lookup fetchWithin(List<String> missing, Map<String, ProductServiceResponse> products) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<String, CompletableFuture<ProductServiceResponse>> pending = join(missing);
+        try {
+            CompletableFuture.allOf(pending.values().toArray(CompletableFuture[]::new))
+                    .get(lookupTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            collect(pending, products);
+            sample.stop(completeLookups);
+            return new Lookup(products, true);
+        } catch (TimeoutException e) {
+            sample.stop(timedOutLookups);
+            log.warn("getAll:: productIds - {}, no answer within {} ms", missing, lookupTimeout.toMillis());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                sample.stop(rejectedLookups);
+                log.warn("getAll:: productIds - {}, not looked up: {}", missing, e.getCause().getMessage());
+            } else {
+                sample.stop(failedLookups);
+                log.error("Unexpected error fetching product info for productIds: {}", missing, e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sample.stop(failedLookups);
+        }
+        int found = products.size();
+        collect(pending, products);
+        fallbacks.increment(missing.size() - (products.size() - found));
+        return new Lookup(products, false);
+    }
+
+    /**
+     * Pending lookup of each id: the one another read already started, or a new one shared by a
+     * batch call for the ids nobody is fetching yet, split per {@value #MAX_IDS_PER_CALL} ids.
+     */
+    private Map<String, CompletableFuture<ProductServiceResponse>> join(List<String> productIds) {
+        Map<String, CompletableFuture<ProductServiceResponse>> pending = new HashMap<>();
+        List<String> claimed = new ArrayList<>();
+        for (String productId : productIds) {
+            CompletableFuture<ProductServiceResponse> started = new CompletableFuture<>();
+            CompletableFuture<ProductServiceResponse> current = inFlight.putIfAbsent(productId, started);
+            if (current == null) {
+                claimed.add(productId);
+                current = started;
+            }
+            pending.put(productId, current);
+        }
+        perCall(claimed).forEach(this::startLookup);
+        return pending;
+    }
+
+    private void startLookup(List<String> claimed) {
+        // Fails fast while the product service is slow enough for every permit to be taken
+        if (!callPermits.tryAcquire()) {
+            settle(claimed, null, new RejectedExecutionException(
+                    "product service calls at the cart.product-service.max-concurrent-calls limit"));
+            return;
+        }
+        // Not cancelled on timeout, a late answer is cached for the next read and still completes the other
+        // waiters. The call keeps its permit until it returns, so abandoned calls cannot pile up.
+        try {
+            CompletableFuture.supplyAsync(() -> fetch(claimed), lookupExecutor)
+                    .whenComplete((fetched, error) -> {
+                        callPermits.release();
+                        settle(claimed, fetched, error);
+                    });
+        } catch (RuntimeException e) {
+            callPermits.release();
+            settle(claimed, null, e);
+        }
+    }
+
+    private static List<List<String>> perCall(List<String> productIds) {
+        List<List<String>> calls = new ArrayList<>();
+        for (int from = 0; from < productIds.size(); from += MAX_IDS_PER_CALL) {
+            calls.add(productIds.subList(from, Math.min(productIds.size(), from + MAX_IDS_PER_CALL)));
+        }
+        return calls;
+    }
+
+    private void settle(List<String> claimed, Map<String, ProductServiceResponse> fetched, Throwable error) {
+        for (String productId : claimed) {
+            CompletableFuture<ProductServiceResponse> lookup = inFlight.remove(productId);
+            if (error != null) {
+                lookup.completeExceptionally(error);
+            } else {
+                lookup.complete(fetched.get(productId));
+            }
+        }
+    }
+
+    // Adds the products of the lookups that completed with one, ids the product service does not know have none
+    private static void collect(Map<String, CompletableFuture<ProductServiceResponse>> pending,
+                                Map<String, ProductServiceResponse> products) {
+        pending.forEach((productId, lookup) -> {
+            ProductServiceResponse product = lookup.isDone() && !lookup.isCompletedExceptionally()
+                    ? lookup.join()
+                    : null;
+            if (product != null) {
+                products.put(productId, product);
+            }
+        });
+    }
+
+    /**
+     * Looks up the product to add to a cart. A cached snapshot is returned as for {@link #getAll},
+     * anything else is fetched.
+     *
+     * @return the product, {@code null} when the product service answered without one
+     * @throws feign.FeignException when the product service could not be reached or does not know the product
+     */
+    public ProductServiceResponse get(String productId) {
+        Snapshot snapshot = cache.getIfPresent(productId);
+        if (snapshot != null && snapshot.product() != null) {
+            if (ticker.read() - snapshot.fetchedAt() >= freshNanos) {
+                refreshInBackground(List.of(productId));
+            }
+            return snapshot.product();
+        }
+
+        GenericResponseSingleDTO<ProductServiceResponse> response = productFeignClient.getProductById(productId);
+        ProductServiceResponse product = response == null ? null : response.getResponse();
+        if (product != null) {
+            cache.put(productId, new Snapshot(product, ticker.read()));
+        }
+        return product;
+    }
+
+    private Map<String, ProductServiceResponse> fetch(List<String> productIds) {
+        long fetchedAt = ticker.read();
+        GenericResponseSingleDTO<ProductBatchResponse> response = productFeignClient.getProductsByIds(productIds);
+        if (response == null || response.getResponse() == null || response.getResponse().getProducts() == null) {
+            return Map.of();
+        }
+        Map<String, ProductServiceResponse> products = response.getResponse().getProducts();
+        products.forEach((productId, product) -> cache.put(productId, new Snapshot(product, fetchedAt)));
+        List<String> missingIds = response.getResponse().getMissingIds();
+        if (missingIds != null) {
+            missingIds.forEach(productId -> cache.put(productId, new Snapshot(null, fetchedAt)));
+        }
+        return products;
+    }
+
+    private void refreshInBackground(List<String> productIds) {
+        List<String> claimed = productIds.stream()
+                .filter(refreshing::add)
+                .toList();
+        perCall(claimed).forEach(this::startRefresh);
+    }
+
+    private void startRefresh(List<String> claimed) {
+        // Stale snapshots stay until they expire, the next read past them tries again
+        if (!callPermits.tryAcquire()) {
+            log.debug("refreshInBackground:: productIds - {}, skipped at the concurrent call limit", claimed);
+            claimed.forEach(refreshing::remove);
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    fetch(claimed);
+                } catch (Exception e) {
+                    log.warn("refreshInBackground:: productIds - {}, refresh failed: {}", claimed, e.getMessage());
+                } finally {
+                    callPermits.release();
+                    claimed.forEach(refreshing::remove);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            callPermits.release();
+            claimed.forEach(refreshing::remove);
+        }
+    }
+
+    /**
+     * @param products product snapshots by id
+     * @param complete false when products missing from the cache could not be fetched in time,
+     *                 their items then keep the name and price they have
+     */
+    public record Lookup(Map<String, ProductServiceResponse> products, boolean complete) {
+    }
+
+    // product is null for ids the product service reported missing; fetchedAt in ticker nanos
+    private record Snapshot(ProductServiceResponse product, long fetchedAt) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.cart.configuration;
+
+import com.example.cart.cache.CartCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class CartCacheConfig {
+
+    // Delivers the cart invalidations other instances publish to the L1 of this one
+    @Bean
+    public RedisMessageListenerContainer cartInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory, CartCache cartCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cartCache, new ChannelTopic(CartCache.INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    // Blocking Feign calls of cart views to the product service, one virtual thread each
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService productLookupExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("product-lookup-", 0).factory());
+    }
+
+    // Background refreshes of stale product snapshots, kept apart from the lookups cart views wait for
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService productRefreshExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("product-refresh-", 0).factory());
+    }
+}
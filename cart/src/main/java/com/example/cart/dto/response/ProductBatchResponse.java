@@ -0,0 +1,16 @@
+package com.example.cart.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponse {
+    private Map<String, ProductServiceResponse> products;
+    private List<String> missingIds;
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.List;
@@ -15,9 +16,13 @@ import java.util.UUID;
 @Document(collection = Cart.COLLECTION_NAME)
 public class Cart {
     public static final String COLLECTION_NAME="CART";
+    public static final String VERSION = "version";
 
     @Id
     private UUID id;
     private Double totalPrice;
     List<Product> cartItems;
+    // Optimistic locking: a save fails when another write saved the cart since it was read
+    @Version
+    private Long version;
 }
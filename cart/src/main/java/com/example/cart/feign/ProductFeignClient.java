@@ -1,13 +1,21 @@
 package com.example.cart.feign;
 
 import com.example.cart.dto.response.GenericResponseSingleDTO;
+import com.example.cart.dto.response.ProductBatchResponse;
 import com.example.cart.dto.response.ProductServiceResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
-@FeignClient(name = "product-service", url = "http://localhost:8080")
+import java.util.List;
+
+@FeignClient(name = "product-service", url = "${cart.product-service.url:http://localhost:8080}")
 public interface ProductFeignClient {
     @GetMapping("/api/product/{id}")
     GenericResponseSingleDTO<ProductServiceResponse> getProductById(@PathVariable String id);
+
+    @PostMapping("/api/product/batch")
+    GenericResponseSingleDTO<ProductBatchResponse> getProductsByIds(@RequestBody List<String> ids);
 }
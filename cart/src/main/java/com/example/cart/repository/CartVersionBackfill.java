@@ -0,0 +1,39 @@
+package com.example.cart.repository;
+
+import com.example.cart.entity.Cart;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets the version of carts stored before {@link Cart#getVersion()} existed. Without one, saving
+ * such a cart would be taken as inserting a new cart and fail on the duplicate id.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CartVersionBackfill {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            long updated = mongoTemplate.updateMulti(
+                    new Query(Criteria.where(Cart.VERSION).exists(false)),
+                    new Update().set(Cart.VERSION, 0L),
+                    Cart.class).getModifiedCount();
+            if (updated > 0) {
+                log.info("backfill:: set the version of {} carts", updated);
+            }
+        } catch (Exception e) {
+            log.warn("backfill:: could not set cart versions: {}", e.getMessage());
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package com.example.cart.service.impl;
 
+import com.example.cart.cache.CartCache;
+import com.example.cart.cache.ProductInfoCache;
 import com.example.cart.dto.CartDTO;
-import com.example.cart.dto.response.GenericResponseSingleDTO;
 import com.example.cart.dto.response.ProductServiceResponse;
 import com.example.cart.entity.Cart;
 import com.example.cart.entity.Product;
 import com.example.cart.exception.CartNotFoundException;
 import com.example.cart.exception.ProductNotFoundException;
-import com.example.cart.feign.ProductFeignClient;
 import com.example.cart.repository.CartRepository;
 import com.example.cart.service.CartService;
 import com.example.cart.utils.DTOUtils;
@@ -15,47 +15,65 @@ import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CartServiceImpl implements CartService {
 
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
     private final CartRepository cartRepository;
-    private final ProductFeignClient productFeignClient;
-    private static final String CART_CACHE = "cart";
+    private final ProductInfoCache productInfoCache;
+    private final CartCache cartCache;
 
     @Override
-    @CachePut(value = CART_CACHE, key = "#cartId.toString()")
     public CartDTO addProductToCart(String cartId, String productId) {
         log.debug("addProductToCart:: cartId - {}, productId - {}", cartId, productId);
-        
-        Cart cart = getCartFromCacheOrDB(cartId);
-        GenericResponseSingleDTO<ProductServiceResponse> productServiceResponse;
 
+        AtomicReference<Product> productToAdd = new AtomicReference<>();
+        Cart savedCart = updateCart(cartId, () -> getOrCreateCart(cartId), cart -> {
+            // Looked up once, a retry after a concurrent write only adds it to the re-read cart
+            if (productToAdd.get() == null) {
+                productToAdd.set(getProductToAdd(cartId, productId));
+            }
+            addItem(cart, productToAdd.get());
+        });
+        log.debug("Cart saved successfully with totalPrice: {}", savedCart.getTotalPrice());
+
+        return DTOUtils.getDTO(savedCart);
+    }
+
+    private Product getProductToAdd(String cartId, String productId) {
+        ProductServiceResponse productServiceResponse;
         try {
-            productServiceResponse = productFeignClient.getProductById(productId);
+            productServiceResponse = productInfoCache.get(productId);
         } catch (FeignException feignException) {
             throw new ProductNotFoundException(" FAILED - addProductToCart:: cartId - " + cartId + ", productId - " + productId);
         }
 
-        Product productToAdd = DTOUtils.getEntity(productServiceResponse.getResponse());
+        Product productToAdd = DTOUtils.getEntity(productServiceResponse);
         // Set default quantity of 1 if quantity is null (product service doesn't provide quantity)
         if (productToAdd.getQuantity() == null) {
             productToAdd.setQuantity(1);
         }
-        
+        return productToAdd;
+    }
+
+    private void addItem(Cart cart, Product productToAdd) {
         List<Product> cartItems = cart.getCartItems() != null ? cart.getCartItems() : new ArrayList<>();
 
         // Check if product already exists in cart
@@ -78,36 +96,45 @@ public class CartServiceImpl implements CartService {
         }
 
         cart.setCartItems(cartItems);
-        cart.setTotalPrice(calculateTotalPrice(cartItems));
-        
-        Cart savedCart = cartRepository.save(cart);
-        log.debug("Cart saved successfully with totalPrice: {}", savedCart.getTotalPrice());
-        
-        return DTOUtils.getDTO(savedCart);
     }
 
+    /**
+     * Serves the cart from Redis, going to Mongo on a miss only. Item names and prices are checked
+     * against the product service when the cached check is older than the configured interval;
+     * the refreshed cart is cached, Mongo keeps the prices of the last write.
+     */
     @Override
-//    @Cacheable(value = CART_CACHE, key = "#cartId.toString()", unless = "#result == null")
     public CartDTO getCart(String cartId) {
         log.debug("getCart:: cartId - {}", cartId);
-        Cart cart = cartRepository.findById(UUID.fromString(cartId))
-                .orElseThrow(() -> new CartNotFoundException("Cart not found with id: " + cartId));
-        
-        // Make parallel Feign calls to get the latest price and name for all products
-        updateCartWithLatestProductInfo(cart);
-        
+        UUID id = UUID.fromString(cartId);
+        Optional<CartCache.Entry> cached = cartCache.get(id);
+        if (cached.isPresent() && !cartCache.needsPriceCheck(cached.get())) {
+            return DTOUtils.getDTO(cached.get().cart());
+        }
+
+        Cart cart = cached.map(CartCache.Entry::cart)
+                .orElseGet(() -> cartRepository.findById(id)
+                        .orElseThrow(() -> new CartNotFoundException("Cart not found with id: " + cartId)));
+
+        // Latest price and name of all products, from the product snapshot cache or one batch call
+        Instant checkedAt = Instant.now();
+        boolean checked = updateCartWithLatestProductInfo(cart);
+        cartCache.put(cart, checked ? checkedAt : cached.map(CartCache.Entry::pricesCheckedAt).orElse(null));
+
         return DTOUtils.getDTO(cart);
     }
     
     /**
      * Updates cart items with latest product information (price and name) from product service
-     * Makes parallel Feign calls for better performance
+     * Products are served by the product snapshot cache, those it misses are fetched with a single batch call
+     *
+     * @return false when some products could not be looked up in time and their items kept the stored info
      */
-    private void updateCartWithLatestProductInfo(Cart cart) {
+    private boolean updateCartWithLatestProductInfo(Cart cart) {
         List<Product> cartItems = cart.getCartItems();
         if (cartItems == null || cartItems.isEmpty()) {
             log.debug("Cart has no items, skipping product info update");
-            return;
+            return true;
         }
         
         // Get unique product IDs
@@ -118,37 +145,13 @@ public class CartServiceImpl implements CartService {
         
         log.debug("Updating product info for {} unique products in cart", productIds.size());
         
-        // Create parallel CompletableFuture tasks for each product
-        List<CompletableFuture<ProductServiceResponse>> futures = productIds.stream()
-                .map(productId -> CompletableFuture.supplyAsync(() -> {
-                    try {
-                        GenericResponseSingleDTO<ProductServiceResponse> response = 
-                                productFeignClient.getProductById(productId);
-                        return response.getResponse();
-                    } catch (Exception e) {
-                        log.error("Unexpected error fetching product info for productId: {}", 
-                                productId, e);
-                    }
-                    return null;
-                }))
-                .toList();
-        
-        // Wait for all futures to complete and collect results
-        Map<String, ProductServiceResponse> productInfoMap = new ConcurrentHashMap<>();
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenRun(() -> {
-                    futures.forEach(future -> {
-                        try {
-                            ProductServiceResponse productResponse = future.get();
-                            if (productResponse != null && productResponse.getProductId() != null) {
-                                productInfoMap.put(productResponse.getProductId(), productResponse);
-                            }
-                        } catch (Exception e) {
-                            log.error("Error getting product info from future", e);
-                        }
-                    });
-                })
-                .join();
+        // Partial when the product service did not answer in time, the other items keep their stored name and price
+        ProductInfoCache.Lookup lookup = productInfoCache.getAll(productIds);
+        Map<String, ProductServiceResponse> productInfoMap = lookup.products();
+        if (lookup.complete() && productInfoMap.size() < productIds.size()) {
+            log.warn("Products no longer available for cart {}: {}", cart.getId(),
+                    productIds.stream().filter(productId -> !productInfoMap.containsKey(productId)).toList());
+        }
         
         // Update cart items with latest product information
         boolean priceUpdated = false;
@@ -173,41 +176,62 @@ public class CartServiceImpl implements CartService {
             cart.setTotalPrice(calculateTotalPrice(cartItems));
             log.debug("Recalculated cart total price: {}", cart.getTotalPrice());
         }
+        return lookup.complete();
     }
     
 
     @Override
-    @CachePut(value = CART_CACHE, key = "#cartId.toString()")
     public CartDTO deleteProductFromCart(String cartId, String productId) {
         log.debug("deleteProductFromCart:: cartId - {}, productId - {}", cartId, productId);
-        
-        Cart cart = cartRepository.findById(UUID.fromString(cartId))
-                .orElseThrow(() -> new CartNotFoundException("Cart not found with id: " + cartId));
 
-        List<Product> cartItems = cart.getCartItems() != null ? cart.getCartItems() : new ArrayList<>();
-        
-        // Remove product by productId
-        boolean removed = cartItems.removeIf(item -> item.getProductId().equals(productId));
-        
-        if (!removed) {
-            log.warn("Product {} not found in cart {}", productId, cartId);
-            throw new CartNotFoundException("Product not found in cart with productId: " + productId);
-        }
+        Cart savedCart = updateCart(cartId,
+                () -> cartRepository.findById(UUID.fromString(cartId))
+                        .orElseThrow(() -> new CartNotFoundException("Cart not found with id: " + cartId)),
+                cart -> {
+                    List<Product> cartItems = cart.getCartItems() != null ? cart.getCartItems() : new ArrayList<>();
 
-        cart.setCartItems(cartItems);
-        cart.setTotalPrice(calculateTotalPrice(cartItems));
-        
-        Cart savedCart = cartRepository.save(cart);
+                    // Remove product by productId
+                    boolean removed = cartItems.removeIf(item -> item.getProductId().equals(productId));
+
+                    if (!removed) {
+                        log.warn("Product {} not found in cart {}", productId, cartId);
+                        throw new CartNotFoundException("Product not found in cart with productId: " + productId);
+                    }
+                    cart.setCartItems(cartItems);
+                });
         log.debug("Product {} removed from cart, new totalPrice: {}", productId, savedCart.getTotalPrice());
         
         return DTOUtils.getDTO(savedCart);
     }
 
     /**
-     * Helper method to get cart from cache or database
-     * This avoids duplicate code in addProductToCart and deleteProductFromCart
+     * Applies a change to the cart as stored in Mongo and saves it. When another write saved the
+     * cart in between (optimistic locking on its version) the cart is read again and the change
+     * re-applied. The saved cart then replaces the cached one, with its prices due for a check as
+     * only the changed item is known to be current.
+     */
+    private Cart updateCart(String cartId, Supplier<Cart> loader, Consumer<Cart> change) {
+        for (int attempt = 1; ; attempt++) {
+            Cart cart = loader.get();
+            change.accept(cart);
+            cart.setTotalPrice(calculateTotalPrice(cart.getCartItems()));
+            try {
+                Cart savedCart = cartRepository.save(cart);
+                cartCache.put(savedCart, null);
+                return savedCart;
+            } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("updateCart:: cartId - {} was written concurrently, retrying ({})", cartId, attempt);
+            }
+        }
+    }
+
+    /**
+     * Reads the cart from Mongo, or starts a new one when there is none yet
      */
-    private Cart getCartFromCacheOrDB(String cartId) {
+    private Cart getOrCreateCart(String cartId) {
         return cartRepository.findById(UUID.fromString(cartId))
                 .orElseGet(() -> {
                     log.debug("Cart not found, creating new cart with id: {}", cartId);
@@ -6,11 +6,12 @@ import com.example.cart.dto.response.ProductServiceResponse;
 import com.example.cart.entity.Cart;
 import com.example.cart.entity.Product;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
+import org.springframework.util.Assert;
 
 import java.util.ArrayList;
 import java.util.List;
 
+// Mapped field by field through constructors: checked at compile time and no reflective bean copying per cart item
 @Slf4j
 public final class DTOUtils {
 
@@ -20,22 +21,41 @@ public final class DTOUtils {
     }
 
     public static ProductDTO getDTO(Product srcProduct) {
-        ProductDTO targetDTO = new ProductDTO();
-        BeanUtils.copyProperties(srcProduct, targetDTO);
+        Assert.notNull(srcProduct, "Source must not be null");
+        ProductDTO targetDTO = new ProductDTO(
+                srcProduct.getProductId(),
+                srcProduct.getProductName(),
+                srcProduct.getCategory(),
+                srcProduct.getPrice(),
+                srcProduct.getQuantity()
+        );
         log.debug("getDTO():: srcProduct - {}, targetDTO - {}", srcProduct, targetDTO);
         return targetDTO;
     }
 
     public static Product getEntity(ProductDTO srcProductDTO) {
-        Product targetEntity = new Product();
-        BeanUtils.copyProperties(srcProductDTO, targetEntity);
+        Assert.notNull(srcProductDTO, "Source must not be null");
+        Product targetEntity = new Product(
+                srcProductDTO.getProductId(),
+                srcProductDTO.getProductName(),
+                srcProductDTO.getCategory(),
+                srcProductDTO.getPrice(),
+                srcProductDTO.getQuantity()
+        );
         log.debug("getEntity():: srcProductDTO - {}, targetEntity - {}", srcProductDTO, targetEntity);
         return targetEntity;
     }
 
     public static Product getEntity(ProductServiceResponse productServiceResponse) {
-        Product targetEntity = new Product();
-        BeanUtils.copyProperties(productServiceResponse, targetEntity);
+        Assert.notNull(productServiceResponse, "Source must not be null");
+        // The product service does not know the quantity, the cart sets it
+        Product targetEntity = new Product(
+                productServiceResponse.getProductId(),
+                productServiceResponse.getProductName(),
+                productServiceResponse.getCategory(),
+                productServiceResponse.getPrice(),
+                null
+        );
         log.debug("getEntity():: productServiceResponse - {}, targetEntity - {}", productServiceResponse, targetEntity);
         return targetEntity;
     }
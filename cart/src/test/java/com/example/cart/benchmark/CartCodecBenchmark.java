@@ -0,0 +1,100 @@
+package com.example.cart.benchmark;
+
+import com.example.cart.cache.BinaryCartCodec;
+import com.example.cart.cache.CartCache;
+import com.example.cart.cache.CartCodec;
+import com.example.cart.cache.JsonCartCodec;
+import com.example.cart.entity.Cart;
+import com.example.cart.entity.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode time of the cart cache codecs per cart, by number of items. {@link #main}
+ * prints the encoded sizes of the same carts first.
+ * <p>
+ * Run from the IDE through {@link #main}, with {@code -prof gc} added to the options to see the
+ * allocation rate per operation. Not picked up by surefire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartCodecBenchmark {
+
+    private static final String[] CATEGORIES = {"Electronics", "Books", "Home & Kitchen", "Sports"};
+
+    @Param({"binary", "json"})
+    public String codecName;
+
+    @Param({"1", "10", "100"})
+    public int items;
+
+    private CartCodec codec;
+    private CartCache.Entry entry;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        codec = codec(codecName);
+        entry = entry(items);
+        encoded = codec.encode(entry);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(entry);
+    }
+
+    @Benchmark
+    public CartCache.Entry decode() {
+        return codec.decode(encoded);
+    }
+
+    private static CartCodec codec(String name) {
+        return name.equals("binary")
+                ? new BinaryCartCodec()
+                : new JsonCartCodec(new ObjectMapper().findAndRegisterModules());
+    }
+
+    private static CartCache.Entry entry(int items) {
+        List<Product> products = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            products.add(new Product(UUID.randomUUID().toString().substring(0, 24), "Product name " + i,
+                    CATEGORIES[i % CATEGORIES.length], 19.99 + i, 1 + i % 3));
+        }
+        return new CartCache.Entry(new Cart(UUID.randomUUID(), 1999.99, products, 12L), Instant.now());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int items : new int[]{1, 10, 100}) {
+            CartCache.Entry entry = entry(items);
+            System.out.printf("%3d items: binary %6d bytes, json %6d bytes%n",
+                    items, codec("binary").encode(entry).length, codec("json").encode(entry).length);
+        }
+        new Runner(new OptionsBuilder()
+                .include(CartCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.cart.cache;
+
+import com.example.cart.entity.Cart;
+import com.example.cart.entity.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("CartCache Unit Tests")
+class CartCacheTest {
+
+    private StringRedisTemplate redisTemplate;
+    private CartCodec codec;
+    private SimpleMeterRegistry meterRegistry;
+    private CartCache cartCache;
+    private Cart cart;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        codec = new BinaryCartCodec();
+        meterRegistry = new SimpleMeterRegistry();
+        cartCache = new CartCache(redisTemplate,
+                List.of(codec, new JsonCartCodec(new ObjectMapper().findAndRegisterModules())), "binary",
+                meterRegistry, 600, 60, 100, 60);
+
+        cart = new Cart(UUID.randomUUID(), 999.99,
+                new ArrayList<>(List.of(new Product("PROD001", "Laptop", "Electronics", 999.99, 1))), 3L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenRedisHolds(byte[] value) {
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(value);
+    }
+
+    private void givenRedisHolds(Cart cached) {
+        givenRedisHolds(codec.encode(new CartCache.Entry(cached, Instant.now())));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenRedisPutResult(long result) {
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                anyList(), any(), any(), any()))
+                .thenReturn(result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void verifyRedisReads(int times) {
+        verify(redisTemplate, times(times)).execute(any(RedisCallback.class));
+    }
+
+    private double gets(String cache, String result) {
+        // L1 counts come from the Caffeine stats as function counters, L2 counts are plain counters
+        var search = meterRegistry.find("cache.gets").tag("cache", cache).tag("result", result);
+        return search.functionCounters().stream().mapToDouble(counter -> counter.count()).sum()
+                + search.counters().stream().mapToDouble(counter -> counter.count()).sum();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated reads from L1 after the first Redis hit")
+    void testRepeatedReadsServedFromL1() {
+        // Given
+        givenRedisHolds(cart);
+
+        // When
+        Optional<CartCache.Entry> first = cartCache.get(cart.getId());
+        Optional<CartCache.Entry> second = cartCache.get(cart.getId());
+
+        // Then
+        assertEquals("Laptop", first.orElseThrow().cart().getCartItems().getFirst().getProductName());
+        assertEquals(cart, second.orElseThrow().cart());
+        verifyRedisReads(1);
+        assertEquals(1, gets("cartL1", "hit"));
+        assertEquals(1, gets("cartL1", "miss"));
+        assertEquals(1, gets("cartL2", "hit"));
+        assertEquals(0, gets("cartL2", "miss"));
+    }
+
+    @Test
+    @DisplayName("Should hand out copies, changes to a read cart do not leak into L1")
+    void testReadsAreCopies() {
+        // Given
+        givenRedisHolds(cart);
+
+        // When
+        cartCache.get(cart.getId()).orElseThrow().cart().getCartItems().getFirst().setPrice(1.0);
+
+        // Then
+        assertEquals(999.99, cartCache.get(cart.getId()).orElseThrow().cart().getCartItems().getFirst().getPrice());
+    }
+
+    @Test
+    @DisplayName("Should fill L1 on put and tell the other instances, ignoring its own message")
+    void testPutPublishesInvalidation() {
+        // Given
+        givenRedisPutResult(1L);
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+
+        // When
+        cartCache.put(cart, null);
+        verify(redisTemplate).convertAndSend(eq(CartCache.INVALIDATION_CHANNEL), message.capture());
+        cartCache.onMessage(new DefaultMessage(CartCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                message.getValue().getBytes(StandardCharsets.UTF_8)), null);
+
+        // Then
+        assertTrue(message.getValue().endsWith(":" + cart.getId()));
+        assertEquals(cart, cartCache.get(cart.getId()).orElseThrow().cart());
+        verifyRedisReads(0);
+    }
+
+    @Test
+    @DisplayName("Should drop the L1 copy when another instance caches a new version")
+    void testRemoteInvalidation() {
+        // Given
+        givenRedisHolds(cart);
+        cartCache.get(cart.getId());
+
+        // When
+        String body = UUID.randomUUID() + ":" + cart.getId();
+        cartCache.onMessage(new DefaultMessage(CartCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+        cartCache.get(cart.getId());
+
+        // Then
+        verifyRedisReads(2);
+    }
+
+    @Test
+    @DisplayName("Should not cache an older version than Redis holds, in either level")
+    void testPutOfOlderVersionIsRejected() {
+        // Given
+        givenRedisPutResult(1L);
+        cartCache.put(cart, null);
+        givenRedisPutResult(0L);
+        Cart older = new Cart(cart.getId(), 0.0, new ArrayList<>(), 2L);
+
+        // When
+        cartCache.put(older, null);
+        givenRedisHolds(cart);
+
+        // Then
+        assertEquals(cart, cartCache.get(cart.getId()).orElseThrow().cart());
+        verify(redisTemplate, times(1)).convertAndSend(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should read entries of any known codec, whichever one writes")
+    void testReadsEntriesOfOtherCodec() {
+        // Given
+        givenRedisHolds(new JsonCartCodec(new ObjectMapper().findAndRegisterModules())
+                .encode(new CartCache.Entry(cart, Instant.now())));
+
+        // When
+        Optional<CartCache.Entry> entry = cartCache.get(cart.getId());
+
+        // Then
+        assertEquals(cart, entry.orElseThrow().cart());
+    }
+
+    @Test
+    @DisplayName("Should treat entries of an unknown codec or schema version as misses")
+    void testUnknownCodecIsMiss() {
+        // Given
+        byte[] newerSchema = codec.encode(new CartCache.Entry(cart, Instant.now()));
+        newerSchema[1]++;
+        givenRedisHolds(newerSchema);
+
+        // When & Then
+        assertTrue(cartCache.get(cart.getId()).isEmpty());
+        givenRedisHolds("{\"cart\":{}}".getBytes(StandardCharsets.UTF_8));
+        assertTrue(cartCache.get(cart.getId()).isEmpty());
+        assertEquals(2, gets("cartL2", "miss"));
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown configured codec")
+    void testUnknownConfiguredCodec() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> new CartCache(redisTemplate, List.of(codec), "kryo",
+                meterRegistry, 600, 60, 100, 60));
+    }
+
+    @Test
+    @DisplayName("Should treat Redis errors as misses")
+    @SuppressWarnings("unchecked")
+    void testRedisErrorIsMiss() {
+        // Given
+        when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        // When & Then
+        assertTrue(cartCache.get(cart.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should evict the Redis entry when a put fails, so that the next read goes to Mongo")
+    @SuppressWarnings("unchecked")
+    void testFailedPutEvictsRemoteEntry() {
+        // Given
+        givenRedisHolds(new Cart(cart.getId(), 0.0, new ArrayList<>(), 2L));
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                anyList(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("script timed out"));
+        when(redisTemplate.delete(CartCache.key(cart.getId()))).thenAnswer(invocation -> {
+            givenRedisHolds((byte[]) null);
+            return true;
+        });
+
+        // When
+        cartCache.put(cart, null);
+
+        // Then
+        verify(redisTemplate, times(1)).delete(CartCache.key(cart.getId()));
+        assertTrue(cartCache.get(cart.getId()).isEmpty());
+        verify(redisTemplate, never()).convertAndSend(any(), any());
+    }
+}
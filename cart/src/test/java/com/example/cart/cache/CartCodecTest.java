@@ -0,0 +1,107 @@
+package com.example.cart.cache;
+
+import com.example.cart.entity.Cart;
+import com.example.cart.entity.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CartCodec Unit Tests")
+class CartCodecTest {
+
+    static Stream<CartCodec> codecs() {
+        return Stream.of(new BinaryCartCodec(), new JsonCartCodec(new ObjectMapper().findAndRegisterModules()));
+    }
+
+    private static CartCache.Entry entry(int items) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            products.add(new Product("PROD" + i, "Product " + i, i % 2 == 0 ? "Electronics" : "Électroménager",
+                    9.99 * (i + 1), i + 1));
+        }
+        return new CartCache.Entry(new Cart(UUID.randomUUID(), 123.45, products, 7L), Instant.now());
+    }
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    @DisplayName("Should round-trip an entry with its header")
+    void testRoundTrip(CartCodec codec) {
+        // Given
+        CartCache.Entry entry = entry(5);
+
+        // When
+        byte[] value = codec.encode(entry);
+
+        // Then
+        assertEquals(codec.id(), value[0]);
+        assertEquals(codec.schemaVersion(), value[1]);
+        assertEquals(entry, codec.decode(value));
+    }
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    @DisplayName("Should keep null fields null")
+    void testRoundTripNulls(CartCodec codec) {
+        // Given
+        List<Product> items = new ArrayList<>();
+        items.add(new Product("PROD001", null, null, null, null));
+        CartCache.Entry withNullItemFields = new CartCache.Entry(new Cart(UUID.randomUUID(), null, items, null), null);
+        CartCache.Entry withoutItems = new CartCache.Entry(new Cart(UUID.randomUUID(), 0.0, null, 0L), null);
+
+        // When & Then
+        assertEquals(withNullItemFields, codec.decode(codec.encode(withNullItemFields)));
+        assertEquals(withoutItems, codec.decode(codec.encode(withoutItems)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    @DisplayName("Should reject values of another schema version")
+    void testRejectsOtherSchemaVersion(CartCodec codec) {
+        // Given
+        byte[] value = codec.encode(entry(1));
+        value[1] = (byte) (codec.schemaVersion() + 1);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(value));
+    }
+
+    @Test
+    @DisplayName("Should write repeated strings once and reject truncated values")
+    void testBinaryStringReferences() {
+        // Given
+        BinaryCartCodec codec = new BinaryCartCodec();
+        byte[] value = codec.encode(entry(20));
+
+        // When & Then
+        String text = new String(value, StandardCharsets.UTF_8);
+        assertEquals(text.indexOf("Electronics"), text.lastIndexOf("Electronics"));
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.decode(Arrays.copyOf(value, value.length - 3)));
+    }
+
+    @Test
+    @DisplayName("Should encode carts smaller than JSON")
+    void testBinaryIsSmaller() {
+        // Given
+        CartCache.Entry entry = entry(10);
+
+        // When
+        int binary = new BinaryCartCodec().encode(entry).length;
+        int json = new JsonCartCodec(new ObjectMapper().findAndRegisterModules()).encode(entry).length;
+
+        // Then
+        assertTrue(binary * 2 < json, binary + " bytes binary, " + json + " bytes JSON");
+    }
+}
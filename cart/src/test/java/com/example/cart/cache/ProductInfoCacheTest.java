@@ -0,0 +1,299 @@
+package com.example.cart.cache;
+
+import com.example.cart.dto.response.GenericResponseSingleDTO;
+import com.example.cart.dto.response.ProductBatchResponse;
+import com.example.cart.dto.response.ProductServiceResponse;
+import com.example.cart.feign.ProductFeignClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ProductInfoCache Unit Tests")
+class ProductInfoCacheTest {
+
+    private static final String LAPTOP = "PROD001";
+    private static final String MOUSE = "PROD002";
+
+    private ProductFeignClient productFeignClient;
+    private AtomicLong nanos;
+    private List<Runnable> refreshes;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductInfoCache productInfoCache;
+
+    @BeforeEach
+    void setUp() {
+        productFeignClient = mock(ProductFeignClient.class);
+        nanos = new AtomicLong();
+        refreshes = new ArrayList<>();
+        meterRegistry = new SimpleMeterRegistry();
+        productInfoCache = new ProductInfoCache(productFeignClient, meterRegistry, 30, 300, 1000,
+                Duration.ofMillis(100), 64, Runnable::run, refreshes::add, nanos::get);
+    }
+
+    private static ProductServiceResponse product(String productId, double price) {
+        return new ProductServiceResponse(productId, "Product " + productId, null, price, "Electronics", List.of());
+    }
+
+    private void givenBatch(List<String> ids, Map<String, ProductServiceResponse> products, List<String> missing) {
+        GenericResponseSingleDTO<ProductBatchResponse> response = new GenericResponseSingleDTO<>();
+        response.setResponse(new ProductBatchResponse(products, missing));
+        when(productFeignClient.getProductsByIds(ids)).thenReturn(response);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    @DisplayName("Should fetch only the products missing from the cache, with one batch call")
+    void testFetchesMissingProductsOnly() {
+        // Given
+        givenBatch(List.of(LAPTOP), Map.of(LAPTOP, product(LAPTOP, 999.99)), List.of());
+        givenBatch(List.of(MOUSE), Map.of(MOUSE, product(MOUSE, 29.99)), List.of());
+        productInfoCache.getAll(List.of(LAPTOP));
+
+        // When
+        Map<String, ProductServiceResponse> products = productInfoCache.getAll(List.of(LAPTOP, MOUSE, LAPTOP)).products();
+
+        // Then
+        assertEquals(Map.of(LAPTOP, product(LAPTOP, 999.99), MOUSE, product(MOUSE, 29.99)), products);
+        verify(productFeignClient, times(1)).getProductsByIds(List.of(LAPTOP));
+        verify(productFeignClient, times(1)).getProductsByIds(List.of(MOUSE));
+        assertTrue(refreshes.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should serve stale snapshots and refresh them once in the background")
+    void testStaleWhileRevalidate() {
+        // Given
+        givenBatch(List.of(LAPTOP, MOUSE), Map.of(LAPTOP, product(LAPTOP, 999.99), MOUSE, product(MOUSE, 29.99)),
+                List.of());
+        productInfoCache.getAll(List.of(LAPTOP, MOUSE));
+        advance(Duration.ofSeconds(31));
+
+        // When
+        Map<String, ProductServiceResponse> stale = productInfoCache.getAll(List.of(LAPTOP, MOUSE)).products();
+        productInfoCache.getAll(List.of(LAPTOP));
+        productInfoCache.get(MOUSE);
+
+        // Then
+        assertEquals(999.99, stale.get(LAPTOP).getPrice());
+        assertEquals(1, refreshes.size());
+        givenBatch(List.of(LAPTOP, MOUSE), Map.of(LAPTOP, product(LAPTOP, 899.99), MOUSE, product(MOUSE, 29.99)),
+                List.of());
+        refreshes.getFirst().run();
+        assertEquals(899.99, productInfoCache.getAll(List.of(LAPTOP)).products().get(LAPTOP).getPrice());
+        verify(productFeignClient, times(2)).getProductsByIds(List.of(LAPTOP, MOUSE));
+        verify(productFeignClient, never()).getProductById(any());
+    }
+
+    @Test
+    @DisplayName("Should wait for the product service once a snapshot was not refreshed for max-stale-seconds")
+    void testExpiredSnapshotIsFetched() {
+        // Given
+        givenBatch(List.of(LAPTOP), Map.of(LAPTOP, product(LAPTOP, 999.99)), List.of());
+        productInfoCache.getAll(List.of(LAPTOP));
+        advance(Duration.ofSeconds(301));
+
+        // When
+        productInfoCache.getAll(List.of(LAPTOP));
+
+        // Then
+        verify(productFeignClient, times(2)).getProductsByIds(List.of(LAPTOP));
+        assertTrue(refreshes.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should remember missing products for batch lookups but not for single lookups")
+    void testMissingProducts() {
+        // Given
+        givenBatch(List.of(LAPTOP), Map.of(), List.of(LAPTOP));
+        GenericResponseSingleDTO<ProductServiceResponse> single = new GenericResponseSingleDTO<>();
+        single.setResponse(product(LAPTOP, 999.99));
+        when(productFeignClient.getProductById(LAPTOP)).thenReturn(single);
+
+        // When
+        Map<String, ProductServiceResponse> first = productInfoCache.getAll(List.of(LAPTOP)).products();
+        Map<String, ProductServiceResponse> second = productInfoCache.getAll(List.of(LAPTOP)).products();
+        ProductServiceResponse added = productInfoCache.get(LAPTOP);
+
+        // Then
+        assertTrue(first.isEmpty());
+        assertTrue(second.isEmpty());
+        assertEquals(999.99, added.getPrice());
+        verify(productFeignClient, times(1)).getProductsByIds(List.of(LAPTOP));
+        assertEquals(999.99, productInfoCache.getAll(List.of(LAPTOP)).products().get(LAPTOP).getPrice());
+    }
+
+    @Test
+    @DisplayName("Should keep serving stale snapshots when a background refresh fails")
+    void testFailedRefreshKeepsSnapshot() {
+        // Given
+        givenBatch(List.of(LAPTOP), Map.of(LAPTOP, product(LAPTOP, 999.99)), List.of());
+        productInfoCache.getAll(List.of(LAPTOP));
+        advance(Duration.ofSeconds(31));
+        productInfoCache.getAll(List.of(LAPTOP));
+        when(productFeignClient.getProductsByIds(List.of(LAPTOP))).thenThrow(new RuntimeException("down"));
+
+        // When
+        refreshes.getFirst().run();
+        Map<String, ProductServiceResponse> products = productInfoCache.getAll(List.of(LAPTOP)).products();
+
+        // Then
+        assertEquals(999.99, products.get(LAPTOP).getPrice());
+        assertEquals(2, refreshes.size());
+    }
+
+    @Test
+    @DisplayName("Should return what it has once the lookup deadline passes, and cache the late answer")
+    void testLookupDeadline() {
+        // Given
+        List<Runnable> lookups = new ArrayList<>();
+        productInfoCache = new ProductInfoCache(productFeignClient, meterRegistry, 30, 300, 1000,
+                Duration.ofMillis(50), 64, lookups::add, refreshes::add, nanos::get);
+        givenBatch(List.of(LAPTOP), Map.of(LAPTOP, product(LAPTOP, 999.99)), List.of());
+        productInfoCache.getAll(List.of(LAPTOP));
+        lookups.removeFirst().run();
+        givenBatch(List.of(MOUSE), Map.of(MOUSE, product(MOUSE, 29.99)), List.of());
+
+        // When
+        ProductInfoCache.Lookup lookup = productInfoCache.getAll(List.of(LAPTOP, MOUSE));
+        lookups.removeFirst().run();
+
+        // Then
+        assertFalse(lookup.complete());
+        assertEquals(Map.of(LAPTOP, product(LAPTOP, 999.99)), lookup.products());
+        assertTrue(productInfoCache.getAll(List.of(LAPTOP, MOUSE)).complete());
+        assertEquals(2, meterRegistry.get("cart.product.lookup").tag("outcome", "timeout").timer().count());
+        assertEquals(2, meterRegistry.get("cart.product.lookup.fallbacks").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should share one lookup of a product between concurrent reads missing it")
+    void testConcurrentMissesShareLookup() throws Exception {
+        // Given
+        List<Runnable> lookups = Collections.synchronizedList(new ArrayList<>());
+        productInfoCache = new ProductInfoCache(productFeignClient, meterRegistry, 30, 300, 1000,
+                Duration.ofSeconds(10), 64, lookups::add, refreshes::add, nanos::get);
+        givenBatch(List.of(LAPTOP), Map.of(LAPTOP, product(LAPTOP, 999.99)), List.of());
+        givenBatch(List.of(MOUSE), Map.of(MOUSE, product(MOUSE, 29.99)), List.of());
+        CompletableFuture<ProductInfoCache.Lookup> first = new CompletableFuture<>();
+        CompletableFuture<ProductInfoCache.Lookup> second = new CompletableFuture<>();
+
+        // When
+        Thread.ofVirtual().start(() -> first.complete(productInfoCache.getAll(List.of(LAPTOP))));
+        awaitLookups(lookups, 1);
+        Thread.ofVirtual().start(() -> second.complete(productInfoCache.getAll(List.of(LAPTOP, MOUSE))));
+        awaitLookups(lookups, 2);
+        List.copyOf(lookups).forEach(Runnable::run);
+
+        // Then
+        assertEquals(Map.of(LAPTOP, product(LAPTOP, 999.99)), first.get(10, TimeUnit.SECONDS).products());
+        assertEquals(Map.of(LAPTOP, product(LAPTOP, 999.99), MOUSE, product(MOUSE, 29.99)),
+                second.get(10, TimeUnit.SECONDS).products());
+        assertTrue(second.get().complete());
+        verify(productFeignClient, times(1)).getProductsByIds(List.of(LAPTOP));
+        verify(productFeignClient, times(1)).getProductsByIds(List.of(MOUSE));
+        verify(productFeignClient, never()).getProductsByIds(List.of(LAPTOP, MOUSE));
+    }
+
+    @Test
+    @DisplayName("Should split a lookup into batch calls the product service accepts")
+    void testSplitsLargeLookups() {
+        // Given
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 2 * ProductInfoCache.MAX_IDS_PER_CALL + 200; i++) {
+            ids.add("PROD" + i);
+        }
+        when(productFeignClient.getProductsByIds(any())).thenAnswer(invocation -> {
+            Map<String, ProductServiceResponse> products = new HashMap<>();
+            invocation.<List<String>>getArgument(0).forEach(id -> products.put(id, product(id, 9.99)));
+            GenericResponseSingleDTO<ProductBatchResponse> response = new GenericResponseSingleDTO<>();
+            response.setResponse(new ProductBatchResponse(products, List.of()));
+            return response;
+        });
+
+        // When
+        ProductInfoCache.Lookup lookup = productInfoCache.getAll(ids);
+
+        // Then
+        assertTrue(lookup.complete());
+        assertEquals(ids.size(), lookup.products().size());
+        verify(productFeignClient, times(2)).getProductsByIds(argThat(batch -> batch.size() == ProductInfoCache.MAX_IDS_PER_CALL));
+        verify(productFeignClient, times(1)).getProductsByIds(argThat(batch -> batch.size() == 200));
+    }
+
+    @Test
+    @DisplayName("Should fail fast and skip refreshes while every product service call permit is taken")
+    void testCallLimitFailsFast() throws Exception {
+        // Given
+        List<Runnable> lookups = Collections.synchronizedList(new ArrayList<>());
+        productInfoCache = new ProductInfoCache(productFeignClient, meterRegistry, 30, 300, 1000,
+                Duration.ofMillis(50), 1, lookups::add, refreshes::add, nanos::get);
+        givenBatch(List.of(LAPTOP), Map.of(LAPTOP, product(LAPTOP, 999.99)), List.of());
+        givenBatch(List.of(MOUSE), Map.of(MOUSE, product(MOUSE, 29.99)), List.of());
+        productInfoCache.getAll(List.of(LAPTOP));
+
+        // When
+        ProductInfoCache.Lookup rejected = productInfoCache.getAll(List.of(MOUSE));
+
+        // Then
+        assertFalse(rejected.complete());
+        assertTrue(rejected.products().isEmpty());
+        assertEquals(1, lookups.size());
+        verify(productFeignClient, never()).getProductsByIds(any());
+        assertEquals(1, meterRegistry.get("cart.product.lookup").tag("outcome", "rejected").timer().count());
+        assertEquals(2, meterRegistry.get("cart.product.lookup.fallbacks").counter().count());
+
+        // When
+        lookups.getFirst().run();
+        ProductInfoCache.Lookup afterRelease = productInfoCache.getAll(List.of(MOUSE));
+        lookups.get(1).run();
+
+        // Then
+        assertEquals(Map.of(MOUSE, product(MOUSE, 29.99)), productInfoCache.getAll(List.of(MOUSE)).products());
+        assertFalse(afterRelease.complete());
+        assertTrue(refreshes.isEmpty());
+    }
+
+    private static void awaitLookups(List<Runnable> lookups, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (lookups.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, lookups.size());
+    }
+
+    @Test
+    @DisplayName("Should report an incomplete lookup when the product service fails")
+    void testLookupError() {
+        // Given
+        when(productFeignClient.getProductsByIds(List.of(LAPTOP, MOUSE))).thenThrow(new RuntimeException("down"));
+
+        // When
+        ProductInfoCache.Lookup lookup = productInfoCache.getAll(List.of(LAPTOP, MOUSE));
+
+        // Then
+        assertFalse(lookup.complete());
+        assertTrue(lookup.products().isEmpty());
+        assertEquals(1, meterRegistry.get("cart.product.lookup").tag("outcome", "error").timer().count());
+        assertEquals(0, meterRegistry.get("cart.product.lookup").tag("outcome", "complete").timer().count());
+        assertEquals(2, meterRegistry.get("cart.product.lookup.fallbacks").counter().count());
+    }
+}
@@ -1,26 +1,36 @@
 package com.example.cart.service.impl;
 
+import com.example.cart.cache.CartCache;
+import com.example.cart.cache.ProductInfoCache;
 import com.example.cart.dto.CartDTO;
 import com.example.cart.dto.response.GenericResponseSingleDTO;
+import com.example.cart.dto.response.ProductBatchResponse;
 import com.example.cart.dto.response.ProductServiceResponse;
 import com.example.cart.entity.Cart;
 import com.example.cart.entity.Product;
 import com.example.cart.exception.CartNotFoundException;
 import com.example.cart.feign.ProductFeignClient;
 import com.example.cart.repository.CartRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,8 +43,11 @@ class CartServiceImplTest {
     @Mock
     private ProductFeignClient productFeignClient;
 
-    @InjectMocks
+    @Mock
+    private CartCache cartCache;
+
     private CartServiceImpl cartService;
+    private ExecutorService productCalls;
 
     private UUID cartId;
     private Cart cart;
@@ -49,6 +62,12 @@ class CartServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        productCalls = Executors.newVirtualThreadPerTaskExecutor();
+        // A real snapshot cache in front of the mocked product service
+        cartService = new CartServiceImpl(cartRepository,
+                new ProductInfoCache(productFeignClient, new SimpleMeterRegistry(), 30, 300, 1000, 200, 64,
+                        productCalls, productCalls),
+                cartCache);
         cartId = UUID.randomUUID();
         
         productServiceResponse = new ProductServiceResponse();
@@ -71,6 +90,11 @@ class CartServiceImplTest {
         cart.setTotalPrice(0.0);
     }
 
+    @AfterEach
+    void tearDown() {
+        productCalls.shutdownNow();
+    }
+
     @Test
     @DisplayName("Should add product to new cart successfully")
     void testAddProductToNewCart() {
@@ -186,6 +210,181 @@ class CartServiceImplTest {
         verify(cartRepository, times(1)).findById(cartId);
     }
 
+    @Test
+    @DisplayName("Should refresh cart prices with a single batch product lookup")
+    void testGetCartRefreshesPricesWithBatchLookup() {
+        // Given
+        Product secondProduct = new Product(PRODUCT_ID_2, "Mouse", CATEGORY, 29.99, 2);
+        cart.setCartItems(new ArrayList<>(List.of(product, secondProduct)));
+        cart.setTotalPrice(PRICE * QUANTITY + 29.99 * 2);
+
+        ProductServiceResponse latestMouse = new ProductServiceResponse(
+                PRODUCT_ID_2, "Mouse v2", "Wireless mouse", 19.99, CATEGORY, List.of());
+        GenericResponseSingleDTO<ProductBatchResponse> batchResponse = new GenericResponseSingleDTO<>();
+        batchResponse.setResponse(new ProductBatchResponse(Map.of(PRODUCT_ID_2, latestMouse), List.of(PRODUCT_ID)));
+
+        when(cartRepository.findById(cartId)).thenReturn(Optional.of(cart));
+        when(productFeignClient.getProductsByIds(List.of(PRODUCT_ID, PRODUCT_ID_2))).thenReturn(batchResponse);
+
+        // When
+        CartDTO result = cartService.getCart(String.valueOf(cartId));
+
+        // Then
+        assertEquals("Mouse v2", result.getCartItems().get(1).getProductName());
+        assertEquals(PRICE * QUANTITY + 19.99 * 2, result.getTotalPrice(), 0.0001);
+        verify(productFeignClient, times(1)).getProductsByIds(List.of(PRODUCT_ID, PRODUCT_ID_2));
+        verify(productFeignClient, never()).getProductById(any());
+    }
+
+    @Test
+    @DisplayName("Should look up each product once across carts while its snapshot is fresh")
+    void testGetCartSharesProductSnapshots() {
+        // Given
+        cart.setCartItems(new ArrayList<>(List.of(product)));
+        Cart otherCart = new Cart(UUID.randomUUID(), PRICE,
+                new ArrayList<>(List.of(new Product(PRODUCT_ID, PRODUCT_NAME, CATEGORY, PRICE, 1))), 0L);
+        GenericResponseSingleDTO<ProductBatchResponse> batchResponse = new GenericResponseSingleDTO<>();
+        batchResponse.setResponse(new ProductBatchResponse(Map.of(PRODUCT_ID, productServiceResponse), List.of()));
+
+        when(cartRepository.findById(cartId)).thenReturn(Optional.of(cart));
+        when(cartRepository.findById(otherCart.getId())).thenReturn(Optional.of(otherCart));
+        when(productFeignClient.getProductsByIds(List.of(PRODUCT_ID))).thenReturn(batchResponse);
+        when(cartRepository.save(any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        cartService.getCart(String.valueOf(cartId));
+        cartService.getCart(String.valueOf(otherCart.getId()));
+        cartService.addProductToCart(String.valueOf(cartId), PRODUCT_ID);
+
+        // Then
+        verify(productFeignClient, times(1)).getProductsByIds(List.of(PRODUCT_ID));
+        verify(productFeignClient, never()).getProductById(any());
+    }
+
+    @Test
+    @DisplayName("Should serve a cached cart without reading Mongo or the product service")
+    void testGetCartFromCache() {
+        // Given
+        cart.setCartItems(new ArrayList<>(List.of(product)));
+        cart.setTotalPrice(PRICE * QUANTITY);
+        CartCache.Entry entry = new CartCache.Entry(cart, Instant.now());
+        when(cartCache.get(cartId)).thenReturn(Optional.of(entry));
+        when(cartCache.needsPriceCheck(entry)).thenReturn(false);
+
+        // When
+        CartDTO result = cartService.getCart(String.valueOf(cartId));
+
+        // Then
+        assertEquals(PRODUCT_ID, result.getCartItems().getFirst().getProductId());
+        verifyNoInteractions(cartRepository, productFeignClient);
+        verify(cartCache, never()).put(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should re-check the prices of a cached cart once they are due, without reading Mongo")
+    void testGetCartRechecksCachedPrices() {
+        // Given
+        cart.setCartItems(new ArrayList<>(List.of(product)));
+        cart.setTotalPrice(PRICE * QUANTITY);
+        CartCache.Entry entry = new CartCache.Entry(cart, null);
+        when(cartCache.get(cartId)).thenReturn(Optional.of(entry));
+        when(cartCache.needsPriceCheck(entry)).thenReturn(true);
+
+        ProductServiceResponse cheaper = new ProductServiceResponse(
+                PRODUCT_ID, PRODUCT_NAME, "High-performance laptop", 899.99, CATEGORY, List.of());
+        GenericResponseSingleDTO<ProductBatchResponse> batchResponse = new GenericResponseSingleDTO<>();
+        batchResponse.setResponse(new ProductBatchResponse(Map.of(PRODUCT_ID, cheaper), List.of()));
+        when(productFeignClient.getProductsByIds(List.of(PRODUCT_ID))).thenReturn(batchResponse);
+
+        // When
+        CartDTO result = cartService.getCart(String.valueOf(cartId));
+
+        // Then
+        assertEquals(899.99, result.getTotalPrice(), 0.0001);
+        verify(cartCache, times(1)).put(eq(cart), argThat(checkedAt -> checkedAt != null));
+        verifyNoInteractions(cartRepository);
+    }
+
+    @Test
+    @DisplayName("Should keep the prices due for a check when the product service cannot be reached")
+    void testGetCartCachesMissWhenProductServiceFails() {
+        // Given
+        cart.setCartItems(new ArrayList<>(List.of(product)));
+        when(cartRepository.findById(cartId)).thenReturn(Optional.of(cart));
+        when(productFeignClient.getProductsByIds(List.of(PRODUCT_ID))).thenThrow(new RuntimeException("down"));
+
+        // When
+        CartDTO result = cartService.getCart(String.valueOf(cartId));
+
+        // Then
+        assertEquals(PRICE, result.getCartItems().getFirst().getPrice());
+        verify(cartCache, times(1)).put(eq(cart), isNull());
+    }
+
+    @Test
+    @DisplayName("Should keep the stored price of products the product service does not answer for in time")
+    void testGetCartFallsBackToStoredPricesAfterDeadline() throws Exception {
+        // Given
+        Product secondProduct = new Product(PRODUCT_ID_2, "Mouse", CATEGORY, 29.99, 2);
+        cart.setCartItems(new ArrayList<>(List.of(secondProduct)));
+        ProductServiceResponse cheaperMouse = new ProductServiceResponse(
+                PRODUCT_ID_2, "Mouse", "Wireless mouse", 19.99, CATEGORY, List.of());
+        GenericResponseSingleDTO<ProductBatchResponse> mouseResponse = new GenericResponseSingleDTO<>();
+        mouseResponse.setResponse(new ProductBatchResponse(Map.of(PRODUCT_ID_2, cheaperMouse), List.of()));
+        when(cartRepository.findById(cartId)).thenReturn(Optional.of(cart));
+        when(productFeignClient.getProductsByIds(List.of(PRODUCT_ID_2))).thenReturn(mouseResponse);
+        cartService.getCart(String.valueOf(cartId));
+
+        secondProduct.setPrice(29.99);
+        cart.setCartItems(new ArrayList<>(List.of(product, secondProduct)));
+        cart.setTotalPrice(PRICE * QUANTITY + 29.99 * 2);
+        CountDownLatch slowProductService = new CountDownLatch(1);
+        when(productFeignClient.getProductsByIds(List.of(PRODUCT_ID))).thenAnswer(invocation -> {
+            slowProductService.await();
+            return null;
+        });
+
+        // When
+        CartDTO result;
+        try {
+            result = cartService.getCart(String.valueOf(cartId));
+        } finally {
+            slowProductService.countDown();
+        }
+
+        // Then
+        assertEquals(PRICE, result.getCartItems().getFirst().getPrice());
+        assertEquals(19.99, result.getCartItems().get(1).getPrice());
+        assertEquals(PRICE * QUANTITY + 19.99 * 2, result.getTotalPrice(), 0.0001);
+        verify(cartCache, times(1)).put(eq(cart), isNull());
+    }
+
+    @Test
+    @DisplayName("Should re-read and re-apply a change when the cart was saved concurrently")
+    void testAddProductRetriesOnConcurrentWrite() {
+        // Given
+        Cart stale = new Cart(cartId, 0.0, new ArrayList<>(), 1L);
+        Product concurrentlyAdded = new Product(PRODUCT_ID_2, "Mouse", CATEGORY, 29.99, 1);
+        Cart current = new Cart(cartId, 29.99, new ArrayList<>(List.of(concurrentlyAdded)), 2L);
+        GenericResponseSingleDTO<ProductServiceResponse> feignResponse = new GenericResponseSingleDTO<>();
+        feignResponse.setResponse(productServiceResponse);
+
+        when(cartRepository.findById(cartId)).thenReturn(Optional.of(stale), Optional.of(current));
+        when(productFeignClient.getProductById(PRODUCT_ID)).thenReturn(feignResponse);
+        when(cartRepository.save(any(Cart.class)))
+                .thenThrow(new OptimisticLockingFailureException("version 1 is outdated"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        CartDTO result = cartService.addProductToCart(String.valueOf(cartId), PRODUCT_ID);
+
+        // Then
+        assertEquals(2, result.getCartItems().size());
+        assertEquals(29.99 + PRICE, result.getTotalPrice(), 0.0001);
+        verify(productFeignClient, times(1)).getProductById(PRODUCT_ID);
+        verify(cartCache, times(1)).put(current, null);
+    }
+
     @Test
     @DisplayName("Should throw CartNotFoundException when cart does not exist")
     void testGetCartWhenCartDoesNotExist() {
@@ -407,7 +606,7 @@ class CartServiceImplTest {
         when(productFeignClient.getProductById(PRODUCT_ID)).thenReturn(feignResponse);
 
         // When & Then
-        // BeanUtils.copyProperties throws IllegalArgumentException when source is null
+        // DTOUtils rejects a null source with IllegalArgumentException
         assertThrows(IllegalArgumentException.class, 
                 () -> cartService.addProductToCart(String.valueOf(cartId), PRODUCT_ID));
         
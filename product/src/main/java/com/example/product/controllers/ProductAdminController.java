@@ -0,0 +1,49 @@
+package com.example.product.controllers;
+
+import com.example.product.dto.response.BatchProcessingResult;
+import com.example.product.dto.response.GenericResponseListDTO;
+import com.example.product.utils.MappedFileImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/product/admin")
+@Tag(name = "Product Admin", description = "Catalog maintenance APIs")
+public class ProductAdminController {
+
+    private final MappedFileImportService mappedFileImportService;
+
+    @Operation( summary = "Import products from a file on the server",
+            description = "Memory-maps a CSV or JSON Lines file inside product.import.directory and imports it in parallel chunks." )
+    @ApiResponse( responseCode = "201", description = "Products created successfully",
+            content = @Content(schema = @Schema(implementation = GenericResponseListDTO.class)) )
+    @PostMapping("/import")
+    public GenericResponseListDTO<BatchProcessingResult> importFile(
+            @Parameter( description = "File path, absolute or relative to the import directory", required = true )
+            @RequestParam String path) throws IOException {
+
+        log.info("importFile:: path - {}", path);
+        return new GenericResponseListDTO<>(
+                HttpStatus.CREATED.value(),
+                HttpStatus.CREATED.name(),
+                List.of(mappedFileImportService.importFile(path))
+        );
+    }
+
+}
@@ -2,11 +2,18 @@ package com.example.product.controllers;
 
 import com.example.product.dto.request.ProductDTO;
 import com.example.product.dto.response.BatchProcessingResult;
+import com.example.product.dto.response.BulkItemResult;
+import com.example.product.dto.response.CursorPageDTO;
 import com.example.product.dto.response.GenericResponseListDTO;
 import com.example.product.dto.response.GenericResponseSingleDTO;
+import com.example.product.dto.response.ImportJobStatus;
+import com.example.product.dto.response.ProductBatchDTO;
+import com.example.product.search.ProductFilter;
+import com.example.product.search.ProductSort;
 import com.example.product.service.ProductService;
 import com.example.product.utils.BatchProcessingService;
 import com.example.product.utils.FileParser;
+import com.example.product.utils.ImportJobRegistry;
 import com.example.product.utils.ParallelExecutionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -21,15 +28,22 @@ import org.bson.types.ObjectId;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 @Slf4j
@@ -38,23 +52,103 @@ import java.util.concurrent.CompletableFuture;
 @RequestMapping("/api/product")
 @Tag(name = "Product", description = "Product search and retrieval APIs")
 public class ProductController {
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final int MAX_BATCH_IDS = 500;
+    private static final String VIEW_FULL = "full";
+    private static final String VIEW_SUMMARY = "summary";
+    private static final String MODE_PATTERN = "pattern";
+    private static final String MODE_TEXT = "text";
+    private static final String MODE_FUZZY = "fuzzy";
+
     private final ProductService productService;
     private final ParallelExecutionService parallelExecutionService;
     private final BatchProcessingService batchProcessingService;
+    private final ImportJobRegistry importJobRegistry;
 
-    @Operation( summary = "Search products by name and category" )
+    @Operation( summary = "Search products by name and category",
+            description = "With mode=text, returns {product, score} hits most relevant first and pages by the returned nextCursor. "
+                    + "With mode=fuzzy, matches names within a few typos of productName, closest first." )
     @ApiResponse( responseCode = "200", description = "Successfully retrieved products",
             content = @Content(schema = @Schema(implementation = GenericResponseListDTO.class))
     )
     @GetMapping("/getByName")
-    public GenericResponseListDTO<ProductDTO> searchByProductNameAndCategory(
+    public GenericResponseListDTO<?> searchByProductNameAndCategory(
             @RequestParam String productName, @RequestParam(required = false) String category,
-            @RequestParam int startIndex, @RequestParam int size) {
+            @RequestParam(defaultValue = "0") int startIndex, @RequestParam int size,
+            @Parameter( description = "full, or summary for id, name, price and category only" )
+            @RequestParam(defaultValue = VIEW_FULL) String view,
+            @Parameter( description = "Lowest price, inclusive" ) @RequestParam(required = false) Double minPrice,
+            @Parameter( description = "Highest price, inclusive" ) @RequestParam(required = false) Double maxPrice,
+            @Parameter( description = "name or price, unsorted when omitted" ) @RequestParam(required = false) String sort,
+            @Parameter( description = "pattern (default) matches the name pattern, text runs a relevance ranked "
+                    + "full-text search of productName as search terms over name and description, fuzzy matches "
+                    + "names containing productName with up to two typos, closest first" )
+            @RequestParam(defaultValue = MODE_PATTERN) String mode,
+            @Parameter( description = "mode=text only: nextCursor of the previous page, omit for the first page" )
+            @RequestParam(required = false) String cursor) {
 
-        log.debug("searchByProductName:: productName - {}, category - {}, startIndex - {}, size - {}"
-                , productName, category, startIndex, size);
+        log.debug("searchByProductName:: productName - {}, category - {}, startIndex - {}, size - {}, view - {}, "
+                + "minPrice - {}, maxPrice - {}, sort - {}, mode - {}, cursor - {}", productName, category, startIndex,
+                size, view, minPrice, maxPrice, sort, mode, cursor);
+        String searchMode = parseMode(mode);
+        if (MODE_TEXT.equals(searchMode)) {
+            // Hits come ranked by relevance and page by cursor, startIndex would mean a skip over the ranking
+            if (startIndex != 0 || sort != null) {
+                throw new IllegalArgumentException("mode=text pages with cursor and sorts by relevance, "
+                        + "startIndex and sort are not supported");
+            }
+            validatePageSize(size);
+            ProductFilter filter = ProductFilter.of(null, category, minPrice, maxPrice);
+            CursorPageDTO<?> page = isSummaryView(view)
+                    ? productService.searchProductSummariesByText(productName, filter, cursor, size)
+                    : productService.searchProductsByText(productName, filter, cursor, size);
+            return new GenericResponseListDTO<>(
+                    HttpStatus.OK.value(),
+                    HttpStatus.OK.name(),
+                    page.getItems(),
+                    page.getNextCursor()
+            );
+        }
+        if (cursor != null) {
+            throw new IllegalArgumentException("cursor is only supported with mode=text, use /getByName/cursor");
+        }
         Pageable pageable = PageRequest.of(startIndex, size);
+        if (MODE_FUZZY.equals(searchMode)) {
+            if (minPrice != null || maxPrice != null || sort != null) {
+                throw new IllegalArgumentException(
+                        "mode=fuzzy ranks by closeness, minPrice, maxPrice and sort are not supported");
+            }
+            String fuzzyCategory = category == null || category.isBlank() ? null : category;
+            List<?> products = isSummaryView(view)
+                    ? productService.searchProductSummariesFuzzy(productName, fuzzyCategory, pageable)
+                    : productService.searchProductsFuzzy(productName, fuzzyCategory, pageable);
+            return new GenericResponseListDTO<>(
+                    HttpStatus.OK.value(),
+                    HttpStatus.OK.name(),
+                    products
+            );
+        }
 
+        ProductSort productSort = ProductSort.parse(sort);
+        if (minPrice != null || maxPrice != null || productSort != null) {
+            ProductFilter filter = ProductFilter.of(productName, category, minPrice, maxPrice);
+            List<?> products = isSummaryView(view)
+                    ? productService.searchProductSummaries(filter, productSort, pageable)
+                    : productService.searchProducts(filter, productSort, pageable);
+            return new GenericResponseListDTO<>(
+                    HttpStatus.OK.value(),
+                    HttpStatus.OK.name(),
+                    products
+            );
+        }
+        if (isSummaryView(view)) {
+            return new GenericResponseListDTO<>(
+                    HttpStatus.OK.value(),
+                    HttpStatus.OK.name(),
+                    productService.searchProductSummaries(
+                            productName, category == null || category.isBlank() ? null : category, pageable)
+            );
+        }
         if(category == null || category.isBlank()) {
             return new GenericResponseListDTO<>(
                     HttpStatus.OK.value(),
@@ -90,18 +184,144 @@ public class ProductController {
 
     }
 
+    @Operation( summary = "Get many products by ID",
+            description = "Looks up all ids with a single query. Ids can be repeated or comma separated." )
+    @ApiResponse( responseCode = "200", description = "Products found, keyed by id, plus the ids that were not found",
+            content = @Content(schema = @Schema(implementation = GenericResponseSingleDTO.class)) )
+    @GetMapping("/batch")
+    public GenericResponseSingleDTO<ProductBatchDTO> getProductsByIds(
+            @Parameter( description = "Product IDs", required = true ) @RequestParam List<String> ids) {
+
+        log.debug("getProductsByIds:: ids - {}", ids.size());
+        return getProductsBatch(ids);
+    }
+
+    @Operation( summary = "Get many products by ID (ids in the request body)",
+            description = "Same as GET /batch, for id lists that do not fit in a URL." )
+    @ApiResponse( responseCode = "200", description = "Products found, keyed by id, plus the ids that were not found",
+            content = @Content(schema = @Schema(implementation = GenericResponseSingleDTO.class)) )
+    @PostMapping("/batch")
+    public GenericResponseSingleDTO<ProductBatchDTO> getProductsByIdsInBody(
+            @Parameter( description = "Product IDs", required = true ) @RequestBody List<String> ids) {
+
+        log.debug("getProductsByIdsInBody:: ids - {}", ids.size());
+        return getProductsBatch(ids);
+    }
+
+    private GenericResponseSingleDTO<ProductBatchDTO> getProductsBatch(List<String> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("ids must contain between 1 and " + MAX_BATCH_IDS + " product ids");
+        }
+        List<ObjectId> objectIds = ids.stream()
+                .map(String::trim)
+                .map(ObjectId::new)
+                .toList();
+        return new GenericResponseSingleDTO<>(
+                HttpStatus.OK.value(),
+                HttpStatus.OK.name(),
+                productService.getProducts(objectIds)
+        );
+    }
+
     @Operation( summary = "Get all products" )
     @ApiResponse( responseCode = "200", description = "Successfully retrieved products",
             content = @Content(schema = @Schema(implementation = GenericResponseListDTO.class)) )
     @GetMapping("/list")
-    public GenericResponseListDTO<ProductDTO> getAllProducts( @RequestParam int startIndex, @RequestParam int size ) {
+    public GenericResponseListDTO<?> getAllProducts( @RequestParam int startIndex, @RequestParam int size,
+            @Parameter( description = "full, or summary for id, name, price and category only" )
+            @RequestParam(defaultValue = VIEW_FULL) String view ) {
 
-        log.debug("getAllProducts:: startIndex - {}, size - {}", startIndex, size);
+        log.debug("getAllProducts:: startIndex - {}, size - {}, view - {}", startIndex, size, view);
         Pageable pageable = PageRequest.of(startIndex, size);
+        List<?> products = isSummaryView(view)
+                ? productService.getAllProductSummaries(pageable)
+                : productService.getAllProducts(pageable);
+        return new GenericResponseListDTO<>(
+                HttpStatus.OK.value(),
+                HttpStatus.OK.name(),
+                products
+        );
+
+    }
+
+    @Operation( summary = "Get all products with keyset (cursor) pagination",
+            description = "Pages by _id without skip or count queries. Pass the returned nextCursor to get the next page." )
+    @ApiResponse( responseCode = "200", description = "Successfully retrieved products",
+            content = @Content(schema = @Schema(implementation = GenericResponseListDTO.class)) )
+    @GetMapping("/list/cursor")
+    public GenericResponseListDTO<?> getAllProductsByCursor(
+            @Parameter( description = "nextCursor of the previous page, omit for the first page" )
+            @RequestParam(required = false) String cursor, @RequestParam int size,
+            @Parameter( description = "full, or summary for id, name, price and category only" )
+            @RequestParam(defaultValue = VIEW_FULL) String view ) {
+
+        log.debug("getAllProductsByCursor:: cursor - {}, size - {}, view - {}", cursor, size, view);
+        validatePageSize(size);
+        CursorPageDTO<?> page = isSummaryView(view)
+                ? productService.getAllProductSummaries(cursor, size)
+                : productService.getAllProducts(cursor, size);
+        return new GenericResponseListDTO<>(
+                HttpStatus.OK.value(),
+                HttpStatus.OK.name(),
+                page.getItems(),
+                page.getNextCursor()
+        );
+
+    }
+
+    @Operation( summary = "Search products by name and category with keyset (cursor) pagination",
+            description = "Pages by (productName, _id), or (price, productName, _id) for sort=price, without skip or count queries. "
+                    + "Pass the returned nextCursor to get the next page. Without productName, browses the category or price range." )
+    @ApiResponse( responseCode = "200", description = "Successfully retrieved products",
+            content = @Content(schema = @Schema(implementation = GenericResponseListDTO.class)) )
+    @GetMapping("/getByName/cursor")
+    public GenericResponseListDTO<?> searchByProductNameAndCategoryByCursor(
+            @RequestParam(required = false) String productName, @RequestParam(required = false) String category,
+            @Parameter( description = "nextCursor of the previous page, omit for the first page" )
+            @RequestParam(required = false) String cursor, @RequestParam int size,
+            @Parameter( description = "full, or summary for id, name, price and category only" )
+            @RequestParam(defaultValue = VIEW_FULL) String view,
+            @Parameter( description = "Lowest price, inclusive" ) @RequestParam(required = false) Double minPrice,
+            @Parameter( description = "Highest price, inclusive" ) @RequestParam(required = false) Double maxPrice,
+            @Parameter( description = "name (default) or price, the cursor only continues the sort it was issued for" )
+            @RequestParam(required = false) String sort) {
+
+        log.debug("searchByProductNameAndCategoryByCursor:: productName - {}, category - {}, cursor - {}, size - {}, "
+                + "view - {}, minPrice - {}, maxPrice - {}, sort - {}", productName, category, cursor, size, view,
+                minPrice, maxPrice, sort);
+        validatePageSize(size);
+        ProductFilter filter = ProductFilter.of(productName, category, minPrice, maxPrice);
+        if (filter.pattern().matchesAll() && filter.category() == null && !filter.hasPriceRange()) {
+            throw new IllegalArgumentException("productName, category or a price range is required");
+        }
+        ProductSort productSort = ProductSort.parse(sort);
+        CursorPageDTO<?> page = isSummaryView(view)
+                ? productService.searchProductSummaries(filter, productSort, cursor, size)
+                : productService.searchProducts(filter, productSort, cursor, size);
         return new GenericResponseListDTO<>(
                 HttpStatus.OK.value(),
                 HttpStatus.OK.name(),
-                productService.getAllProducts(pageable)
+                page.getItems(),
+                page.getNextCursor()
+        );
+
+    }
+
+    @Operation( summary = "Count products per category",
+            description = "Category facets of a product name search, or of the whole catalog without productName. "
+                    + "Largest categories first." )
+    @ApiResponse( responseCode = "200", description = "Product count keyed by category",
+            content = @Content(schema = @Schema(implementation = GenericResponseSingleDTO.class)) )
+    @GetMapping("/facets")
+    public GenericResponseSingleDTO<Map<String, Long>> getCategoryFacets(
+            @Parameter( description = "Product name pattern, same syntax as /getByName" )
+            @RequestParam(required = false) String productName) {
+
+        log.debug("getCategoryFacets:: productName - {}", productName);
+        return new GenericResponseSingleDTO<>(
+                HttpStatus.OK.value(),
+                HttpStatus.OK.name(),
+                productService.getCategoryFacets(productName == null || productName.isBlank() ? null : productName)
         );
 
     }
@@ -119,13 +339,32 @@ public class ProductController {
         return parallelExecutionService.createProductAsync(productDTO);
     }
 
-    @Operation( summary = "Create multiple products from CSV file upload")
-    @ApiResponse( responseCode = "201", description = "Products created successfully",
+    @Operation( summary = "Create multiple products from a JSON array",
+            description = "Products are written in chunks with bounded concurrency. "
+                    + "The response holds one result per product, in request order; "
+                    + "an invalid or rejected product does not stop the others." )
+    @ApiResponse( responseCode = "201", description = "Products processed",
             content = @Content(schema = @Schema(implementation = GenericResponseListDTO.class)) )
+    @PostMapping(value = "/create/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<GenericResponseListDTO<BulkItemResult>> createProducts(
+            @Parameter( description = "Products to create", required = true ) @RequestBody List<ProductDTO> productDTOs) {
+
+        log.debug("createProducts:: size - {}", productDTOs.size());
+
+        return parallelExecutionService.createProductsInParallel(productDTOs);
+    }
+
+    @Operation( summary = "Create multiple products from CSV or JSON file upload",
+            description = "Starts an import job and returns its id at once. "
+                    + "Follow the job with GET /create/batch/jobs/{jobId} or its /events stream." )
+    @ApiResponse( responseCode = "202", description = "Import job started",
+            content = @Content(schema = @Schema(implementation = GenericResponseSingleDTO.class)) )
+    @ApiResponse( responseCode = "429", description = "Too many import jobs running" )
     @PostMapping(value = "/create/batch", consumes = "multipart/form-data")
-    public CompletableFuture<GenericResponseListDTO<BatchProcessingResult>> createProductsFromFile(
-            @Parameter( description = "CSV file containing products", required = true )
-            @RequestParam("file") MultipartFile file) {
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public GenericResponseSingleDTO<ImportJobStatus> createProductsFromFile(
+            @Parameter( description = "CSV or JSON file containing products", required = true )
+            @RequestParam("file") MultipartFile file) throws IOException {
 
         log.info("createProductsFromFile:: fileName - {}, size - {} bytes, contentType - {}", 
                 file.getOriginalFilename(), file.getSize(), file.getContentType());
@@ -138,11 +377,105 @@ public class ProductController {
         String fileName = file.getOriginalFilename();
         if (fileName == null || !FileParser.isSupportedFile(fileName)) {
             throw new IllegalArgumentException(
-                "Unsupported file format. Only CSV (.csv) files are supported.");
+                "Unsupported file format. Only CSV (.csv) and JSON (.json) files are supported.");
         }
 
-        // Use improved batch processing service with stream processing and bulk inserts
-        return batchProcessingService.processFileInBatches(file);
+        // Import in the background, the caller polls the job for progress
+        return new GenericResponseSingleDTO<>(
+                HttpStatus.ACCEPTED.value(),
+                HttpStatus.ACCEPTED.name(),
+                importJobRegistry.submit(file)
+        );
+    }
+
+    @Operation( summary = "Get the progress of a file import job" )
+    @ApiResponse( responseCode = "200", description = "Successfully retrieved the job status",
+            content = @Content(schema = @Schema(implementation = GenericResponseSingleDTO.class)) )
+    @ApiResponse( responseCode = "404", description = "Import job not found or expired" )
+    @GetMapping("/create/batch/jobs/{jobId}")
+    public GenericResponseSingleDTO<ImportJobStatus> getImportJob(
+            @Parameter( description = "Import job id", required = true ) @PathVariable String jobId) {
+
+        log.debug("getImportJob:: jobId - {}", jobId);
+        return new GenericResponseSingleDTO<>(
+                HttpStatus.OK.value(),
+                HttpStatus.OK.name(),
+                importJobRegistry.status(jobId)
+        );
+    }
+
+    @Operation( summary = "Stream the progress of a file import job",
+            description = "Server-sent events named \"progress\" carrying the job status, once per second "
+                    + "and once more when the job finishes." )
+    @ApiResponse( responseCode = "200", description = "Progress event stream" )
+    @ApiResponse( responseCode = "404", description = "Import job not found or expired" )
+    @GetMapping(value = "/create/batch/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamImportJob(
+            @Parameter( description = "Import job id", required = true ) @PathVariable String jobId) {
+
+        log.debug("streamImportJob:: jobId - {}", jobId);
+        return importJobRegistry.events(jobId);
+    }
+
+    @Operation( summary = "Create multiple products from a streamed CSV request body",
+            description = "The raw request body is parsed while it arrives, so the upload is never buffered as a whole. "
+                    + "Use for catalog feeds larger than the multipart limit." )
+    @ApiResponse( responseCode = "201", description = "Products created successfully",
+            content = @Content(schema = @Schema(implementation = GenericResponseListDTO.class)) )
+    @PostMapping(value = "/create/stream", consumes = {"text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public GenericResponseListDTO<BatchProcessingResult> createProductsFromStream(
+            @Parameter( description = "CSV content with a header line", required = true )
+            InputStream body) throws IOException {
+
+        log.info("createProductsFromStream:: started");
+        return new GenericResponseListDTO<>(
+                HttpStatus.CREATED.value(),
+                HttpStatus.CREATED.name(),
+                List.of(batchProcessingService.processStream(body))
+        );
+    }
+
+    @Operation( summary = "Create multiple products from a streamed JSON request body",
+            description = "Accepts a JSON array of products or one product object per line (JSON Lines). "
+                    + "Products are read one at a time while the body arrives." )
+    @ApiResponse( responseCode = "201", description = "Products created successfully",
+            content = @Content(schema = @Schema(implementation = GenericResponseListDTO.class)) )
+    @PostMapping(value = "/create/stream", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public GenericResponseListDTO<BatchProcessingResult> createProductsFromJsonStream(
+            @Parameter( description = "JSON array of products", required = true )
+            InputStream body) throws IOException {
+
+        log.info("createProductsFromJsonStream:: started");
+        return new GenericResponseListDTO<>(
+                HttpStatus.CREATED.value(),
+                HttpStatus.CREATED.name(),
+                List.of(batchProcessingService.processJsonStream(body))
+        );
+    }
+
+    private static boolean isSummaryView(String view) {
+        if (VIEW_SUMMARY.equalsIgnoreCase(view)) {
+            return true;
+        }
+        if (VIEW_FULL.equalsIgnoreCase(view)) {
+            return false;
+        }
+        throw new IllegalArgumentException("view must be " + VIEW_FULL + " or " + VIEW_SUMMARY);
+    }
+
+    private static String parseMode(String mode) {
+        for (String known : List.of(MODE_PATTERN, MODE_TEXT, MODE_FUZZY)) {
+            if (known.equalsIgnoreCase(mode)) {
+                return known;
+            }
+        }
+        throw new IllegalArgumentException("mode must be " + MODE_PATTERN + ", " + MODE_TEXT + " or " + MODE_FUZZY);
+    }
+
+    private static void validatePageSize(int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
     }
 
 }
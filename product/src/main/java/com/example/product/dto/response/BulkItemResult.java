@@ -0,0 +1,20 @@
+package com.example.product.dto.response;
+
+import com.example.product.dto.request.ProductDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResult {
+    public enum Status { CREATED, FAILED }
+
+    private Integer index; // Position of the item in the request
+    private Status status;
+    private ProductDTO product; // The created product with its id, for CREATED items
+    private String error; // Why the item was not created, for FAILED items
+}
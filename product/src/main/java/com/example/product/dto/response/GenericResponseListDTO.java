@@ -1,5 +1,6 @@
 package com.example.product.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,4 +14,12 @@ public class GenericResponseListDTO<T> {
     private Integer statusCode;
     private String statusMessage;
     private List<T> response;
+
+    // Opaque keyset cursor for the next page, only set by cursor paginated endpoints
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    public GenericResponseListDTO(Integer statusCode, String statusMessage, List<T> response) {
+        this(statusCode, statusMessage, response, null);
+    }
 }
@@ -0,0 +1,33 @@
+package com.example.product.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportJobStatus {
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    private String jobId;
+    private String fileName;
+    private State state;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Integer totalBatches;
+    private Integer totalProcessed;
+    private Integer successful;
+    private Integer failed;
+    private Long skippedRows; // Rows committed by an earlier run of the same file
+    private Double percentComplete; // Share of the file read so far
+    private Double rowsPerSecond; // Rows written or rejected per second
+    private Long etaSeconds; // Estimated time left, absent until the first bytes are read
+    private List<String> failedProducts;
+    private String error; // Why the import stopped, for FAILED jobs
+}
@@ -0,0 +1,17 @@
+package com.example.product.dto.response;
+
+import com.example.product.dto.request.ProductDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchDTO {
+    private Map<String, ProductDTO> products; // keyed by product id, in request order
+    private List<String> missingIds;
+}
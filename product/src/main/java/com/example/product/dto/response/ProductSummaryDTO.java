@@ -0,0 +1,15 @@
+package com.example.product.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryDTO {
+    private String productId;
+    private String productName;
+    private Double price;
+    private String category;
+}
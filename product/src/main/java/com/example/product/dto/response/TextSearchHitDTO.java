@@ -0,0 +1,13 @@
+package com.example.product.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TextSearchHitDTO<T> {
+    private T product; // ProductDTO, or ProductSummaryDTO for view=summary
+    private double score;
+}
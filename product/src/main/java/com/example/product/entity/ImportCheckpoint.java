@@ -0,0 +1,31 @@
+package com.example.product.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Progress of a file import, keyed by the SHA-256 of the file content so that importing the same
+ * file again resumes after the rows an earlier run already committed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = ImportCheckpoint.COLLECTION_NAME)
+public class ImportCheckpoint {
+    public static final String COLLECTION_NAME = "IMPORT_CHECKPOINT";
+
+    @Id
+    private String fileHash;
+    private String fileName;
+    private int lastCommittedBatch; // Counted over every run of the file
+    private long committedRows; // Every data row up to this one is committed
+    private boolean completed;
+    @Indexed(name = "import_checkpoint_ttl_idx", expireAfter = "7d")
+    private Instant updatedAt;
+}
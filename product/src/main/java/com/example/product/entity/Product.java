@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.List;
@@ -15,13 +16,28 @@ import java.util.List;
 @AllArgsConstructor
 @Document(collection = Product.COLLECTION_NAME)
 @CompoundIndex(name = "product_name_idx", def = "{'productName': 1}", unique = false)
+// Natural key file imports upsert by, not unique: the catalog may hold a name twice in a category
 @CompoundIndex(name = "product_name_and_category_idx", def = "{'productName': 1, 'category': 1}", unique = false)
+@CompoundIndex(name = "product_name_ci_idx", def = "{'productName': 1, '_id': 1}", unique = false,
+        collation = Product.CASE_INSENSITIVE_COLLATION)
+@CompoundIndex(name = "category_browse_idx", def = "{'category': 1, 'productName': 1, '_id': 1}", unique = false,
+        collation = Product.CASE_INSENSITIVE_COLLATION)
+// Equality, sort, range order: a category filter first, then the price that is both sorted on and ranged over
+@CompoundIndex(name = "category_price_idx", def = "{'category': 1, 'price': 1, 'productName': 1, '_id': 1}", unique = false,
+        collation = Product.CASE_INSENSITIVE_COLLATION)
+@CompoundIndex(name = "price_browse_idx", def = "{'price': 1, 'productName': 1, '_id': 1}", unique = false,
+        collation = Product.CASE_INSENSITIVE_COLLATION)
 public class Product {
     public static final String COLLECTION_NAME = "PRODUCT";
+    public static final String CASE_INSENSITIVE_COLLATION = "{ 'locale': 'en', 'strength': 2 }";
+    public static final float NAME_TEXT_WEIGHT = 10;
 
     @Id
     private ObjectId productId;
+    // Weighted text index for mode=text searches, a name match ranks well above a description match
+    @TextIndexed(weight = Product.NAME_TEXT_WEIGHT)
     private String productName;
+    @TextIndexed
     private String description;
     private Double price;
     private String category;
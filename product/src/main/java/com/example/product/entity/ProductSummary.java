@@ -0,0 +1,15 @@
+package com.example.product.entity;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+
+/**
+ * Read model of the product fields that listing pages show. Used as a Spring Data DTO projection of
+ * {@link Product}, so Mongo only returns and decodes these fields, leaving out the description and images.
+ */
+public record ProductSummary(
+        @Id ObjectId productId,
+        String productName,
+        Double price,
+        String category) {
+}
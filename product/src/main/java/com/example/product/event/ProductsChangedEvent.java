@@ -0,0 +1,24 @@
+package com.example.product.event;
+
+import com.example.product.entity.Product;
+import org.bson.types.ObjectId;
+
+import java.util.List;
+
+/**
+ * Published by the product service after products are written to or removed from Mongo,
+ * so that in-process read models (search indexes, caches) can follow the catalog.
+ *
+ * @param saved   products as persisted (with their generated ids)
+ * @param deleted ids of products that were removed
+ */
+public record ProductsChangedEvent(List<Product> saved, List<ObjectId> deleted) {
+
+    public static ProductsChangedEvent saved(List<Product> products) {
+        return new ProductsChangedEvent(products, List.of());
+    }
+
+    public static ProductsChangedEvent deleted(ObjectId id) {
+        return new ProductsChangedEvent(List.of(), List.of(id));
+    }
+}
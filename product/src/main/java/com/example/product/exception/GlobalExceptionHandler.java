@@ -135,6 +135,40 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
 
+    @ExceptionHandler(ImportJobNotFoundException.class)
+    public ResponseEntity<GenericResponseSingleDTO<Map<String, String>>> handleImportJobNotFoundException(
+            ImportJobNotFoundException ex) {
+        log.warn("Import job not found: {}", ex.getMessage());
+
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        errors.put(ERROR_KEY, ex.getMessage());
+
+        GenericResponseSingleDTO<Map<String, String>> response = new GenericResponseSingleDTO<>(
+                HttpStatus.NOT_FOUND.value(),
+                "Import job not found",
+                errors
+        );
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    @ExceptionHandler(TooManyImportJobsException.class)
+    public ResponseEntity<GenericResponseSingleDTO<Map<String, String>>> handleTooManyImportJobsException(
+            TooManyImportJobsException ex) {
+        log.warn("Too many import jobs: {}", ex.getMessage());
+
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        errors.put(ERROR_KEY, ex.getMessage());
+
+        GenericResponseSingleDTO<Map<String, String>> response = new GenericResponseSingleDTO<>(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too many import jobs",
+                errors
+        );
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<GenericResponseSingleDTO<Map<String, String>>> handleIllegalArgumentException(
             IllegalArgumentException ex) {
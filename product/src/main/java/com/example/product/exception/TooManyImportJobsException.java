@@ -0,0 +1,14 @@
+package com.example.product.exception;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+public class TooManyImportJobsException
+        extends RuntimeException
+        implements Serializable {
+    @Serial
+    public static final long serialVersionUID = 4328745;
+    public TooManyImportJobsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.product.repository;
+
+import com.example.product.entity.ImportCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportCheckpointRepository
+        extends MongoRepository<ImportCheckpoint, String> {
+}
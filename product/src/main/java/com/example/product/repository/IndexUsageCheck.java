@@ -0,0 +1,116 @@
+package com.example.product.repository;
+
+import com.example.product.entity.Product;
+import com.example.product.search.ProductFilter;
+import com.example.product.search.ProductSort;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Explains every product search query shape once the application is up and logs the indexes the
+ * query planner picked for it, or a warning when a shape falls back to a collection scan. This
+ * catches index definitions that drift away from the queries, which otherwise only show up as
+ * slow searches on a large catalog.
+ */
+@Slf4j
+@Component
+public class IndexUsageCheck {
+
+    static final String COLLECTION_SCAN = "COLLSCAN";
+
+    // Representative values, the planner picks the same indexes for any value of the same shape
+    private static final String CATEGORY = "Electronics";
+    private static final List<SearchShape> SHAPES = List.of(
+            new SearchShape("name prefix, by name", ProductFilter.of("lap*", null, null, null), ProductSort.NAME),
+            new SearchShape("name prefix in category, by name",
+                    ProductFilter.of("lap*", CATEGORY, null, null), ProductSort.NAME),
+            new SearchShape("category, by name", ProductFilter.of(null, CATEGORY, null, null), ProductSort.NAME),
+            new SearchShape("category and price range, by name",
+                    ProductFilter.of(null, CATEGORY, 10.0, 100.0), ProductSort.NAME),
+            new SearchShape("category, by price", ProductFilter.of(null, CATEGORY, null, null), ProductSort.PRICE),
+            new SearchShape("category and price range, by price",
+                    ProductFilter.of(null, CATEGORY, 10.0, 100.0), ProductSort.PRICE),
+            new SearchShape("price range, by price", ProductFilter.of(null, null, 10.0, 100.0), ProductSort.PRICE),
+            new SearchShape("name prefix, by price", ProductFilter.of("lap*", null, null, null), ProductSort.PRICE)
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    public IndexUsageCheck(
+            MongoTemplate mongoTemplate,
+            @Value("${product.search.index-check.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (SearchShape shape : SHAPES) {
+                Query query = ProductRepositoryCustomImpl.searchQuery(shape.filter(), shape.sort());
+                Set<String> plan = winningPlanIndexes(explain(query));
+                if (plan.contains(COLLECTION_SCAN)) {
+                    log.warn("check:: search shape '{}' runs a collection scan, plan - {}", shape.name(), plan);
+                } else {
+                    log.info("check:: search shape '{}' uses {}", shape.name(), plan);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("check:: could not explain the search query shapes: {}", e.getMessage());
+        }
+    }
+
+    private Document explain(Query query) {
+        Document find = new Document("find", mongoTemplate.getCollectionName(Product.class))
+                .append("filter", query.getQueryObject())
+                .append("sort", query.getSortObject())
+                .append("limit", 20);
+        query.getCollation().ifPresent(collation -> find.append("collation", collation.toDocument()));
+        return mongoTemplate.getDb().runCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+    }
+
+    /**
+     * Names of the indexes scanned by the winning plan of an explain result, with
+     * {@value #COLLECTION_SCAN} when the plan also scans the collection.
+     */
+    static Set<String> winningPlanIndexes(Document explain) {
+        Set<String> indexes = new LinkedHashSet<>();
+        Object queryPlanner = explain.get("queryPlanner");
+        if (queryPlanner instanceof Document planner) {
+            collectStages(planner.get("winningPlan"), indexes);
+        }
+        return indexes;
+    }
+
+    // Plans nest their stages under inputStage / inputStages, and under queryPlan for the slot based engine
+    private static void collectStages(Object node, Set<String> indexes) {
+        if (node instanceof Document stage) {
+            if (COLLECTION_SCAN.equals(stage.get("stage"))) {
+                indexes.add(COLLECTION_SCAN);
+            }
+            if (stage.get("indexName") instanceof String indexName) {
+                indexes.add(indexName);
+            }
+            stage.values().forEach(value -> collectStages(value, indexes));
+        } else if (node instanceof List<?> stages) {
+            stages.forEach(value -> collectStages(value, indexes));
+        }
+    }
+
+    private record SearchShape(String name, ProductFilter filter, ProductSort sort) {
+    }
+}
@@ -1,5 +1,27 @@
 package com.example.product.repository;
 
-//@Mapper(componentModel = "spring")
+import com.example.product.dto.request.ProductDTO;
+import com.example.product.dto.response.ProductSummaryDTO;
+import com.example.product.entity.Product;
+import com.example.product.entity.ProductSummary;
+
+/**
+ * Maps products between their stored and API shapes.
+ * <p>
+ * The implementation copies field by field through constructors, so every mapping is resolved at
+ * compile time: a field added to one side without the other fails the build instead of being
+ * skipped at run time the way reflective bean copying skips it.
+ */
 public interface ProductMapper {
+
+    ProductMapper INSTANCE = new ProductMapperImpl();
+
+    ProductDTO toDTO(Product product);
+
+    ProductSummaryDTO toSummaryDTO(ProductSummary summary);
+
+    /**
+     * The product id is not copied, the id is assigned when the product is inserted.
+     */
+    Product toEntity(ProductDTO productDTO);
 }
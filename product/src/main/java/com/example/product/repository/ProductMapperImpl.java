@@ -0,0 +1,58 @@
+package com.example.product.repository;
+
+import com.example.product.dto.request.ProductDTO;
+import com.example.product.dto.response.ProductSummaryDTO;
+import com.example.product.entity.Product;
+import com.example.product.entity.ProductSummary;
+import org.bson.types.ObjectId;
+
+final class ProductMapperImpl implements ProductMapper {
+
+    @Override
+    public ProductDTO toDTO(Product product) {
+        if (product == null) {
+            return null;
+        }
+        return new ProductDTO(
+                toHexString(product.getProductId()),
+                product.getProductName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getCategory(),
+                product.getImages()
+        );
+    }
+
+    @Override
+    public ProductSummaryDTO toSummaryDTO(ProductSummary summary) {
+        if (summary == null) {
+            return null;
+        }
+        return new ProductSummaryDTO(
+                toHexString(summary.productId()),
+                summary.productName(),
+                summary.price(),
+                summary.category()
+        );
+    }
+
+    @Override
+    public Product toEntity(ProductDTO productDTO) {
+        if (productDTO == null) {
+            return null;
+        }
+        return new Product(
+                null,
+                productDTO.getProductName(),
+                productDTO.getDescription(),
+                productDTO.getPrice(),
+                productDTO.getCategory(),
+                productDTO.getImages()
+        );
+    }
+
+    // Map productId from ObjectId to String
+    private static String toHexString(ObjectId id) {
+        return id == null ? null : id.toHexString();
+    }
+}
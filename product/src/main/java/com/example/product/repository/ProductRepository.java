@@ -2,19 +2,39 @@ package com.example.product.repository;
 
 import com.example.product.entity.Product;
 import org.bson.types.ObjectId;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ProductRepository
-        extends MongoRepository<Product, ObjectId> {
+        extends MongoRepository<Product, ObjectId>, ProductRepositoryCustom {
+
+    // Listing queries take the type to read, Product or the ProductSummary projection (a closed
+    // projection only fetches its own fields)
+
+    // Slice instead of Page, offset pages do not need the extra count query
+    <T> Slice<T> findAllBy(Pageable pageable, Class<T> type);
+
+    <T> List<T> findByProductIdIn(Collection<ObjectId> ids, Class<T> type);
 
     @Query("{ 'productName': { '$regex': '?0', '$options': 'i' } }")
-    Page<Product> findByProductName(String productName, Pageable pageable);
+    <T> Slice<T> findByProductName(String productName, Pageable pageable, Class<T> type);
 
     @Query("{ 'productName': { '$regex': '?0', '$options': 'i' }, 'category': '?1' }")
-    Page<Product> findByProductNameAndCategory(String productName, String category, Pageable pageable);
+    <T> Slice<T> findByProductNameAndCategory(String productName, String category, Pageable pageable, Class<T> type);
+
+    // Prefix lookups served by the case-insensitive product_name_ci_idx, no regex and no count query
+    @Query(value = "{ 'productName': { '$gte': ?0, '$lt': ?1 } }", collation = Product.CASE_INSENSITIVE_COLLATION)
+    <T> List<T> findByProductNameRange(String from, String to, Pageable pageable, Class<T> type);
+
+    @Query(value = "{ 'productName': { '$gte': ?0, '$lt': ?1 }, 'category': ?2 }",
+            collation = Product.CASE_INSENSITIVE_COLLATION)
+    <T> List<T> findByProductNameRangeAndCategory(String from, String to, String category, Pageable pageable,
+                                                  Class<T> type);
 }
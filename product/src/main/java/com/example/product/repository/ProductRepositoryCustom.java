@@ -0,0 +1,84 @@
+package com.example.product.repository;
+
+import com.example.product.entity.Product;
+import com.example.product.search.ProductFilter;
+import com.example.product.search.ProductSort;
+import com.example.product.search.TextSearchHit;
+import com.example.product.utils.CursorUtils.ProductCursor;
+import com.example.product.utils.CursorUtils.ScoreCursor;
+import com.example.product.utils.WildcardPattern;
+import org.bson.types.ObjectId;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queries that need {@link org.springframework.data.mongodb.core.MongoTemplate} directly,
+ * implemented by {@link ProductRepositoryCustomImpl} and exposed through {@link ProductRepository}.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Keyset page of all products ordered by {@code _id}.
+     *
+     * @param afterId last id of the previous page, {@code null} for the first page
+     * @param limit   maximum number of products to return
+     * @param type    {@link Product} or a projection of it
+     */
+    <T> List<T> findAllAfter(ObjectId afterId, int limit, Class<T> type);
+
+    /**
+     * Keyset page of the products matching a filter, in the given order. An empty name pattern
+     * matches every product, so that a category or a price range can be browsed on its own.
+     *
+     * @param after  cursor of the last product of the previous page, {@code null} for the first page
+     * @param limit  maximum number of products to return
+     * @param type   {@link Product} or a projection of it
+     * @throws IllegalArgumentException when the cursor was issued for another sort
+     */
+    <T> List<T> searchAfter(ProductFilter filter, ProductSort sort, ProductCursor after, int limit, Class<T> type);
+
+    /**
+     * Offset page of the products matching a filter, in the given order.
+     *
+     * @param type {@link Product} or a projection of it
+     */
+    <T> List<T> search(ProductFilter filter, ProductSort sort, long offset, int limit, Class<T> type);
+
+    /**
+     * Keyset page of the products matching a {@code $text} search on the weighted text index over
+     * {@code productName} and {@code description}, most relevant first (text score descending, then
+     * {@code _id}). The name pattern of {@code filter} is not used, its category and price range are.
+     *
+     * @param text  search terms, phrases in double quotes and terms prefixed with {@code -} to exclude
+     * @param after cursor of the last hit of the previous page, {@code null} for the first page
+     * @param type  {@link Product} or a projection of it
+     */
+    <T> List<TextSearchHit<T>> textSearchAfter(String text, ProductFilter filter, ScoreCursor after, int limit,
+                                               Class<T> type);
+
+    /**
+     * Number of products per category among the products matching a name pattern, largest first.
+     * Categories are compared case-insensitively and products without a category are not counted.
+     */
+    Map<String, Long> countByCategory(WildcardPattern pattern);
+
+    /**
+     * Inserts products with one unordered bulk write. A failing row does not stop the remaining rows.
+     * Ids are assigned to the products in place.
+     *
+     * @return error message per index of {@code products} that could not be written, empty when all succeeded
+     */
+    Map<Integer, String> saveAllUnordered(List<Product> products);
+
+    /**
+     * Writes products with one unordered bulk write, upserting each by its natural key
+     * {@code (productName, category)}: a product matching an existing one (exact, case-sensitive)
+     * replaces it and keeps its id, the oldest one when the catalog holds the key twice; the others
+     * are inserted. Products sharing a key within the list are written to the same document, the
+     * last of them wins. Ids are assigned in place to the products that were written.
+     *
+     * @return error message per index of {@code products} that could not be written, empty when all succeeded
+     */
+    Map<Integer, String> upsertAllByNaturalKey(List<Product> products);
+}
@@ -0,0 +1,346 @@
+package com.example.product.repository;
+
+import com.example.product.entity.Product;
+import com.example.product.search.ProductFilter;
+import com.example.product.search.ProductSort;
+import com.example.product.search.TextSearchHit;
+import com.example.product.utils.CursorUtils.ProductCursor;
+import com.example.product.utils.CursorUtils.ScoreCursor;
+import com.example.product.utils.SearchUtils;
+import com.example.product.utils.WildcardPattern;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+public class ProductRepositoryCustomImpl
+        implements ProductRepositoryCustom {
+
+    private static final String ID = "_id";
+    private static final String PRODUCT_NAME = "productName";
+    private static final String CATEGORY = "category";
+    private static final String PRICE = "price";
+    private static final String SCORE = "score";
+    private static final String COUNT = "count";
+
+    // Same collation as product_name_ci_idx so that the sort and range predicates can use it
+    private static final Collation CASE_INSENSITIVE = Collation.parse(Product.CASE_INSENSITIVE_COLLATION);
+
+    private static final ReplaceOptions UPSERT = new ReplaceOptions().upsert(true);
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+
+    private final MongoTemplate mongoTemplate;
+    private final WriteConcern bulkWriteConcern;
+
+    public ProductRepositoryCustomImpl(
+            MongoTemplate mongoTemplate,
+            @Value("${product.bulk.write-concern:ACKNOWLEDGED}") String bulkWriteConcern) {
+        this.mongoTemplate = mongoTemplate;
+        this.bulkWriteConcern = WriteConcern.valueOf(bulkWriteConcern);
+        if (this.bulkWriteConcern == null || !this.bulkWriteConcern.isAcknowledged()) {
+            // Row level errors are only reported for acknowledged writes
+            throw new IllegalArgumentException("product.bulk.write-concern must be an acknowledged write concern, got "
+                    + bulkWriteConcern);
+        }
+    }
+
+    @Override
+    public <T> List<T> findAllAfter(ObjectId afterId, int limit, Class<T> type) {
+        Query query = new Query();
+        if (afterId != null) {
+            query.addCriteria(Criteria.where(ID).gt(afterId));
+        }
+        query.with(Sort.by(Sort.Direction.ASC, ID)).limit(limit);
+        return mongoTemplate.query(Product.class).as(type).matching(query).all();
+    }
+
+    @Override
+    public <T> List<T> searchAfter(ProductFilter filter, ProductSort sort, ProductCursor after, int limit, Class<T> type) {
+        List<Criteria> criteria = filterCriteria(filter, sort);
+        if (after != null) {
+            criteria.add(afterCriteria(sort, after));
+        }
+        Query query = searchQuery(criteria, sort).limit(limit);
+        return mongoTemplate.query(Product.class).as(type).matching(query).all();
+    }
+
+    @Override
+    public <T> List<T> search(ProductFilter filter, ProductSort sort, long offset, int limit, Class<T> type) {
+        Query query = searchQuery(filterCriteria(filter, sort), sort).skip(offset).limit(limit);
+        return mongoTemplate.query(Product.class).as(type).matching(query).all();
+    }
+
+    @Override
+    public <T> List<TextSearchHit<T>> textSearchAfter(String text, ProductFilter filter, ScoreCursor after, int limit,
+                                                      Class<T> type) {
+        Document match = new Document("$text", new Document("$search", text));
+        List<Criteria> criteria = filterCriteria(filter, null);
+        if (!criteria.isEmpty()) {
+            match.putAll(new Criteria().andOperator(criteria).getCriteriaObject());
+        }
+
+        // The score only exists after the $text match, so the keyset is applied in a later stage
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(context -> new Document("$match", match));
+        stages.add(context -> new Document("$addFields", new Document(SCORE, new Document("$meta", "textScore"))));
+        if (after != null) {
+            stages.add(Aggregation.match(new Criteria().orOperator(
+                    Criteria.where(SCORE).lt(after.lastScore()),
+                    new Criteria().andOperator(
+                            Criteria.where(SCORE).is(after.lastScore()),
+                            Criteria.where(ID).gt(after.lastId())))));
+        }
+        stages.add(Aggregation.sort(Sort.by(Sort.Direction.DESC, SCORE).and(Sort.by(Sort.Direction.ASC, ID))));
+        stages.add(Aggregation.limit(limit));
+        stages.add(Aggregation.project(fieldsOf(type)).and(SCORE).as(SCORE));
+
+        MongoConverter converter = mongoTemplate.getConverter();
+        List<TextSearchHit<T>> hits = new ArrayList<>(limit);
+        Aggregation aggregation = Aggregation.newAggregation(stages);
+        for (Document hit : mongoTemplate.aggregate(aggregation, Product.class, Document.class)) {
+            hits.add(new TextSearchHit<>(converter.read(type, hit), ((Number) hit.get(SCORE)).doubleValue()));
+        }
+        return hits;
+    }
+
+    // Stored field names of Product or of a projection of it
+    private String[] fieldsOf(Class<?> type) {
+        List<String> fields = new ArrayList<>();
+        mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(type)
+                .doWithProperties((PropertyHandler<MongoPersistentProperty>) property ->
+                        fields.add(property.getFieldName()));
+        return fields.toArray(String[]::new);
+    }
+
+    /**
+     * First page query of a search, also explained by {@link IndexUsageCheck}.
+     * <p>
+     * Filters and sort follow the equality, sort, range order of the declared indexes: a category
+     * browse runs on category_browse_idx or category_price_idx, a price sort without a category on
+     * price_browse_idx, and a name pattern on the productName indexes.
+     */
+    static Query searchQuery(ProductFilter filter, ProductSort sort) {
+        return searchQuery(filterCriteria(filter, sort), sort);
+    }
+
+    private static Query searchQuery(List<Criteria> criteria, ProductSort sort) {
+        Sort order = sort == ProductSort.PRICE
+                ? Sort.by(Sort.Direction.ASC, PRICE, PRODUCT_NAME, ID)
+                : Sort.by(Sort.Direction.ASC, PRODUCT_NAME, ID);
+        return new Query(criteria.isEmpty() ? new Criteria() : new Criteria().andOperator(criteria))
+                .with(order)
+                .collation(CASE_INSENSITIVE);
+    }
+
+    private static List<Criteria> filterCriteria(ProductFilter filter, ProductSort sort) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (!filter.pattern().matchesAll()) {
+            criteria.add(nameCriteria(filter.pattern()));
+        }
+        if (filter.category() != null) {
+            criteria.add(Criteria.where(CATEGORY).is(filter.category()));
+        }
+        if (filter.hasPriceRange()) {
+            Criteria price = Criteria.where(PRICE);
+            if (filter.minPrice() != null) {
+                price.gte(filter.minPrice());
+            }
+            if (filter.maxPrice() != null) {
+                price.lte(filter.maxPrice());
+            }
+            criteria.add(price);
+        } else if (sort == ProductSort.PRICE) {
+            // Products without a price have no place in a price order
+            criteria.add(Criteria.where(PRICE).ne(null));
+        }
+        return criteria;
+    }
+
+    private static Criteria afterCriteria(ProductSort sort, ProductCursor after) {
+        Criteria afterName = new Criteria().orOperator(
+                Criteria.where(PRODUCT_NAME).gt(after.lastName()),
+                new Criteria().andOperator(
+                        Criteria.where(PRODUCT_NAME).is(after.lastName()),
+                        Criteria.where(ID).gt(after.lastId())));
+        if (sort != ProductSort.PRICE) {
+            return afterName;
+        }
+        if (after.lastPrice() == null) {
+            throw new IllegalArgumentException("Cursor was not issued for sort=price");
+        }
+        return new Criteria().orOperator(
+                Criteria.where(PRICE).gt(after.lastPrice()),
+                new Criteria().andOperator(Criteria.where(PRICE).is(after.lastPrice()), afterName));
+    }
+
+    @Override
+    public Map<String, Long> countByCategory(WildcardPattern pattern) {
+        Criteria categorized = Criteria.where(CATEGORY).ne(null);
+        Criteria criteria = pattern.matchesAll()
+                ? categorized
+                : new Criteria().andOperator(nameCriteria(pattern), categorized);
+
+        // Same collation as category_browse_idx: categories are grouped as the cursor search filters them
+        Aggregation aggregation = Aggregation.newAggregation(
+                        Aggregation.match(criteria),
+                        Aggregation.group(CATEGORY).count().as(COUNT),
+                        Aggregation.sort(Sort.by(Sort.Direction.DESC, COUNT).and(Sort.by(Sort.Direction.ASC, ID))))
+                .withOptions(AggregationOptions.builder().collation(CASE_INSENSITIVE).build());
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, Product.class, Document.class)) {
+            counts.put(group.getString(ID), ((Number) group.get(COUNT)).longValue());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<Integer, String> saveAllUnordered(List<Product> products) {
+        if (products.isEmpty()) {
+            return Map.of();
+        }
+        List<WriteModel<Document>> writes = new ArrayList<>(products.size());
+        for (Product product : products) {
+            product.setProductId(new ObjectId());
+            Document document = new Document();
+            mongoTemplate.getConverter().write(product, document);
+            writes.add(new InsertOneModel<>(document));
+        }
+
+        return bulkWrite(writes);
+    }
+
+    @Override
+    public Map<Integer, String> upsertAllByNaturalKey(List<Product> products) {
+        if (products.isEmpty()) {
+            return Map.of();
+        }
+
+        // One lookup on product_name_idx for the ids of the products that already exist
+        Set<String> names = new HashSet<>();
+        products.forEach(product -> names.add(product.getProductName()));
+        Query existing = new Query(Criteria.where(PRODUCT_NAME).in(names))
+                .with(Sort.by(Sort.Direction.ASC, ID));
+        existing.fields().include(PRODUCT_NAME, CATEGORY);
+        Map<NaturalKey, ObjectId> existingIds = new HashMap<>();
+        for (Product product : mongoTemplate.find(existing, Product.class)) {
+            // The oldest product wins when the catalog already holds duplicates
+            existingIds.putIfAbsent(NaturalKey.of(product), product.getProductId());
+        }
+
+        // One write per key, the last row of a key wins and the rows sharing it share its document
+        Map<NaturalKey, Integer> writeOfKey = new HashMap<>();
+        List<Product> written = new ArrayList<>();
+        int[] writeOfRow = new int[products.size()];
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            NaturalKey key = NaturalKey.of(product);
+            Integer write = writeOfKey.get(key);
+            if (write == null) {
+                write = written.size();
+                writeOfKey.put(key, write);
+                written.add(product);
+            } else {
+                written.set(write, product);
+            }
+            writeOfRow[i] = write;
+        }
+
+        List<WriteModel<Document>> writes = new ArrayList<>(written.size());
+        List<ObjectId> ids = new ArrayList<>(written.size());
+        for (Product product : written) {
+            ObjectId id = existingIds.get(NaturalKey.of(product));
+            // A new key is still matched on the key, so that a document another import inserted since the
+            // lookup is not duplicated: replacing it with a different _id fails that row instead
+            Bson filter = id != null ? Filters.eq(ID, id) : naturalKeyFilter(product);
+            product.setProductId(id != null ? id : new ObjectId());
+            ids.add(product.getProductId());
+            Document document = new Document();
+            mongoTemplate.getConverter().write(product, document);
+            writes.add(new ReplaceOneModel<>(filter, document, UPSERT));
+        }
+        Map<Integer, String> writeErrors = bulkWrite(writes);
+
+        Map<Integer, String> errors = new HashMap<>();
+        for (int i = 0; i < products.size(); i++) {
+            String error = writeErrors.get(writeOfRow[i]);
+            if (error != null) {
+                errors.put(i, error);
+            } else {
+                products.get(i).setProductId(ids.get(writeOfRow[i]));
+            }
+        }
+        return errors;
+    }
+
+    private static Bson naturalKeyFilter(Product product) {
+        return Filters.and(
+                Filters.eq(PRODUCT_NAME, product.getProductName()),
+                Filters.eq(CATEGORY, product.getCategory()));
+    }
+
+    private Map<Integer, String> bulkWrite(List<WriteModel<Document>> writes) {
+        // Spring's BulkOperations only takes the template wide write concern, so run the driver's
+        // bulk write on the template's collection instead
+        return mongoTemplate.execute(Product.class, collection -> {
+            try {
+                collection.withWriteConcern(bulkWriteConcern).bulkWrite(writes, UNORDERED);
+                return Map.of();
+            } catch (MongoBulkWriteException e) {
+                if (e.getWriteConcernError() != null) {
+                    log.warn("bulkWrite:: write concern error - {}", e.getWriteConcernError().getMessage());
+                }
+                Map<Integer, String> errors = new HashMap<>();
+                for (BulkWriteError error : e.getWriteErrors()) {
+                    errors.put(error.getIndex(), error.getMessage());
+                }
+                return errors;
+            }
+        });
+    }
+
+    private static Criteria nameCriteria(WildcardPattern pattern) {
+        return switch (pattern.kind()) {
+            case PREFIX -> Criteria.where(PRODUCT_NAME)
+                    .gte(pattern.literal())
+                    .lt(pattern.literal() + SearchUtils.PREFIX_RANGE_END);
+            case CONTAINS, GENERAL -> Criteria.where(PRODUCT_NAME).regex(pattern.regex(), "i");
+        };
+    }
+
+    private record NaturalKey(String productName, String category) {
+        static NaturalKey of(Product product) {
+            return new NaturalKey(product.getProductName(), product.getCategory());
+        }
+    }
+}
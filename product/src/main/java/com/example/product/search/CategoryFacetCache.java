@@ -0,0 +1,78 @@
+package com.example.product.search;
+
+import com.example.product.entity.Product;
+import com.example.product.event.ProductsChangedEvent;
+import com.example.product.utils.WildcardPattern;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of category facet counts, keyed by the search pattern.
+ * <p>
+ * Product writes invalidate only the entries whose pattern matches a written product name: every
+ * write either inserts a product or replaces one with the same name and category, so counts of
+ * other patterns cannot change. Deletes only carry the id of the product, and large bulk writes
+ * would have to be matched against every entry, so both clear the whole cache instead. Entries
+ * expire after {@code product.facets.cache.ttl-seconds} either way, which also bounds how long
+ * a count computed concurrently with a write can stay stale.
+ * <p>
+ * Hits and misses are published under the {@code cache} metrics with {@code cache=productFacets}.
+ */
+@Slf4j
+@Component
+public class CategoryFacetCache {
+
+    static final int MAX_INCREMENTAL_INVALIDATION = 100; // Written products matched against the entries one by one
+
+    private final Cache<String, Facets> cache;
+
+    public CategoryFacetCache(
+            MeterRegistry meterRegistry,
+            @Value("${product.facets.cache.ttl-seconds:30}") long ttlSeconds,
+            @Value("${product.facets.cache.max-size:1000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productFacets");
+    }
+
+    /**
+     * Returns the cached counts of the pattern, computing them with {@code counter} on a miss.
+     */
+    public Map<String, Long> get(WildcardPattern pattern, Function<WildcardPattern, Map<String, Long>> counter) {
+        return cache.get(pattern.raw(),
+                        raw -> new Facets(pattern, Collections.unmodifiableMap(counter.apply(pattern))))
+                .counts();
+    }
+
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (!event.deleted().isEmpty() || event.saved().size() > MAX_INCREMENTAL_INVALIDATION) {
+            cache.invalidateAll();
+            return;
+        }
+        List<String> names = event.saved().stream()
+                .map(Product::getProductName)
+                .toList();
+        if (!names.isEmpty()) {
+            cache.asMap().values().removeIf(facets -> names.stream().anyMatch(facets.pattern()::matches));
+        }
+    }
+
+    private record Facets(WildcardPattern pattern, Map<String, Long> counts) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.product.search;
+
+import com.example.product.utils.SearchUtils;
+import com.example.product.utils.WildcardPattern;
+
+/**
+ * Filters of a product search: a name pattern, an exact category and an inclusive price range.
+ *
+ * @param pattern  compiled name pattern, the empty pattern matches every product
+ * @param category category to browse, {@code null} for all categories
+ * @param minPrice lowest price, {@code null} for no lower bound
+ * @param maxPrice highest price, {@code null} for no upper bound
+ */
+public record ProductFilter(WildcardPattern pattern, String category, Double minPrice, Double maxPrice) {
+
+    /**
+     * Builds a filter from request parameters, where a blank name or category means no filter.
+     *
+     * @throws IllegalArgumentException when a price bound is negative or the range is empty
+     */
+    public static ProductFilter of(String productName, String category, Double minPrice, Double maxPrice) {
+        if ((minPrice != null && minPrice < 0) || (maxPrice != null && maxPrice < 0)) {
+            throw new IllegalArgumentException("minPrice and maxPrice cannot be negative");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
+        }
+        return new ProductFilter(
+                SearchUtils.compileWildcard(productName == null || productName.isBlank() ? null : productName),
+                category == null || category.isBlank() ? null : category,
+                minPrice,
+                maxPrice);
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice != null || maxPrice != null;
+    }
+}
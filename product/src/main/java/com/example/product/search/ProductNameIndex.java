@@ -0,0 +1,652 @@
+package com.example.product.search;
+
+import com.example.product.entity.Product;
+import com.example.product.event.ProductsChangedEvent;
+import com.example.product.utils.WildcardPattern;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process trigram index over product names.
+ * <p>
+ * Every product gets an internal, monotonically increasing document number; each lower-cased
+ * trigram of its name maps to an ascending posting list of those numbers. A wildcard search is
+ * resolved by intersecting the posting lists of the trigrams of its literal segments and then
+ * verifying each candidate against the compiled wildcard pattern, so Mongo only has to fetch
+ * the final page by {@code _id}. A fuzzy search merges the posting lists of the term's trigrams,
+ * keeps the names sharing enough of them to be within its edit budget and ranks them by edit distance.
+ * <p>
+ * Updates tombstone the old document number and append a new one, which keeps posting lists
+ * sorted; the postings are compacted once tombstones outnumber live documents.
+ * <p>
+ * With {@code product.search.ngram-index.snapshot-file} set, the indexed names are written to that
+ * file after each build and on shutdown. A restart loads the snapshot and serves searches from it
+ * right away, while the build reconciles it with Mongo: changed products are re-indexed and
+ * products missing from Mongo are dropped.
+ */
+@Slf4j
+@Component
+public class ProductNameIndex {
+
+    static final int GRAM_LENGTH = 3;
+    private static final int MIN_COMPACTION_TOMBSTONES = 1024;
+    private static final int SNAPSHOT_MAGIC = 0x504e4931; // "PNI1", bumped with the snapshot layout
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final Path snapshotFile;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<ObjectId, Integer> docNumbers = new HashMap<>();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Set<ObjectId> changedWhileBuilding = new HashSet<>();
+    private ObjectId[] ids = new ObjectId[1024];
+    private String[] names = new String[1024];
+    private String[] categories = new String[1024];
+    private int nextDocNumber;
+    private int tombstones;
+    private boolean building;
+    private volatile boolean ready;
+
+    public ProductNameIndex(
+            MongoTemplate mongoTemplate,
+            @Value("${product.search.ngram-index.enabled:true}") boolean enabled,
+            @Value("${product.search.ngram-index.snapshot-file:}") String snapshotFile) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.snapshotFile = snapshotFile == null || snapshotFile.isBlank() ? null : Path.of(snapshotFile);
+    }
+
+    /**
+     * Loads every product name from Mongo once the application is up. Searches fall back to
+     * Mongo until the build has finished, or only until the snapshot is loaded when there is one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            log.info("build:: product name index is disabled");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            building = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        restoreSnapshot();
+
+        // Documents up to here come from the snapshot, those Mongo no longer has are dropped at the end
+        int restoredDocs;
+        lock.readLock().lock();
+        try {
+            restoredDocs = nextDocNumber;
+        } finally {
+            lock.readLock().unlock();
+        }
+        BitSet seen = new BitSet(restoredDocs);
+
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id"));
+        query.fields().include("productName", "category");
+        int loaded = 0;
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            for (Product product : (Iterable<Product>) products::iterator) {
+                reconcile(product, seen);
+                loaded++;
+            }
+        } catch (Exception e) {
+            log.error("build:: failed to load product names, searches will keep using Mongo", e);
+            lock.writeLock().lock();
+            try {
+                ready = false;
+                building = false;
+                changedWhileBuilding.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        int dropped = 0;
+        lock.writeLock().lock();
+        try {
+            for (int doc = 0; doc < restoredDocs; doc++) {
+                if (names[doc] != null && !seen.get(doc) && !changedWhileBuilding.contains(ids[doc])) {
+                    removeLocked(ids[doc]);
+                    dropped++;
+                }
+            }
+            changedWhileBuilding.clear();
+            building = false;
+            compactIfNeeded();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("build:: indexed {} product names in {} ms, dropped {} stale snapshot entries",
+                loaded, System.currentTimeMillis() - start, dropped);
+        writeSnapshot();
+    }
+
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (building) {
+                changedWhileBuilding.addAll(event.deleted());
+            }
+            event.deleted().forEach(this::removeLocked);
+            for (Product product : event.saved()) {
+                if (product.getProductId() != null) {
+                    if (building) {
+                        changedWhileBuilding.add(product.getProductId());
+                    }
+                    removeLocked(product.getProductId());
+                    addLocked(product.getProductId(), product.getProductName(), product.getCategory());
+                }
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the live entries of the index to the snapshot file, through a temporary file so that
+     * a crash mid-write leaves the previous snapshot in place.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void writeSnapshot() {
+        if (snapshotFile == null || !ready) {
+            return;
+        }
+        ObjectId[] snapshotIds;
+        String[] snapshotNames;
+        String[] snapshotCategories;
+        lock.readLock().lock();
+        try {
+            snapshotIds = Arrays.copyOf(ids, nextDocNumber);
+            snapshotNames = Arrays.copyOf(names, nextDocNumber);
+            snapshotCategories = Arrays.copyOf(categories, nextDocNumber);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        Path temp = null;
+        try {
+            Path directory = snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+            int written = 0;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                for (int doc = 0; doc < snapshotIds.length; doc++) {
+                    if (snapshotNames[doc] != null) {
+                        out.writeBoolean(true);
+                        out.write(snapshotIds[doc].toByteArray());
+                        writeString(out, snapshotNames[doc]);
+                        writeString(out, snapshotCategories[doc]);
+                        written++;
+                    }
+                }
+                out.writeBoolean(false);
+            }
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("writeSnapshot:: wrote {} product names to {} in {} ms",
+                    written, snapshotFile, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            log.warn("writeSnapshot:: could not write {}: {}", snapshotFile, e.getMessage());
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Left for the next write to replace
+                }
+            }
+        }
+    }
+
+    private void restoreSnapshot() {
+        if (snapshotFile == null || !Files.isRegularFile(snapshotFile)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int restored = 0;
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                log.warn("restoreSnapshot:: {} is not a product name index snapshot, ignoring it", snapshotFile);
+                return;
+            }
+            byte[] id = new byte[12];
+            while (in.readBoolean()) {
+                in.readFully(id);
+                ObjectId productId = new ObjectId(id);
+                String name = readString(in);
+                String category = readString(in);
+                if (!changedWhileBuilding.contains(productId) && !docNumbers.containsKey(productId)) {
+                    addLocked(productId, name, category);
+                    restored++;
+                }
+            }
+            ready = true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("restoreSnapshot:: could not read {}, building from Mongo only: {}", snapshotFile, e.getMessage());
+            // Changes recorded so far are dropped with the entries, the build reads them back from Mongo
+            clearLocked();
+            changedWhileBuilding.clear();
+            return;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("restoreSnapshot:: restored {} product names from {} in {} ms",
+                restored, snapshotFile, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Resolves a compiled wildcard pattern to the ids of one page of matching products, in index order.
+     *
+     * @return the page of ids, or empty when the index cannot answer the query (not built yet,
+     *         disabled, or the pattern has no literal run of at least {@value #GRAM_LENGTH} characters)
+     */
+    public Optional<List<ObjectId>> search(WildcardPattern pattern, String category, long offset, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        long[] grams = literalGrams(pattern);
+        if (grams.length == 0) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(grams.length);
+            for (long gram : grams) {
+                PostingList list = postings.get(gram);
+                if (list == null) {
+                    return Optional.of(List.of());
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(PostingList::size));
+
+            PostingList driver = lists.getFirst();
+            int[] cursors = new int[lists.size()];
+            List<ObjectId> page = new ArrayList<>(Math.min(limit, 256));
+            long skipped = 0;
+            for (int i = 0; i < driver.size() && page.size() < limit; i++) {
+                int doc = driver.get(i);
+                if (names[doc] == null || !containsInAll(lists, cursors, doc)) {
+                    continue;
+                }
+                if (category != null && !category.equals(categories[doc])) {
+                    continue;
+                }
+                if (!pattern.matches(names[doc])) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    page.add(ids[doc]);
+                }
+            }
+            return Optional.of(page);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Resolves a search term to the ids of one page of products whose name contains it within
+     * {@link #maxEdits} insertions, deletions or substitutions, ignoring case. Closest matches come
+     * first, then index order.
+     * <p>
+     * Candidates come from the posting lists of the term's trigrams only: a name must share at least
+     * one trigram with the term, and as many as its edit budget leaves intact, to be checked.
+     *
+     * @return the page of ids, or empty when the index is not built yet, disabled, or the term is
+     *         shorter than {@value #GRAM_LENGTH} characters and so has no trigram to look up
+     */
+    public Optional<List<ObjectId>> searchFuzzy(String term, String category, long offset, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        String lower = term.toLowerCase(Locale.ROOT);
+        long[] termGrams = Arrays.stream(grams(lower)).distinct().toArray();
+        if (termGrams.length == 0) {
+            return Optional.empty();
+        }
+        // Each edit breaks at most GRAM_LENGTH trigrams, a name sharing fewer cannot be within the budget
+        int maxEdits = maxEdits(lower.length());
+        int minShared = Math.max(1, termGrams.length - GRAM_LENGTH * maxEdits);
+
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(termGrams.length);
+            for (long gram : termGrams) {
+                PostingList list = postings.get(gram);
+                if (list != null) {
+                    lists.add(list);
+                }
+            }
+            if (lists.size() < minShared) {
+                return Optional.of(List.of());
+            }
+
+            // Matches as (edits << 32 | doc), so that sorting ranks by distance and then index order
+            long[] matches = new long[16];
+            int matchCount = 0;
+            int[] cursors = new int[lists.size()];
+            while (true) {
+                // Merge of the ascending posting lists: the next document and the number of lists holding it
+                int doc = Integer.MAX_VALUE;
+                for (int i = 0; i < cursors.length; i++) {
+                    if (cursors[i] < lists.get(i).size()) {
+                        doc = Math.min(doc, lists.get(i).get(cursors[i]));
+                    }
+                }
+                if (doc == Integer.MAX_VALUE) {
+                    break;
+                }
+                int shared = 0;
+                for (int i = 0; i < cursors.length; i++) {
+                    if (cursors[i] < lists.get(i).size() && lists.get(i).get(cursors[i]) == doc) {
+                        cursors[i]++;
+                        shared++;
+                    }
+                }
+
+                if (shared < minShared || names[doc] == null) {
+                    continue;
+                }
+                if (category != null && !category.equals(categories[doc])) {
+                    continue;
+                }
+                int edits = substringEditDistance(lower, names[doc]);
+                if (edits <= maxEdits) {
+                    if (matchCount == matches.length) {
+                        matches = Arrays.copyOf(matches, matchCount * 2);
+                    }
+                    matches[matchCount++] = ((long) edits << 32) | doc;
+                }
+            }
+            Arrays.sort(matches, 0, matchCount);
+
+            List<ObjectId> page = new ArrayList<>(Math.min(limit, 256));
+            for (long i = offset; i < matchCount && page.size() < limit; i++) {
+                page.add(ids[(int) matches[(int) i]]);
+            }
+            return Optional.of(page);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Brings the entry of a product read by the build up to date, unless an event changed the
+     * product since the build started.
+     */
+    private void reconcile(Product product, BitSet seen) {
+        ObjectId id = product.getProductId();
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (changedWhileBuilding.contains(id)) {
+                return;
+            }
+            Integer doc = docNumbers.get(id);
+            if (doc != null && Objects.equals(names[doc], product.getProductName())
+                    && Objects.equals(categories[doc], product.getCategory())) {
+                seen.set(doc);
+                return;
+            }
+            removeLocked(id);
+            addLocked(id, product.getProductName(), product.getCategory());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addLocked(ObjectId id, String name, String category) {
+        if (name == null) {
+            return;
+        }
+        int doc = nextDocNumber++;
+        if (doc == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+        ids[doc] = id;
+        names[doc] = name;
+        categories[doc] = category;
+        docNumbers.put(id, doc);
+        for (long gram : grams(name)) {
+            postings.computeIfAbsent(gram, g -> new PostingList()).add(doc);
+        }
+    }
+
+    private void removeLocked(ObjectId id) {
+        Integer doc = docNumbers.remove(id);
+        if (doc != null) {
+            ids[doc] = null;
+            names[doc] = null;
+            categories[doc] = null;
+            tombstones++;
+        }
+    }
+
+    private void clearLocked() {
+        ids = new ObjectId[1024];
+        names = new String[1024];
+        categories = new String[1024];
+        nextDocNumber = 0;
+        tombstones = 0;
+        docNumbers.clear();
+        postings.clear();
+    }
+
+    private void compactIfNeeded() {
+        // Renumbering documents would invalidate the snapshot entries a running build tracks
+        if (building || tombstones < MIN_COMPACTION_TOMBSTONES || tombstones < docNumbers.size()) {
+            return;
+        }
+        log.info("compactIfNeeded:: compacting product name index, live - {}, tombstones - {}",
+                docNumbers.size(), tombstones);
+        ObjectId[] oldIds = ids;
+        String[] oldNames = names;
+        String[] oldCategories = categories;
+        int oldCount = nextDocNumber;
+
+        int capacity = Math.max(1024, Integer.highestOneBit(Math.max(1, docNumbers.size())) * 2);
+        ids = new ObjectId[capacity];
+        names = new String[capacity];
+        categories = new String[capacity];
+        nextDocNumber = 0;
+        tombstones = 0;
+        docNumbers.clear();
+        postings.clear();
+        for (int doc = 0; doc < oldCount; doc++) {
+            if (oldNames[doc] != null) {
+                addLocked(oldIds[doc], oldNames[doc], oldCategories[doc]);
+            }
+        }
+    }
+
+    private static boolean containsInAll(List<PostingList> lists, int[] cursors, int doc) {
+        for (int l = 1; l < lists.size(); l++) {
+            int position = lists.get(l).seek(doc, cursors[l]);
+            cursors[l] = position;
+            if (position >= lists.get(l).size() || lists.get(l).get(position) != doc) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Edits allowed for a fuzzy term: none up to 2 characters, one up to 5, two beyond.
+     */
+    static int maxEdits(int termLength) {
+        return termLength < 3 ? 0 : termLength < 6 ? 1 : 2;
+    }
+
+    /**
+     * Smallest edit distance between a lower-cased term and any substring of {@code text}, ignoring
+     * the case of {@code text}. Dynamic programming over one column, where a match may start at any
+     * position of the text for free.
+     */
+    static int substringEditDistance(String term, String text) {
+        int[] column = new int[term.length() + 1];
+        for (int i = 0; i < column.length; i++) {
+            column[i] = i;
+        }
+        int best = column[term.length()];
+        for (int j = 0; j < text.length() && best > 0; j++) {
+            char c = Character.toLowerCase(text.charAt(j));
+            int diagonal = column[0];
+            for (int i = 1; i < column.length; i++) {
+                int previous = column[i];
+                int substitution = diagonal + (term.charAt(i - 1) == c ? 0 : 1);
+                column[i] = Math.min(substitution, Math.min(column[i] + 1, column[i - 1] + 1));
+                diagonal = previous;
+            }
+            best = Math.min(best, column[term.length()]);
+        }
+        return best;
+    }
+
+    // Length prefixed UTF-8, -1 for null; unlike writeUTF not limited to 64 KB
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Distinct trigrams of every literal segment of a wildcard pattern.
+     */
+    static long[] literalGrams(WildcardPattern pattern) {
+        Set<Long> grams = new HashSet<>();
+        for (String segment : pattern.literalSegments()) {
+            for (long gram : grams(segment)) {
+                grams.add(gram);
+            }
+        }
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    static long[] grams(String text) {
+        if (text.length() < GRAM_LENGTH) {
+            return new long[0];
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        long[] grams = new long[lower.length() - GRAM_LENGTH + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) lower.charAt(i) << 32) | ((long) lower.charAt(i + 1) << 16) | lower.charAt(i + 2);
+        }
+        return grams;
+    }
+
+    /**
+     * Append-only ascending list of document numbers.
+     */
+    private static final class PostingList {
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        int get(int index) {
+            return docs[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Position of the first entry {@code >= doc}, starting the search at {@code from}.
+         */
+        int seek(int doc, int from) {
+            int low = from;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (docs[mid] < doc) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+    }
+}
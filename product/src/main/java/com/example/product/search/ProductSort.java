@@ -0,0 +1,36 @@
+package com.example.product.search;
+
+import java.util.Locale;
+
+/**
+ * Orders of a product search. Both end on {@code _id} so that keyset cursors are unambiguous.
+ */
+public enum ProductSort {
+
+    /**
+     * {@code productName, _id}, names compared case-insensitively.
+     */
+    NAME,
+
+    /**
+     * {@code price, productName, _id}, cheapest first. Products without a price are left out.
+     */
+    PRICE;
+
+    /**
+     * Parses the {@code sort} request parameter.
+     *
+     * @return the sort, or {@code null} when the parameter is blank
+     * @throws IllegalArgumentException for an unknown sort
+     */
+    public static ProductSort parse(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(sort.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("sort must be name or price");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.product.search;
+
+/**
+ * A product matched by a text search with its relevance score.
+ *
+ * @param product {@link com.example.product.entity.Product} or a projection of it
+ * @param score   Mongo text score, higher is more relevant
+ */
+public record TextSearchHit<T>(T product, double score) {
+}
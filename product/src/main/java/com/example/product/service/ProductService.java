@@ -1,20 +1,32 @@
 package com.example.product.service;
 
 import com.example.product.dto.request.ProductDTO;
+import com.example.product.dto.response.BulkCreateResult;
+import com.example.product.dto.response.CursorPageDTO;
+import com.example.product.dto.response.ProductBatchDTO;
+import com.example.product.dto.response.ProductSummaryDTO;
+import com.example.product.dto.response.TextSearchHitDTO;
+import com.example.product.search.ProductFilter;
+import com.example.product.search.ProductSort;
 import org.bson.types.ObjectId;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ProductService {
     // Basic CRUD operations
     ProductDTO createProduct(ProductDTO productDTO);
     ProductDTO getProduct(ObjectId id);
+    ProductBatchDTO getProducts(Collection<ObjectId> ids);
     ProductDTO updateProduct(ObjectId id, ProductDTO productDTO);
     void deleteProduct(ObjectId id);
 
     // Bulk operations
-    List<ProductDTO> bulkCreateProducts(List<ProductDTO> productDTOs);
+    BulkCreateResult bulkCreateProducts(List<ProductDTO> productDTOs);
+    // Upserts by (productName, category), re-importing a product updates it instead of duplicating it
+    BulkCreateResult bulkUpsertProducts(List<ProductDTO> productDTOs);
 
     // implement search level PLP to get the products
     List<ProductDTO> searchProducts(String productName, Pageable pageable);
@@ -22,4 +34,31 @@ public interface ProductService {
     
     // Get all products with pagination
     List<ProductDTO> getAllProducts(Pageable pageable);
+
+    // Keyset (cursor) pagination, pages by _id / (productName, _id) without skip or count queries
+    CursorPageDTO<ProductDTO> getAllProducts(String cursor, int size);
+    CursorPageDTO<ProductDTO> searchProducts(ProductFilter filter, ProductSort sort, String cursor, int size);
+
+    // Typo tolerant name searches served by the in-memory name index, closest matches first
+    List<ProductDTO> searchProductsFuzzy(String term, String category, Pageable pageable);
+    List<ProductSummaryDTO> searchProductSummariesFuzzy(String term, String category, Pageable pageable);
+
+    // Price filtered and / or sorted searches, a null sort orders by name
+    List<ProductDTO> searchProducts(ProductFilter filter, ProductSort sort, Pageable pageable);
+
+    // Summary views of the listings above: id, name, price and category only, read with a Mongo projection
+    List<ProductSummaryDTO> searchProductSummaries(String productName, String category, Pageable pageable);
+    List<ProductSummaryDTO> getAllProductSummaries(Pageable pageable);
+    CursorPageDTO<ProductSummaryDTO> getAllProductSummaries(String cursor, int size);
+    List<ProductSummaryDTO> searchProductSummaries(ProductFilter filter, ProductSort sort, Pageable pageable);
+    CursorPageDTO<ProductSummaryDTO> searchProductSummaries(ProductFilter filter, ProductSort sort, String cursor, int size);
+
+    // Relevance ranked full-text search on the weighted text index, paged by (score, _id) cursors without skip
+    CursorPageDTO<TextSearchHitDTO<ProductDTO>> searchProductsByText(String text, ProductFilter filter, String cursor,
+                                                                      int size);
+    CursorPageDTO<TextSearchHitDTO<ProductSummaryDTO>> searchProductSummariesByText(String text, ProductFilter filter,
+                                                                                    String cursor, int size);
+
+    // Category -> number of products matching the name pattern (all products when blank), largest first
+    Map<String, Long> getCategoryFacets(String productName);
 }
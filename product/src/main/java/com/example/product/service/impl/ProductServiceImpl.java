@@ -1,18 +1,47 @@
 package com.example.product.service.impl;
 
 import com.example.product.dto.request.ProductDTO;
+import com.example.product.dto.response.BulkCreateResult;
+import com.example.product.dto.response.CursorPageDTO;
+import com.example.product.dto.response.ProductBatchDTO;
+import com.example.product.dto.response.ProductSummaryDTO;
+import com.example.product.dto.response.TextSearchHitDTO;
 import com.example.product.entity.Product;
+import com.example.product.entity.ProductSummary;
+import com.example.product.event.ProductsChangedEvent;
 import com.example.product.exception.ProductNotFoundException;
 import com.example.product.repository.ProductRepository;
+import com.example.product.search.CategoryFacetCache;
+import com.example.product.search.ProductFilter;
+import com.example.product.search.ProductNameIndex;
+import com.example.product.search.ProductSort;
+import com.example.product.search.TextSearchHit;
 import com.example.product.service.ProductService;
+import com.example.product.utils.CursorUtils;
+import com.example.product.utils.CursorUtils.ProductCursor;
 import com.example.product.utils.DTOUtils;
 import com.example.product.utils.SearchUtils;
+import com.example.product.utils.WildcardPattern;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 import static com.example.product.utils.DTOUtils.getDTO;
 import static com.example.product.utils.DTOUtils.getEntity;
@@ -22,20 +51,32 @@ import static com.example.product.utils.DTOUtils.getEntity;
 public class ProductServiceImpl
         implements ProductService {
 
+    public static final String PRODUCT_CACHE = "product";
+
+    private static final View<Product, ProductDTO> FULL = new View<>(
+            Product.class, Product::getProductId, Product::getProductName, Product::getPrice, DTOUtils::getDTO);
+    private static final View<ProductSummary, ProductSummaryDTO> SUMMARY = new View<>(
+            ProductSummary.class, ProductSummary::productId, ProductSummary::productName, ProductSummary::price,
+            DTOUtils::getSummaryDTO);
+
     // Mandatory section
     private final ProductRepository productRepository;
+    private final ProductNameIndex productNameIndex;
+    private final CategoryFacetCache categoryFacetCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
 
     // Override the methods
     @Override
+    @CacheEvict(value = PRODUCT_CACHE, key = "#productDTO.productId", condition = "#productDTO.productId != null")
     public ProductDTO createProduct(ProductDTO productDTO) {
-        return getDTO(
-                productRepository.save(
-                        getEntity(productDTO)
-                )
-        );
+        Product savedProduct = productRepository.save(getEntity(productDTO));
+        eventPublisher.publishEvent(ProductsChangedEvent.saved(List.of(savedProduct)));
+        return getDTO(savedProduct);
     }
 
     @Override
+    @Cacheable(value = PRODUCT_CACHE, key = "#id.toHexString()")
     public ProductDTO getProduct(ObjectId id) {
         return productRepository.findById(id)
                 .map(DTOUtils::getDTO)
@@ -43,6 +84,31 @@ public class ProductServiceImpl
     }
 
     @Override
+    public ProductBatchDTO getProducts(Collection<ObjectId> ids) {
+        List<ObjectId> distinctIds = ids.stream().distinct().toList();
+        Map<ObjectId, Product> found = new HashMap<>(distinctIds.size() * 2);
+        // Single _id $in query for the whole batch
+        productRepository.findAllById(distinctIds)
+                .forEach(product -> found.put(product.getProductId(), product));
+
+        Map<String, ProductDTO> products = new LinkedHashMap<>(found.size() * 2);
+        List<String> missingIds = new ArrayList<>();
+        for (ObjectId id : distinctIds) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.put(id.toHexString(), getDTO(product));
+            } else {
+                missingIds.add(id.toHexString());
+            }
+        }
+        return new ProductBatchDTO(products, missingIds);
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(value = PRODUCT_CACHE, key = "#id.toHexString()"),
+            @CacheEvict(value = PRODUCT_CACHE, key = "#productDTO.productId", condition = "#productDTO.productId != null")
+    })
     public ProductDTO updateProduct(ObjectId id, ProductDTO productDTO) {
         if(getProduct(id) != null){
             return createProduct(productDTO);
@@ -51,49 +117,272 @@ public class ProductServiceImpl
     }
 
     @Override
+    @CacheEvict(value = PRODUCT_CACHE, key = "#id.toHexString()")
     public void deleteProduct(ObjectId id) {
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductsChangedEvent.deleted(id));
+    }
+
+    @Override
+    // Only inserts new products, so no cached entry can go stale
+    public BulkCreateResult bulkCreateProducts(List<ProductDTO> productDTOs) {
+        // Unordered bulk write, a bad row only fails itself
+        return bulkWrite(productDTOs, productRepository::saveAllUnordered);
     }
 
     @Override
-    public List<ProductDTO> bulkCreateProducts(List<ProductDTO> productDTOs) {
+    public BulkCreateResult bulkUpsertProducts(List<ProductDTO> productDTOs) {
+        BulkCreateResult result = bulkWrite(productDTOs, productRepository::upsertAllByNaturalKey);
+        // Any written row may have replaced a cached product, evicting only those ids keeps the rest of the cache warm
+        Cache cache = cacheManager.getCache(PRODUCT_CACHE);
+        if (cache != null) {
+            result.getCreated().forEach(written -> cache.evict(written.getProductId()));
+        }
+        return result;
+    }
+
+    private BulkCreateResult bulkWrite(List<ProductDTO> productDTOs, Function<List<Product>, Map<Integer, String>> write) {
         List<Product> entities = productDTOs.stream()
                 .map(DTOUtils::getEntity)
                 .toList();
-        
-        List<Product> savedProducts = productRepository.saveAll(entities);
-        
-        return savedProducts.stream()
-                .map(DTOUtils::getDTO)
-                .toList();
+
+        Map<Integer, String> failures = write.apply(entities);
+        List<Product> savedProducts = new ArrayList<>(entities.size() - failures.size());
+        for (int i = 0; i < entities.size(); i++) {
+            if (!failures.containsKey(i)) {
+                savedProducts.add(entities.get(i));
+            }
+        }
+        eventPublisher.publishEvent(ProductsChangedEvent.saved(savedProducts));
+
+        return new BulkCreateResult(
+                savedProducts.stream()
+                        .map(DTOUtils::getDTO)
+                        .toList(),
+                failures
+        );
     }
 
     // Indexed + override section
     @Override
     public List<ProductDTO> searchProducts(String productName, Pageable pageable) {
-        // Convert wildcard pattern to regex
-        String regexPattern = SearchUtils.convertWildcardToRegex(productName);
-        return productRepository.findByProductName(regexPattern, pageable)
-                .stream()
-                .map(DTOUtils::getDTO)
-                .toList();
+        return searchProducts(SearchUtils.compileWildcard(productName), null, pageable, FULL);
     }
 
     @Override
     public List<ProductDTO> searchProducts(String productName, String category, Pageable pageable) {
-        // Convert wildcard pattern to regex
-        String regexPattern = SearchUtils.convertWildcardToRegex(productName);
-        return productRepository.findByProductNameAndCategory(regexPattern, category, pageable)
+        return searchProducts(SearchUtils.compileWildcard(productName), category, pageable, FULL);
+    }
+
+    @Override
+    public List<ProductSummaryDTO> searchProductSummaries(String productName, String category, Pageable pageable) {
+        return searchProducts(SearchUtils.compileWildcard(productName), category, pageable, SUMMARY);
+    }
+
+    private <T, R> List<R> searchProducts(WildcardPattern pattern, String category, Pageable pageable, View<T, R> view) {
+        // Resolved through the in-memory name index when it can answer, Mongo then only fetches the page by _id
+        List<T> products = productNameIndex.search(pattern, category, pageable.getOffset(), pageable.getPageSize())
+                .map(ids -> findAllInOrder(ids, view))
+                .orElseGet(() -> switch (pattern.kind()) {
+                    // Prefix searches become index-usable range lookups on productName
+                    case PREFIX -> category == null
+                            ? productRepository.findByProductNameRange(
+                                    pattern.literal(), pattern.literal() + SearchUtils.PREFIX_RANGE_END, pageable,
+                                    view.type())
+                            : productRepository.findByProductNameRangeAndCategory(
+                                    pattern.literal(), pattern.literal() + SearchUtils.PREFIX_RANGE_END, category,
+                                    pageable, view.type());
+                    case CONTAINS, GENERAL -> searchProductsByRegex(pattern, category, pageable, view);
+                });
+        return products.stream()
+                .map(view.toDTO())
+                .toList();
+    }
+
+    @Override
+    public List<ProductDTO> searchProductsFuzzy(String term, String category, Pageable pageable) {
+        return searchProductsFuzzy(term, category, pageable, FULL);
+    }
+
+    @Override
+    public List<ProductSummaryDTO> searchProductSummariesFuzzy(String term, String category, Pageable pageable) {
+        return searchProductsFuzzy(term, category, pageable, SUMMARY);
+    }
+
+    private <T, R> List<R> searchProductsFuzzy(String term, String category, Pageable pageable, View<T, R> view) {
+        if (term == null || term.isBlank()) {
+            throw new IllegalArgumentException("productName is required for mode=fuzzy");
+        }
+        // Typo tolerance needs the name index, until it is built this is a plain name search
+        return productNameIndex.searchFuzzy(term.trim(), category, pageable.getOffset(), pageable.getPageSize())
+                .map(ids -> findAllInOrder(ids, view).stream().map(view.toDTO()).toList())
+                .orElseGet(() -> searchProducts(SearchUtils.compileWildcard(term), category, pageable, view));
+    }
+
+    @Override
+    public List<ProductDTO> searchProducts(ProductFilter filter, ProductSort sort, Pageable pageable) {
+        return searchProducts(filter, sort, pageable, FULL);
+    }
+
+    @Override
+    public List<ProductSummaryDTO> searchProductSummaries(ProductFilter filter, ProductSort sort, Pageable pageable) {
+        return searchProducts(filter, sort, pageable, SUMMARY);
+    }
+
+    private <T, R> List<R> searchProducts(ProductFilter filter, ProductSort sort, Pageable pageable, View<T, R> view) {
+        if (!filter.hasPriceRange() && sort == null) {
+            return searchProducts(filter.pattern(), filter.category(), pageable, view);
+        }
+        // Runs on the equality, sort, range indexes instead of the name index
+        return productRepository.search(filter, sort == null ? ProductSort.NAME : sort, pageable.getOffset(),
+                        pageable.getPageSize(), view.type())
                 .stream()
-                .map(DTOUtils::getDTO)
+                .map(view.toDTO())
+                .toList();
+    }
+
+    private <T> List<T> searchProductsByRegex(WildcardPattern pattern, String category, Pageable pageable, View<T, ?> view) {
+        Slice<T> page = category == null
+                ? productRepository.findByProductName(pattern.regex(), pageable, view.type())
+                : productRepository.findByProductNameAndCategory(pattern.regex(), category, pageable, view.type());
+        return page.getContent();
+    }
+
+    /**
+     * Fetches products with a single {@code _id $in} query and returns them in the order of the given ids.
+     */
+    private <T> List<T> findAllInOrder(List<ObjectId> ids, View<T, ?> view) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<ObjectId, Integer> positions = new HashMap<>(ids.size() * 2);
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        return productRepository.findByProductIdIn(ids, view.type())
+                .stream()
+                .filter(product -> positions.containsKey(view.id().apply(product)))
+                .sorted(Comparator.comparing(product -> positions.get(view.id().apply(product))))
                 .toList();
     }
 
     @Override
     public List<ProductDTO> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable)
+        return getAllProducts(pageable, FULL);
+    }
+
+    @Override
+    public List<ProductSummaryDTO> getAllProductSummaries(Pageable pageable) {
+        return getAllProducts(pageable, SUMMARY);
+    }
+
+    private <T, R> List<R> getAllProducts(Pageable pageable, View<T, R> view) {
+        return productRepository.findAllBy(pageable, view.type())
                 .stream()
-                .map(DTOUtils::getDTO)
+                .map(view.toDTO())
                 .toList();
     }
+
+    @Override
+    public CursorPageDTO<ProductDTO> getAllProducts(String cursor, int size) {
+        return getAllProducts(cursor, size, FULL);
+    }
+
+    @Override
+    public CursorPageDTO<ProductSummaryDTO> getAllProductSummaries(String cursor, int size) {
+        return getAllProducts(cursor, size, SUMMARY);
+    }
+
+    private <T, R> CursorPageDTO<R> getAllProducts(String cursor, int size, View<T, R> view) {
+        ProductCursor after = CursorUtils.decode(cursor);
+        List<T> products = productRepository.findAllAfter(after == null ? null : after.lastId(), size + 1, view.type());
+        return toCursorPage(products, size, null, view);
+    }
+
+    @Override
+    public CursorPageDTO<ProductDTO> searchProducts(ProductFilter filter, ProductSort sort, String cursor, int size) {
+        return searchProducts(filter, sort, cursor, size, FULL);
+    }
+
+    @Override
+    public CursorPageDTO<ProductSummaryDTO> searchProductSummaries(ProductFilter filter, ProductSort sort, String cursor,
+                                                                   int size) {
+        return searchProducts(filter, sort, cursor, size, SUMMARY);
+    }
+
+    private <T, R> CursorPageDTO<R> searchProducts(ProductFilter filter, ProductSort sort, String cursor, int size,
+                                                   View<T, R> view) {
+        ProductSort order = sort == null ? ProductSort.NAME : sort;
+        List<T> products = productRepository.searchAfter(filter, order, CursorUtils.decode(cursor), size + 1, view.type());
+        return toCursorPage(products, size, order, view);
+    }
+
+    @Override
+    public CursorPageDTO<TextSearchHitDTO<ProductDTO>> searchProductsByText(String text, ProductFilter filter,
+                                                                             String cursor, int size) {
+        return searchProductsByText(text, filter, cursor, size, FULL);
+    }
+
+    @Override
+    public CursorPageDTO<TextSearchHitDTO<ProductSummaryDTO>> searchProductSummariesByText(String text,
+                                                                                           ProductFilter filter,
+                                                                                           String cursor, int size) {
+        return searchProductsByText(text, filter, cursor, size, SUMMARY);
+    }
+
+    private <T, R> CursorPageDTO<TextSearchHitDTO<R>> searchProductsByText(String text, ProductFilter filter,
+                                                                            String cursor, int size, View<T, R> view) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("productName is required for mode=text");
+        }
+        List<TextSearchHit<T>> hits = productRepository.textSearchAfter(
+                text, filter, CursorUtils.decodeScore(cursor), size + 1, view.type());
+
+        boolean hasNext = hits.size() > size;
+        List<TextSearchHit<T>> page = hasNext ? hits.subList(0, size) : hits;
+        String nextCursor = null;
+        if (hasNext) {
+            TextSearchHit<T> last = page.getLast();
+            nextCursor = CursorUtils.encodeScore(view.id().apply(last.product()), last.score());
+        }
+        return new CursorPageDTO<>(
+                page.stream().map(hit -> new TextSearchHitDTO<>(view.toDTO().apply(hit.product()), hit.score())).toList(),
+                nextCursor
+        );
+    }
+
+    @Override
+    public Map<String, Long> getCategoryFacets(String productName) {
+        // One $group aggregation per pattern, kept for a short while and invalidated by product writes
+        return categoryFacetCache.get(SearchUtils.compileWildcard(productName), productRepository::countByCategory);
+    }
+
+    /**
+     * Builds a cursor page from a query that asked for one row more than the page size,
+     * the extra row only tells whether a next page exists.
+     */
+    private <T, R> CursorPageDTO<R> toCursorPage(List<T> products, int size, ProductSort sort, View<T, R> view) {
+        boolean hasNext = products.size() > size;
+        List<T> page = hasNext ? products.subList(0, size) : products;
+        String nextCursor = null;
+        if (hasNext) {
+            T last = page.getLast();
+            // Listings page by _id alone (no sort), searches by their sort keys
+            nextCursor = sort == ProductSort.PRICE
+                    ? CursorUtils.encode(view.id().apply(last), view.name().apply(last), view.price().apply(last))
+                    : CursorUtils.encode(view.id().apply(last), sort == null ? null : view.name().apply(last));
+        }
+        return new CursorPageDTO<>(
+                page.stream().map(view.toDTO()).toList(),
+                nextCursor
+        );
+    }
+
+    /**
+     * What a listing query reads: the full {@link Product} or the {@link ProductSummary} projection,
+     * with the accessors paging needs and the mapping to the response DTO.
+     */
+    private record View<T, R>(Class<T> type, Function<T, ObjectId> id, Function<T, String> name,
+                              Function<T, Double> price, Function<T, R> toDTO) {
+    }
 }
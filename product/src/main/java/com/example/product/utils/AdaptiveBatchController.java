@@ -0,0 +1,192 @@
+package com.example.product.utils;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Tunes the size and the number of in-flight bulk insert batches from the observed
+ * {@code bulkCreateProducts} latency, shared by every import running in the service.
+ * <p>
+ * Concurrency follows AIMD: each batch that finishes within the target latency adds
+ * {@code 1 / limit}, so the limit grows by one per round of batches; a slower batch shrinks it
+ * by 10% and a failed batch halves it, at most once per target latency: the batches in flight
+ * when the database slows down all report it, and count as one signal. The batch size aims at
+ * the target latency from a moving average of the per-product insert time, changing by at most
+ * a factor of two per batch, and is halved on failure. Both stay within the configured bounds.
+ * <p>
+ * Current values are published as the {@code product.import.batch.size},
+ * {@code product.import.concurrency.limit} and {@code product.import.batches.in-flight} gauges,
+ * and batch latencies as the {@code product.import.batch.latency} timer.
+ */
+@Slf4j
+@Component
+public class AdaptiveBatchController {
+
+    private static final double LATENCY_SMOOTHING = 0.2; // Weight of the newest sample in the moving average
+    private static final double SLOW_DECREASE = 0.9;
+    private static final double FAILURE_DECREASE = 0.5;
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final long targetLatencyNanos;
+    private final Timer batchLatency;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    // Written under the lock, read without it by the gauges and the batching readers
+    private volatile int batchSize;
+    private volatile double concurrencyLimit;
+    private volatile int inFlight;
+    private double nanosPerProduct;
+    private long lastDecreaseNanos;
+
+    public AdaptiveBatchController(
+            MeterRegistry meterRegistry,
+            @Value("${product.import.batch-size.min:100}") int minBatchSize,
+            @Value("${product.import.batch-size.max:5000}") int maxBatchSize,
+            @Value("${product.import.batch-size.initial:1000}") int initialBatchSize,
+            @Value("${product.import.concurrency.min:1}") int minConcurrency,
+            @Value("${product.import.concurrency.max:32}") int maxConcurrency,
+            @Value("${product.import.concurrency.initial:10}") int initialConcurrency,
+            @Value("${product.import.target-batch-latency-ms:500}") long targetLatencyMillis) {
+        this(meterRegistry, minBatchSize, maxBatchSize, initialBatchSize, minConcurrency, maxConcurrency,
+                initialConcurrency, targetLatencyMillis, System::nanoTime);
+    }
+
+    AdaptiveBatchController(
+            MeterRegistry meterRegistry,
+            int minBatchSize,
+            int maxBatchSize,
+            int initialBatchSize,
+            int minConcurrency,
+            int maxConcurrency,
+            int initialConcurrency,
+            long targetLatencyMillis,
+            LongSupplier nanoClock) {
+        if (minBatchSize < 1 || minBatchSize > maxBatchSize || minConcurrency < 1 || minConcurrency > maxConcurrency
+                || targetLatencyMillis < 1) {
+            throw new IllegalArgumentException("Invalid product.import batch size / concurrency bounds");
+        }
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.minConcurrency = minConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+        this.batchSize = Math.clamp(initialBatchSize, minBatchSize, maxBatchSize);
+        this.concurrencyLimit = Math.clamp(initialConcurrency, minConcurrency, maxConcurrency);
+        this.nanoClock = nanoClock;
+        this.lastDecreaseNanos = nanoClock.getAsLong() - targetLatencyNanos - 1; // The first cut is never held back
+
+        Gauge.builder("product.import.batch.size", this, AdaptiveBatchController::batchSize)
+                .description("Products per bulk insert batch")
+                .register(meterRegistry);
+        Gauge.builder("product.import.concurrency.limit", this, AdaptiveBatchController::concurrencyLimit)
+                .description("Bulk insert batches allowed in flight")
+                .register(meterRegistry);
+        Gauge.builder("product.import.batches.in-flight", this, AdaptiveBatchController::inFlight)
+                .description("Bulk insert batches currently in flight")
+                .register(meterRegistry);
+        this.batchLatency = Timer.builder("product.import.batch.latency")
+                .description("bulkCreateProducts latency per batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Number of products to put in the next batch.
+     */
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public int concurrencyLimit() {
+        return (int) concurrencyLimit;
+    }
+
+    public int inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Blocks until a batch may be sent. Every successful call must be followed by one {@link #release}.
+     */
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) concurrencyLimit) {
+                slotFreed.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the outcome of a batch and frees its slot.
+     *
+     * @param products     number of products in the batch
+     * @param elapsedNanos time spent in {@code bulkCreateProducts}
+     * @param failed       {@code true} when the whole batch failed, for example on a timeout
+     */
+    public void release(int products, long elapsedNanos, boolean failed) {
+        batchLatency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        lock.lock();
+        try {
+            inFlight--;
+            if (failed) {
+                batchSize = Math.max(minBatchSize, batchSize / 2);
+                decreaseConcurrency(FAILURE_DECREASE);
+            } else {
+                adjustBatchSize(products, elapsedNanos);
+                if (elapsedNanos <= targetLatencyNanos) {
+                    concurrencyLimit = Math.min(maxConcurrency, concurrencyLimit + 1 / concurrencyLimit);
+                } else {
+                    decreaseConcurrency(SLOW_DECREASE);
+                }
+            }
+            log.debug("release:: products - {}, elapsed - {} ms, failed - {}, batchSize - {}, concurrencyLimit - {}",
+                    products, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), failed, batchSize, (int) concurrencyLimit);
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called under the lock
+    private void decreaseConcurrency(double factor) {
+        long now = nanoClock.getAsLong();
+        if (now - lastDecreaseNanos <= targetLatencyNanos) {
+            return;
+        }
+        concurrencyLimit = Math.max(minConcurrency, concurrencyLimit * factor);
+        lastDecreaseNanos = now;
+    }
+
+    private void adjustBatchSize(int products, long elapsedNanos) {
+        if (products < 1) {
+            return;
+        }
+        double sample = (double) elapsedNanos / products;
+        nanosPerProduct = nanosPerProduct == 0
+                ? sample
+                : (1 - LATENCY_SMOOTHING) * nanosPerProduct + LATENCY_SMOOTHING * sample;
+        if (nanosPerProduct <= 0) {
+            return;
+        }
+        long ideal = Math.round(targetLatencyNanos / nanosPerProduct);
+        long bounded = Math.clamp(ideal, batchSize / 2L, batchSize * 2L);
+        batchSize = Math.clamp(bounded, minBatchSize, maxBatchSize);
+    }
+}
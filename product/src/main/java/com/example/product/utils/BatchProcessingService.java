@@ -2,22 +2,25 @@ package com.example.product.utils;
 
 import com.example.product.dto.request.ProductDTO;
 import com.example.product.dto.response.BatchProcessingResult;
-import com.example.product.dto.response.GenericResponseListDTO;
+import com.example.product.dto.response.BulkCreateResult;
 import com.example.product.service.ProductService;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.Phaser;
 
 @Slf4j
 @Service
@@ -25,202 +28,252 @@ public class BatchProcessingService {
 
     private final ProductService productService;
     private final ExecutorService virtualThreadExecutor;
-    
-    // Configuration constants
-    private static final int BATCH_SIZE = 1000; // Products per batch
-    private static final int MAX_CONCURRENT_BATCHES = 10; // Limit concurrent batch processing
+    private final AdaptiveBatchController batchController;
+    private final int maxRecordLength;
 
     public BatchProcessingService(
             ProductService productService,
-            @Qualifier("asyncVirtualExecutor") ExecutorService virtualThreadExecutor) {
+            @Qualifier("asyncVirtualExecutor") ExecutorService virtualThreadExecutor,
+            AdaptiveBatchController batchController,
+            @Value("${product.import.max-record-length:1048576}") int maxRecordLength) {
         this.productService = productService;
         this.virtualThreadExecutor = virtualThreadExecutor;
+        this.batchController = batchController;
+        this.maxRecordLength = maxRecordLength;
     }
 
     /**
-     * Processes CSV file with stream processing, batching, and bulk inserts.
-     * Reads file line-by-line, accumulates into batches, and processes batches in parallel.
+     * Parses CSV rows while the bytes arrive and bulk inserts them batch by batch.
+     * <p>
+     * Batch size and the number of batches in flight are set by {@link AdaptiveBatchController}:
+     * the reading thread blocks until a batch slot is free, so a slow Mongo slows the reader down
+     * instead of letting parsed rows pile up on the heap. Results are tallied as batches finish and the failure report is
+     * capped at {@value ImportTally#MAX_FAILURE_REPORT} entries, so memory stays constant for any input size.
      *
-     * @param file The CSV file to process
-     * @return CompletableFuture containing batch processing results
+     * @param inputStream UTF-8 CSV content with a header line, consumed but not closed
+     * @return totals for the whole stream
      */
-    public CompletableFuture<GenericResponseListDTO<BatchProcessingResult>> processFileInBatches(
-            MultipartFile file) {
-        
-        log.info("processFileInBatches:: fileName - {}, size - {} bytes", 
-                file.getOriginalFilename(), file.getSize());
-
-        return CompletableFuture.supplyAsync(() -> {
-            List<CompletableFuture<BatchResult>> batchFutures = new ArrayList<>();
-            List<ProductDTO> currentBatch = new ArrayList<>();
-            Semaphore semaphore = new Semaphore(MAX_CONCURRENT_BATCHES);
-            int batchNumber = 0;
-            int totalProcessed = 0;
-            int totalSuccessful = 0;
-            int totalFailed = 0;
-            List<String> failedProducts = new ArrayList<>();
-
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-                
-                // Skip header line
-                String headerLine = reader.readLine();
-                if (headerLine == null) {
-                    throw new IllegalArgumentException("CSV file is empty");
-                }
-
-                String line;
-                int lineNumber = 1; // Start from 1 since header is line 0
+    public BatchProcessingResult processStream(InputStream inputStream) throws IOException {
+        return processStream(inputStream, new ImportTally(), null);
+    }
 
-                // Stream processing: Read line by line
-                while ((line = reader.readLine()) != null) {
-                    lineNumber++;
-                    line = line.trim();
+    /**
+     * Same as {@link #processStream(InputStream)}, skipping the rows already covered by
+     * {@code checkpoint} and upserting the others by natural key when a checkpoint is given.
+     */
+    BatchProcessingResult processStream(InputStream inputStream, ImportTally tally, ImportCheckpointTracker checkpoint)
+            throws IOException {
+        CsvTokenizer csv = new CsvTokenizer(new InputStreamReader(inputStream, StandardCharsets.UTF_8),
+                CsvTokenizer.DEFAULT_BUFFER_SIZE, maxRecordLength);
+        BatchPipeline pipeline = new BatchPipeline(tally, checkpoint);
+        long committedRows = checkpoint == null ? 0 : checkpoint.committedRows();
+        long row = 0;
 
-                    // Skip empty lines
-                    if (line.isEmpty()) {
-                        continue;
-                    }
+        try {
+            // Skip header line
+            if (!csv.nextRecord()) {
+                throw new IllegalArgumentException("CSV file is empty");
+            }
 
-                    try {
-                        // Parse line to ProductDTO
-                        ProductDTO product = FileParser.parseCsvLine(line);
-                        currentBatch.add(product);
-                        totalProcessed++;
-
-                        // When batch is full, submit for async processing
-                        if (currentBatch.size() >= BATCH_SIZE) {
-                            List<ProductDTO> batchToProcess = new ArrayList<>(currentBatch);
-                            batchNumber++;
-                            
-                            CompletableFuture<BatchResult> batchFuture = processBatchAsync(
-                                    batchToProcess, batchNumber, semaphore);
-                            batchFutures.add(batchFuture);
-                            
-                            currentBatch.clear(); // Clear for next batch
-                        }
-                    } catch (Exception e) {
-                        log.warn("Skipping invalid line {}: {}", lineNumber, e.getMessage());
-                        totalFailed++;
-                        failedProducts.add("Line " + lineNumber + ": " + e.getMessage());
-                    }
+            // Stream processing: Read record by record
+            while (csv.nextRecord()) {
+                // Skip empty lines
+                if (csv.isBlankRecord()) {
+                    continue;
                 }
-
-                // Process remaining items (last partial batch)
-                if (!currentBatch.isEmpty()) {
-                    batchNumber++;
-                    CompletableFuture<BatchResult> lastBatch = processBatchAsync(
-                            currentBatch, batchNumber, semaphore);
-                    batchFutures.add(lastBatch);
+                // Skip rows committed by an earlier run of the same file
+                if (++row <= committedRows) {
+                    continue;
                 }
 
-                // Wait for all batches to complete
-                CompletableFuture.allOf(batchFutures.toArray(new CompletableFuture[0])).join();
-
-                // Aggregate results from all batches
-                for (CompletableFuture<BatchResult> future : batchFutures) {
-                    try {
-                        BatchResult result = future.join();
-                        totalSuccessful += result.getSuccessful();
-                        totalFailed += result.getFailed();
-                        failedProducts.addAll(result.getFailedProducts());
-                    } catch (Exception e) {
-                        log.error("Batch processing failed: {}", e.getMessage(), e);
-                        totalFailed += BATCH_SIZE; // Estimate
-                    }
+                ProductDTO product;
+                try {
+                    // Map record to ProductDTO
+                    product = FileParser.toProduct(csv);
+                } catch (Exception e) {
+                    log.warn("Skipping invalid line {}: {}", csv.recordLine(), e.getMessage());
+                    pipeline.fail("Line " + csv.recordLine() + ": " + e.getMessage(), row);
+                    continue;
                 }
-
-                log.info("Batch processing completed: {} batches, {} processed, {} successful, {} failed",
-                        batchNumber, totalProcessed, totalSuccessful, totalFailed);
-
-                BatchProcessingResult result = new BatchProcessingResult(
-                        batchNumber,
-                        totalProcessed,
-                        totalSuccessful,
-                        totalFailed,
-                        failedProducts
-                );
-
-                return new GenericResponseListDTO<>(
-                        HttpStatus.CREATED.value(),
-                        HttpStatus.CREATED.name(),
-                        List.of(result)
-                );
-
-            } catch (Exception e) {
-                log.error("Error processing file: {}", e.getMessage(), e);
-                throw new RuntimeException("Failed to process file: " + e.getMessage(), e);
+                pipeline.add(product, row);
             }
-        }, virtualThreadExecutor);
+        } finally {
+            pipeline.flush();
+        }
+
+        return pipeline.result();
     }
 
     /**
-     * Processes a batch of products asynchronously using bulk insert.
-     * Uses semaphore to limit concurrent batch processing.
+     * Streams a JSON array of products (or a sequence of JSON objects, such as JSON Lines) into the
+     * same bounded batch pipeline as {@link #processStream}. Products are deserialized one at a time,
+     * so the document is never held in memory. An element that cannot be mapped to a product is
+     * reported and skipped; malformed JSON ends the import.
+     *
+     * @param inputStream UTF-8 JSON content, closed once consumed
+     * @return totals for the whole stream
      */
-    private CompletableFuture<BatchResult> processBatchAsync(
-            List<ProductDTO> batch,
-            int batchNumber,
-            Semaphore semaphore) {
-        
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                semaphore.acquire(); // Limit concurrent batches
-                log.debug("Processing batch {} with {} products", batchNumber, batch.size());
-                
+    public BatchProcessingResult processJsonStream(InputStream inputStream) throws IOException {
+        return processJsonStream(inputStream, new ImportTally(), null);
+    }
+
+    /**
+     * Same as {@link #processJsonStream(InputStream)}, with the checkpoint handling of
+     * {@link #processStream(InputStream, ImportTally, ImportCheckpointTracker)}.
+     */
+    BatchProcessingResult processJsonStream(InputStream inputStream, ImportTally tally, ImportCheckpointTracker checkpoint)
+            throws IOException {
+        BatchPipeline pipeline = new BatchPipeline(tally, checkpoint);
+        long committedItems = checkpoint == null ? 0 : checkpoint.committedRows();
+
+        try (MappingIterator<ProductDTO> products = FileParser.readJsonProducts(inputStream)) {
+            int item = 0;
+            while (true) {
+                ProductDTO product;
                 try {
-                    // Bulk insert - single database call for entire batch
-                    List<ProductDTO> createdProducts = productService.bulkCreateProducts(batch);
-                    
-                    log.info("Batch {} completed: {} products created successfully", 
-                            batchNumber, createdProducts.size());
-                    
-                    return new BatchResult(createdProducts.size(), 0, new ArrayList<>());
-                    
-                } catch (Exception e) {
-                    log.error("Batch {} failed: {}", batchNumber, e.getMessage(), e);
-                    // Track failed products
-                    List<String> failed = batch.stream()
-                            .map(p -> p.getProductName() + ": " + e.getMessage())
-                            .toList();
-                    return new BatchResult(0, batch.size(), failed);
+                    if (!products.hasNextValue()) {
+                        break;
+                    }
+                    item++;
+                    product = products.nextValue();
+                } catch (JsonParseException e) {
+                    throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage(), e);
+                } catch (DatabindException e) {
+                    if (item > committedItems) {
+                        log.warn("Skipping invalid item {}: {}", item, e.getOriginalMessage());
+                        pipeline.fail("Item " + item + ": " + e.getOriginalMessage(), item);
+                    }
+                    continue;
+                }
+                // Skip items committed by an earlier run of the same file
+                if (item > committedItems) {
+                    pipeline.add(product, item);
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.error("Batch {} interrupted", batchNumber);
-                return new BatchResult(0, batch.size(), 
-                        batch.stream().map(ProductDTO::getProductName).toList());
-            } finally {
-                semaphore.release();
             }
-        }, virtualThreadExecutor);
+        } finally {
+            pipeline.flush();
+        }
+
+        return pipeline.result();
     }
 
     /**
-     * Internal class to hold batch processing results
+     * Collects parsed products into batches and bulk inserts each full batch on the virtual thread
+     * executor once the {@link AdaptiveBatchController} grants an in-flight slot. With a checkpoint,
+     * batches are upserted by natural key and reported to it as they commit.
+     * Used by a single reading thread.
      */
-    private static class BatchResult {
-        private final int successful;
-        private final int failed;
-        private final List<String> failedProducts;
-
-        public BatchResult(int successful, int failed, List<String> failedProducts) {
-            this.successful = successful;
-            this.failed = failed;
-            this.failedProducts = failedProducts;
+    private final class BatchPipeline {
+        private final ImportTally tally;
+        private final ImportCheckpointTracker checkpoint;
+        private final Phaser pending = new Phaser(1); // The reader plus one party per batch in flight
+        private int batchSize = batchController.batchSize();
+        private List<ProductDTO> currentBatch = new ArrayList<>(batchSize);
+        private int batchNumber;
+        private long lastRow;
+
+        BatchPipeline(ImportTally tally, ImportCheckpointTracker checkpoint) {
+            this.tally = tally;
+            this.checkpoint = checkpoint;
+        }
+
+        void add(ProductDTO product, long row) {
+            currentBatch.add(product);
+            tally.recordProcessed();
+            lastRow = row;
+
+            // When batch is full, hand it off and start a new one at the current batch size
+            if (currentBatch.size() >= batchSize) {
+                dispatch(currentBatch);
+                batchSize = batchController.batchSize();
+                currentBatch = new ArrayList<>(batchSize);
+            }
+        }
+
+        void fail(String description, long row) {
+            tally.recordFailure(description);
+            lastRow = row;
+        }
+
+        /**
+         * Dispatches the last partial batch and waits for all in-flight batches to complete.
+         */
+        void flush() {
+            try {
+                if (!currentBatch.isEmpty()) {
+                    dispatch(currentBatch);
+                    currentBatch = new ArrayList<>(0);
+                }
+            } finally {
+                pending.arriveAndAwaitAdvance();
+            }
         }
 
-        public int getSuccessful() {
-            return successful;
+        BatchProcessingResult result() {
+            if (checkpoint != null) {
+                checkpoint.finished(lastRow);
+            }
+            BatchProcessingResult result = tally.toResult();
+            log.info("Batch processing completed: {} batches, {} processed, {} successful, {} failed",
+                    result.getTotalBatches(), result.getTotalProcessed(), result.getSuccessful(), result.getFailed());
+            return result;
         }
 
-        public int getFailed() {
-            return failed;
+        private void dispatch(List<ProductDTO> batch) {
+            int number = ++batchNumber;
+            try {
+                batchController.acquire(); // Backpressure on the reader
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting to submit batch " + number, e);
+            }
+
+            if (checkpoint != null) {
+                checkpoint.dispatched(number, lastRow);
+            }
+            pending.register();
+            try {
+                submit(batch, number);
+            } catch (RuntimeException e) {
+                // Rejected, for example by an executor shutting down: the slot and the party must still be
+                // given back, or flush() would wait for this batch forever
+                log.error("Batch {} could not be submitted: {}", number, e.getMessage(), e);
+                batch.forEach(p -> tally.recordFailure(p.getProductName() + ": " + e.getMessage()));
+                batchController.release(batch.size(), 0, true);
+                tally.recordBatchCompleted();
+                pending.arriveAndDeregister();
+            }
         }
 
-        public List<String> getFailedProducts() {
-            return failedProducts;
+        private void submit(List<ProductDTO> batch, int number) {
+            CompletableFuture.runAsync(() -> {
+                log.debug("Processing batch {} with {} products", number, batch.size());
+                long start = System.nanoTime();
+                boolean failed = false;
+                try {
+                    // Unordered bulk insert - single database call for entire batch
+                    BulkCreateResult result = checkpoint == null
+                            ? productService.bulkCreateProducts(batch)
+                            : productService.bulkUpsertProducts(batch);
+                    log.info("Batch {} completed: {} products created successfully, {} failed",
+                            number, result.getCreated().size(), result.getFailures().size());
+                    tally.recordSuccessful(result.getCreated().size());
+                    result.getFailures().forEach((index, message) ->
+                            tally.recordFailure(batch.get(index).getProductName() + ": " + message));
+                    // A batch with a failed row stays uncommitted so that a re-run of the file writes the row again
+                    if (checkpoint != null && result.getFailures().isEmpty()) {
+                        checkpoint.committed(number);
+                    }
+                } catch (Exception e) {
+                    failed = true;
+                    log.error("Batch {} failed: {}", number, e.getMessage(), e);
+                    batch.forEach(p -> tally.recordFailure(p.getProductName() + ": " + e.getMessage()));
+                } finally {
+                    batchController.release(batch.size(), System.nanoTime() - start, failed);
+                    tally.recordBatchCompleted();
+                    pending.arriveAndDeregister();
+                }
+            }, virtualThreadExecutor);
         }
     }
 }
-
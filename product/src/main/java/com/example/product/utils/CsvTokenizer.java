@@ -0,0 +1,299 @@
+package com.example.product.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Streaming RFC 4180 tokenizer that reads records straight from a {@link Reader}.
+ * <p>
+ * The characters of the current record are unescaped into one reusable buffer and every field is
+ * kept as a {@code [start, end)} range into it, so no {@code String} is created until a caller asks
+ * for a field. Quoted fields may contain commas, escaped quotes ({@code ""}) and line breaks; both
+ * {@code \n} and {@code \r\n} end a record.
+ * <p>
+ * A record is buffered up to {@code maxRecordLength} characters. The rest of a longer one is read
+ * past without being kept and the record is flagged {@linkplain #isTooLong() too long}, so an
+ * unbalanced quote that runs to the end of the stream cannot grow the buffer without bound.
+ * <p>
+ * Not thread-safe. One instance is meant to be used for a whole stream, and can be {@link #reset}
+ * to read another one without reallocating its buffers.
+ */
+public final class CsvTokenizer {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_RECORD_LENGTH = 1024 * 1024;
+
+    private static final int INITIAL_RECORD_SIZE = 1024;
+    private static final int INITIAL_FIELDS = 16;
+
+    private Reader reader;
+    private final char[] input;
+    private int inputPosition;
+    private int inputLimit;
+
+    private char[] record = new char[INITIAL_RECORD_SIZE];
+    private int recordLength;
+    private final int maxRecordLength;
+    private int[] fieldStarts = new int[INITIAL_FIELDS];
+    private int[] fieldEnds = new int[INITIAL_FIELDS];
+    private int fieldCount;
+
+    private long lineNumber;
+    private long recordLine;
+    private boolean unterminatedQuote;
+    private boolean tooLong;
+
+    public CsvTokenizer(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE, DEFAULT_MAX_RECORD_LENGTH);
+    }
+
+    public CsvTokenizer(Reader reader, int bufferSize) {
+        this(reader, bufferSize, DEFAULT_MAX_RECORD_LENGTH);
+    }
+
+    public CsvTokenizer(Reader reader, int bufferSize, int maxRecordLength) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive");
+        }
+        if (maxRecordLength < 1) {
+            throw new IllegalArgumentException("maxRecordLength must be positive");
+        }
+        this.reader = reader;
+        this.input = new char[bufferSize];
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Starts reading a new stream, keeping the buffers allocated for the previous one.
+     */
+    public void reset(Reader reader) {
+        this.reader = reader;
+        this.inputPosition = 0;
+        this.inputLimit = 0;
+        this.recordLength = 0;
+        this.fieldCount = 0;
+        this.lineNumber = 0;
+        this.recordLine = 0;
+        this.unterminatedQuote = false;
+        this.tooLong = false;
+    }
+
+    /**
+     * Advances to the next record.
+     *
+     * @return {@code false} once the stream is exhausted
+     */
+    public boolean nextRecord() throws IOException {
+        recordLength = 0;
+        fieldCount = 0;
+        unterminatedQuote = false;
+        tooLong = false;
+
+        int c = read();
+        if (c < 0) {
+            return false;
+        }
+        recordLine = ++lineNumber;
+
+        int fieldStart = 0;
+        boolean inQuotes = false;
+        while (true) {
+            if (c < 0) {
+                unterminatedQuote = inQuotes;
+                endField(fieldStart);
+                return true;
+            }
+            if (inQuotes) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        inputPosition++;
+                        append('"');
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    append((char) c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                endField(fieldStart);
+                fieldStart = recordLength;
+            } else if (c == '\n') {
+                endField(fieldStart);
+                return true;
+            } else if (c == '\r') {
+                if (peek() == '\n') {
+                    inputPosition++;
+                }
+                endField(fieldStart);
+                return true;
+            } else {
+                append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Number of fields in the current record.
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * 1-based line of the stream on which the current record starts.
+     */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    /**
+     * {@code true} when the stream ended inside a quoted field of the current record.
+     */
+    public boolean hasUnterminatedQuote() {
+        return unterminatedQuote;
+    }
+
+    /**
+     * {@code true} when the current record is longer than {@link #maxRecordLength()} characters.
+     * Its fields then only hold the characters read up to that length.
+     */
+    public boolean isTooLong() {
+        return tooLong;
+    }
+
+    /**
+     * Most characters of a record that are kept.
+     */
+    public int maxRecordLength() {
+        return maxRecordLength;
+    }
+
+    /**
+     * {@code true} when the current record has no characters other than whitespace.
+     */
+    public boolean isBlankRecord() {
+        return !tooLong && fieldCount == 1 && isBlank(0);
+    }
+
+    /**
+     * {@code true} when the field is absent or contains only whitespace.
+     */
+    public boolean isBlank(int field) {
+        return field >= fieldCount || trimmedStart(field) == fieldEnds[field];
+    }
+
+    /**
+     * The field with leading and trailing whitespace removed, or {@code ""} when it is absent.
+     */
+    public String trimmed(int field) {
+        if (isBlank(field)) {
+            return "";
+        }
+        int start = trimmedStart(field);
+        return new String(record, start, trimmedEnd(field) - start);
+    }
+
+    /**
+     * Splits the field on commas and passes each trimmed, non-empty part to {@code consumer}.
+     * Only the parts themselves are materialised.
+     */
+    public void forEachPart(int field, Consumer<String> consumer) {
+        if (field >= fieldCount) {
+            return;
+        }
+        int end = fieldEnds[field];
+        int partStart = fieldStarts[field];
+        for (int i = partStart; i <= end; i++) {
+            if (i == end || record[i] == ',') {
+                int from = partStart;
+                int to = i;
+                while (from < to && record[from] <= ' ') {
+                    from++;
+                }
+                while (to > from && record[to - 1] <= ' ') {
+                    to--;
+                }
+                if (from < to) {
+                    consumer.accept(new String(record, from, to - from));
+                }
+                partStart = i + 1;
+            }
+        }
+    }
+
+    private int trimmedStart(int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while (start < end && record[start] <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimmedEnd(int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        while (end > start && record[end - 1] <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private void endField(int start) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = recordLength;
+        fieldCount++;
+    }
+
+    private void append(char c) {
+        if (recordLength == maxRecordLength) {
+            tooLong = true;
+            return;
+        }
+        if (recordLength == record.length) {
+            record = Arrays.copyOf(record, (int) Math.min((long) recordLength * 2, maxRecordLength));
+        }
+        record[recordLength++] = c;
+    }
+
+    private int read() throws IOException {
+        if (inputPosition == inputLimit && !fill()) {
+            return -1;
+        }
+        return input[inputPosition++];
+    }
+
+    private int peek() throws IOException {
+        if (inputPosition == inputLimit && !fill()) {
+            return -1;
+        }
+        return input[inputPosition];
+    }
+
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = reader.read(input, 0, input.length);
+        } while (read == 0);
+        if (read < 0) {
+            inputPosition = 0;
+            inputLimit = 0;
+            return false;
+        }
+        inputPosition = 0;
+        inputLimit = read;
+        return true;
+    }
+}
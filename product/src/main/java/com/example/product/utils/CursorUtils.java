@@ -0,0 +1,102 @@
+package com.example.product.utils;
+
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Encodes and decodes the opaque keyset cursors handed out by the cursor paginated endpoints.
+ * A cursor carries the {@code _id} of the last returned product and, for searches, its name,
+ * plus its price for searches sorted by price. Text searches use a {@link ScoreCursor} instead.
+ */
+public final class CursorUtils {
+
+    private static final int OBJECT_ID_HEX_LENGTH = 24;
+    private static final int DOUBLE_HEX_LENGTH = 16;
+    // Never the first character of an ObjectId hex string
+    private static final char PRICE_MARKER = 'p';
+    private static final char SCORE_MARKER = 's';
+
+    // Do not allow to create an Object as all the methods are static
+    private CursorUtils() {
+    }
+
+    /**
+     * @param lastPrice price of the last product, only set for searches sorted by price
+     */
+    public record ProductCursor(ObjectId lastId, String lastName, Double lastPrice) {
+    }
+
+    /**
+     * Position in a relevance ordered text search: score descending, then {@code _id}.
+     */
+    public record ScoreCursor(ObjectId lastId, double lastScore) {
+    }
+
+    public static String encode(ObjectId lastId, String lastName) {
+        return toBase64(lastId.toHexString() + (lastName == null ? "" : lastName));
+    }
+
+    public static String encode(ObjectId lastId, String lastName, double lastPrice) {
+        return toBase64(PRICE_MARKER + lastId.toHexString()
+                + HexFormat.of().toHexDigits(Double.doubleToLongBits(lastPrice))
+                + (lastName == null ? "" : lastName));
+    }
+
+    /**
+     * @return the decoded cursor, or {@code null} for a missing cursor (first page)
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode}
+     */
+    public static ProductCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (raw.charAt(0) == PRICE_MARKER) {
+                int priceStart = 1 + OBJECT_ID_HEX_LENGTH;
+                int nameStart = priceStart + DOUBLE_HEX_LENGTH;
+                ObjectId lastId = new ObjectId(raw.substring(1, priceStart));
+                double lastPrice = Double.longBitsToDouble(HexFormat.fromHexDigitsToLong(raw.substring(priceStart, nameStart)));
+                return new ProductCursor(lastId, raw.substring(nameStart), lastPrice);
+            }
+            ObjectId lastId = new ObjectId(raw.substring(0, OBJECT_ID_HEX_LENGTH));
+            return new ProductCursor(lastId, raw.substring(OBJECT_ID_HEX_LENGTH), null);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static String encodeScore(ObjectId lastId, double lastScore) {
+        String score = HexFormat.of().toHexDigits(Double.doubleToLongBits(lastScore));
+        return toBase64(SCORE_MARKER + lastId.toHexString() + score);
+    }
+
+    /**
+     * @return the decoded cursor, or {@code null} for a missing cursor (first page)
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encodeScore}
+     */
+    public static ScoreCursor decodeScore(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int scoreStart = 1 + OBJECT_ID_HEX_LENGTH;
+            if (raw.charAt(0) != SCORE_MARKER || raw.length() != scoreStart + DOUBLE_HEX_LENGTH) {
+                throw new IllegalArgumentException("Not a text search cursor");
+            }
+            ObjectId lastId = new ObjectId(raw.substring(1, scoreStart));
+            double lastScore = Double.longBitsToDouble(HexFormat.fromHexDigitsToLong(raw.substring(scoreStart)));
+            return new ScoreCursor(lastId, lastScore);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String toBase64(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,32 +1,34 @@
 package com.example.product.utils;
 
 import com.example.product.dto.request.ProductDTO;
+import com.example.product.dto.response.ProductSummaryDTO;
 import com.example.product.entity.Product;
+import com.example.product.entity.ProductSummary;
+import com.example.product.repository.ProductMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
 
 @Slf4j
 public final class DTOUtils {
 
+    private static final ProductMapper MAPPER = ProductMapper.INSTANCE;
+
     // Do not allow to create an Object as all the methods are static
     private DTOUtils() {
 
     }
 
     public static ProductDTO getDTO(Product srcProduct) {
-        ProductDTO targetDTO = new ProductDTO();
-        BeanUtils.copyProperties(srcProduct, targetDTO);
-        // Map productId from ObjectId to String
-        if (srcProduct.getProductId() != null) {
-            targetDTO.setProductId(srcProduct.getProductId().toString());
-        }
+        ProductDTO targetDTO = MAPPER.toDTO(srcProduct);
         log.debug("getDTO():: srcProduct - {}, targetDTO - {}", srcProduct, targetDTO);
         return targetDTO;
     }
 
+    public static ProductSummaryDTO getSummaryDTO(ProductSummary srcSummary) {
+        return MAPPER.toSummaryDTO(srcSummary);
+    }
+
     public static Product getEntity(ProductDTO srcProductDTO) {
-        Product targetEntity = new Product();
-        BeanUtils.copyProperties(srcProductDTO, targetEntity);
+        Product targetEntity = MAPPER.toEntity(srcProductDTO);
         log.debug("getEntity():: srcProductDTO - {}, targetEntity - {}", srcProductDTO, targetEntity);
         return targetEntity;
     }
@@ -1,23 +1,27 @@
 package com.example.product.utils;
 
 import com.example.product.dto.request.ProductDTO;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 public final class FileParser {
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectReader productReader = objectMapper.readerFor(ProductDTO.class);
 
     // Do not allow to create an Object as all the methods are static
     private FileParser() {
@@ -47,8 +51,7 @@ public final class FileParser {
             if (fileName.toLowerCase().endsWith(".csv") || 
                 (contentType != null && contentType.contains("text/csv"))) {
                 return parseCsvFile(file);
-            } else if (fileName.toLowerCase().endsWith(".json") || 
-                      (contentType != null && contentType.contains("application/json"))) {
+            } else if (isJsonFile(fileName, contentType)) {
                 return parseJsonFile(file);
             } else {
                 throw new IllegalArgumentException(
@@ -72,33 +75,25 @@ public final class FileParser {
     private static List<ProductDTO> parseCsvFile(MultipartFile file) {
         List<ProductDTO> products = new ArrayList<>();
         
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            CsvTokenizer csv = new CsvTokenizer(reader);
             
             // Read header line
-            String headerLine = reader.readLine();
-            if (headerLine == null) {
+            if (!csv.nextRecord()) {
                 throw new IllegalArgumentException("CSV file is empty");
             }
             
             // Skip header and parse data rows
-            String line;
-            int lineNumber = 1; // Start from 1 since header is line 0
-            
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                line = line.trim();
-                
+            while (csv.nextRecord()) {
                 // Skip empty lines
-                if (line.isEmpty()) {
+                if (csv.isBlankRecord()) {
                     continue;
                 }
                 
                 try {
-                    ProductDTO product = parseCsvLine(line);
-                    products.add(product);
+                    products.add(toProduct(csv));
                 } catch (Exception e) {
-                    log.warn("Skipping invalid line {} in CSV: {}", lineNumber, e.getMessage());
+                    log.warn("Skipping invalid line {} in CSV: {}", csv.recordLine(), e.getMessage());
                     // Continue processing other lines
                 }
             }
@@ -117,75 +112,63 @@ public final class FileParser {
      * Images can be comma-separated within quotes: "url1,url2"
      */
     public static ProductDTO parseCsvLine(String line) {
-        List<String> fields = parseCsvFields(line);
-        
-        if (fields.size() < 3) {
+        CsvTokenizer csv = new CsvTokenizer(new StringReader(line), Math.max(1, line.length()));
+        try {
+            if (!csv.nextRecord()) {
+                throw new IllegalArgumentException("CSV line must have at least 3 fields: productName, description, price");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return toProduct(csv);
+    }
+
+    /**
+     * Maps the current record of a tokenizer to a ProductDTO.
+     * Format: productName,description,price,category,images
+     * Only these five columns are materialised; any further columns are ignored.
+     */
+    public static ProductDTO toProduct(CsvTokenizer csv) {
+        if (csv.isTooLong()) {
+            throw new IllegalArgumentException("Record longer than " + csv.maxRecordLength()
+                    + " characters, the file likely has an unbalanced quote");
+        }
+        if (csv.hasUnterminatedQuote()) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        if (csv.fieldCount() < 3) {
             throw new IllegalArgumentException("CSV line must have at least 3 fields: productName, description, price");
         }
         
         ProductDTO product = new ProductDTO();
-        product.setProductName(fields.get(0).trim());
-        product.setDescription(fields.get(1).trim());
+        product.setProductName(csv.trimmed(0));
+        product.setDescription(csv.trimmed(1));
         
         // Parse price
-        try {
-            String priceStr = fields.get(2).trim();
-            if (!priceStr.isEmpty()) {
+        if (!csv.isBlank(2)) {
+            String priceStr = csv.trimmed(2);
+            try {
                 product.setPrice(Double.parseDouble(priceStr));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid price format: " + priceStr);
             }
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid price format: " + fields.get(2));
         }
         
         // Optional category
-        if (fields.size() > 3 && !fields.get(3).trim().isEmpty()) {
-            product.setCategory(fields.get(3).trim());
+        if (!csv.isBlank(3)) {
+            product.setCategory(csv.trimmed(3));
         }
         
         // Optional images (comma-separated)
-        if (fields.size() > 4 && !fields.get(4).trim().isEmpty()) {
-            String imagesStr = fields.get(4).trim();
-            // Remove quotes if present
-            if (imagesStr.startsWith("\"") && imagesStr.endsWith("\"")) {
-                imagesStr = imagesStr.substring(1, imagesStr.length() - 1);
-            }
-            List<String> images = Arrays.stream(imagesStr.split(","))
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .collect(Collectors.toList());
+        if (!csv.isBlank(4)) {
+            List<String> images = new ArrayList<>(4);
+            csv.forEachPart(4, images::add);
             product.setImages(images);
         }
         
         return product;
     }
 
-    /**
-     * Parses CSV fields, handling quoted values that may contain commas.
-     */
-    private static List<String> parseCsvFields(String line) {
-        List<String> fields = new ArrayList<>();
-        StringBuilder currentField = new StringBuilder();
-        boolean inQuotes = false;
-        
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
-            
-            if (c == '"') {
-                inQuotes = !inQuotes;
-            } else if (c == ',' && !inQuotes) {
-                fields.add(currentField.toString());
-                currentField = new StringBuilder();
-            } else {
-                currentField.append(c);
-            }
-        }
-        
-        // Add the last field
-        fields.add(currentField.toString());
-        
-        return fields;
-    }
-
     /**
      * Parses a JSON file containing product data.
      * Expected JSON format: Array of ProductDTO objects
@@ -194,12 +177,8 @@ public final class FileParser {
      * @return List of ProductDTO objects
      */
     private static List<ProductDTO> parseJsonFile(MultipartFile file) {
-        try {
-            String content = new String(file.getBytes(), StandardCharsets.UTF_8);
-            List<ProductDTO> products = objectMapper.readValue(
-                    content, 
-                    new TypeReference<List<ProductDTO>>() {}
-            );
+        try (MappingIterator<ProductDTO> iterator = readJsonProducts(file.getInputStream())) {
+            List<ProductDTO> products = iterator.readAll();
             
             log.info("Successfully parsed {} products from JSON file", products.size());
             return products;
@@ -209,6 +188,26 @@ public final class FileParser {
         }
     }
 
+    /**
+     * Opens a streaming reader over a JSON array of products, or over a sequence of root-level
+     * product objects such as JSON Lines. Products are deserialized one at a time as the
+     * iterator advances.
+     *
+     * @param inputStream JSON content, closed together with the iterator
+     * @return Iterator over the products
+     */
+    public static MappingIterator<ProductDTO> readJsonProducts(InputStream inputStream) throws IOException {
+        return productReader.readValues(inputStream);
+    }
+
+    /**
+     * Returns true when the file name or content type denotes JSON.
+     */
+    public static boolean isJsonFile(String fileName, String contentType) {
+        return (fileName != null && fileName.toLowerCase().endsWith(".json"))
+                || (contentType != null && contentType.contains("application/json"));
+    }
+
     /**
      * Validates that the file has a supported extension.
      */
@@ -0,0 +1,102 @@
+package com.example.product.utils;
+
+import com.example.product.entity.ImportCheckpoint;
+import com.example.product.repository.ImportCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps the {@link ImportCheckpoint} of a file import up to date while its batches commit.
+ * <p>
+ * Batches finish out of order, so the checkpoint only moves over a batch once every batch before
+ * it has committed too; it then covers every data row up to the end of that batch. A batch that
+ * fails, as a whole or in any of its rows, never commits, which holds the checkpoint there until
+ * the file is imported again. Rows after the checkpoint may already be written when the import stops, which is why
+ * checkpointed imports upsert by natural key.
+ */
+@Slf4j
+final class ImportCheckpointTracker {
+
+    private final ImportCheckpointRepository repository;
+    private final ImportCheckpoint checkpoint;
+    private final int previousBatches;
+    private final TreeMap<Integer, Long> uncommitted = new TreeMap<>(); // Batch number -> last row of the batch
+    private final Set<Integer> committedAhead = new HashSet<>();
+
+    private ImportCheckpointTracker(ImportCheckpointRepository repository, ImportCheckpoint checkpoint) {
+        this.repository = repository;
+        this.checkpoint = checkpoint;
+        this.previousBatches = checkpoint.getLastCommittedBatch();
+    }
+
+    /**
+     * Loads the checkpoint of the file, or starts a new one when the file was never imported.
+     */
+    static ImportCheckpointTracker open(ImportCheckpointRepository repository, String fileHash, String fileName) {
+        ImportCheckpoint checkpoint = repository.findById(fileHash)
+                .orElseGet(() -> new ImportCheckpoint(fileHash, fileName, 0, 0, false, Instant.now()));
+        if (checkpoint.getCommittedRows() > 0) {
+            log.info("open:: resuming {} after row {}, batch {}", fileName,
+                    checkpoint.getCommittedRows(), checkpoint.getLastCommittedBatch());
+        }
+        return new ImportCheckpointTracker(repository, checkpoint);
+    }
+
+    /**
+     * Number of leading data rows committed by earlier runs, which this run skips.
+     */
+    long committedRows() {
+        return checkpoint.getCommittedRows();
+    }
+
+    /**
+     * Records that batch {@code batch} (numbered from 1 within this run) holds the rows up to {@code lastRow}.
+     */
+    synchronized void dispatched(int batch, long lastRow) {
+        uncommitted.put(batch, lastRow);
+    }
+
+    synchronized void committed(int batch) {
+        committedAhead.add(batch);
+        boolean moved = false;
+        while (!uncommitted.isEmpty() && committedAhead.remove(uncommitted.firstKey())) {
+            var first = uncommitted.pollFirstEntry();
+            checkpoint.setLastCommittedBatch(previousBatches + first.getKey());
+            checkpoint.setCommittedRows(first.getValue());
+            moved = true;
+        }
+        if (moved) {
+            save();
+        }
+    }
+
+    /**
+     * Marks the file as fully imported when every batch committed.
+     *
+     * @param lastRow last data row of the file
+     */
+    synchronized void finished(long lastRow) {
+        if (!uncommitted.isEmpty()) {
+            log.warn("finished:: {} batches of {} did not commit, keeping the checkpoint at row {}",
+                    uncommitted.size(), checkpoint.getFileName(), checkpoint.getCommittedRows());
+            return;
+        }
+        checkpoint.setCommittedRows(Math.max(checkpoint.getCommittedRows(), lastRow));
+        checkpoint.setCompleted(true);
+        save();
+    }
+
+    private void save() {
+        checkpoint.setUpdatedAt(Instant.now());
+        try {
+            repository.save(checkpoint);
+        } catch (RuntimeException e) {
+            // The import goes on, a later save or a re-run with upserts catches up
+            log.warn("save:: checkpoint of {} not saved: {}", checkpoint.getFileName(), e.getMessage());
+        }
+    }
+}
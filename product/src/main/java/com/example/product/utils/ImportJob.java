@@ -0,0 +1,159 @@
+package com.example.product.utils;
+
+import com.example.product.dto.response.BatchProcessingResult;
+import com.example.product.dto.response.ImportJobStatus;
+import com.example.product.dto.response.ImportJobStatus.State;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One upload import tracked by {@link ImportJobRegistry}. Progress is measured as the share of the
+ * file's bytes read, which the rows per second and ETA are derived from.
+ */
+final class ImportJob {
+
+    private final String id;
+    private final String fileName;
+    private final long totalBytes;
+    private final Instant startedAt;
+    private final ImportTally tally = new ImportTally();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile State state = State.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile String fileHash;
+    private volatile long skippedRows;
+
+    ImportJob(String id, String fileName, long totalBytes, Instant startedAt) {
+        this.id = id;
+        this.fileName = fileName;
+        this.totalBytes = totalBytes;
+        this.startedAt = startedAt;
+    }
+
+    String id() {
+        return id;
+    }
+
+    ImportTally tally() {
+        return tally;
+    }
+
+    String fileName() {
+        return fileName;
+    }
+
+    /**
+     * SHA-256 of the file content, set once the upload is stored.
+     */
+    String fileHash() {
+        return fileHash;
+    }
+
+    void fileHash(String fileHash) {
+        this.fileHash = fileHash;
+    }
+
+    void skippedRows(long skippedRows) {
+        this.skippedRows = skippedRows;
+    }
+
+    boolean isFinished() {
+        return state != State.RUNNING;
+    }
+
+    Instant finishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Wraps the content of the job so that every byte read counts towards its progress.
+     */
+    InputStream track(InputStream content) {
+        return new FilterInputStream(content) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytesRead.incrementAndGet();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                int count = super.read(bytes, offset, length);
+                if (count > 0) {
+                    bytesRead.addAndGet(count);
+                }
+                return count;
+            }
+        };
+    }
+
+    void complete() {
+        finish(State.COMPLETED, null);
+    }
+
+    void fail(String message) {
+        finish(State.FAILED, message);
+    }
+
+    private void finish(State finalState, String message) {
+        this.error = message;
+        this.finishedAt = Instant.now();
+        this.state = finalState;
+        finished.countDown();
+    }
+
+    /**
+     * Waits until the job finishes or the timeout elapses.
+     *
+     * @return {@code true} when the job has finished
+     */
+    boolean awaitFinished(Duration timeout) throws InterruptedException {
+        return finished.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    ImportJobStatus status() {
+        State currentState = state;
+        Instant end = currentState == State.RUNNING ? Instant.now() : finishedAt;
+        BatchProcessingResult result = tally.toResult();
+
+        double elapsedSeconds = Math.max(0.001, Duration.between(startedAt, end).toMillis() / 1000.0);
+        double fraction = totalBytes > 0 ? Math.min(1.0, (double) bytesRead.get() / totalBytes) : 0;
+        Long etaSeconds = null;
+        if (currentState != State.RUNNING) {
+            fraction = 1.0;
+            etaSeconds = 0L;
+        } else if (fraction > 0) {
+            etaSeconds = Math.round(elapsedSeconds * (1 - fraction) / fraction);
+        }
+
+        return new ImportJobStatus(
+                id,
+                fileName,
+                currentState,
+                startedAt,
+                currentState == State.RUNNING ? null : finishedAt,
+                result.getTotalBatches(),
+                result.getTotalProcessed(),
+                result.getSuccessful(),
+                result.getFailed(),
+                skippedRows,
+                Math.round(fraction * 1000) / 10.0,
+                Math.round((result.getSuccessful() + result.getFailed()) / elapsedSeconds * 10) / 10.0,
+                etaSeconds,
+                result.getFailedProducts(),
+                error
+        );
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.product.utils;
+
+import com.example.product.dto.response.ImportJobStatus;
+import com.example.product.exception.ImportJobNotFoundException;
+import com.example.product.exception.TooManyImportJobsException;
+import com.example.product.repository.ImportCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs CSV / JSON upload imports in the background and keeps their progress.
+ * <p>
+ * Submitting a job moves the upload to a temporary file, starts the import on the virtual thread
+ * executor and returns at once; callers follow the job by polling {@link #status} or through the
+ * server-sent events of {@link #events}. At most {@code product.import.jobs.max} jobs are kept.
+ * Finished jobs stay visible for {@code product.import.jobs.ttl-minutes} and are then dropped,
+ * oldest first when room is needed for a new job.
+ * <p>
+ * Jobs are checkpointed by the SHA-256 of the file: uploading a file again resumes after the rows
+ * an earlier run committed, and rows are upserted by natural key so that re-imported rows update
+ * their products instead of duplicating them.
+ */
+@Slf4j
+@Service
+public class ImportJobRegistry {
+
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(1);
+    private static final long EVENTS_TIMEOUT_MILLIS = Duration.ofHours(6).toMillis();
+
+    private final BatchProcessingService batchProcessingService;
+    private final ImportCheckpointRepository checkpointRepository;
+    private final ExecutorService virtualThreadExecutor;
+    private final int maxJobs;
+    private final Duration finishedJobTtl;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobRegistry(
+            BatchProcessingService batchProcessingService,
+            ImportCheckpointRepository checkpointRepository,
+            @Qualifier("asyncVirtualExecutor") ExecutorService virtualThreadExecutor,
+            @Value("${product.import.jobs.max:100}") int maxJobs,
+            @Value("${product.import.jobs.ttl-minutes:60}") long finishedJobTtlMinutes) {
+        this.batchProcessingService = batchProcessingService;
+        this.checkpointRepository = checkpointRepository;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.maxJobs = maxJobs;
+        this.finishedJobTtl = Duration.ofMinutes(finishedJobTtlMinutes);
+    }
+
+    /**
+     * Starts importing an uploaded CSV or JSON file.
+     *
+     * @return the initial status, carrying the job id
+     * @throws TooManyImportJobsException when the registry is full of running jobs
+     * @throws IllegalArgumentException   when the same file is already being imported
+     */
+    public ImportJobStatus submit(MultipartFile file) throws IOException {
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename(), file.getSize(), Instant.now());
+        reserve(job);
+
+        boolean json = FileParser.isJsonFile(file.getOriginalFilename(), file.getContentType());
+        Path content = null;
+        try {
+            // The multipart file is deleted once the request completes, so keep the content in a file of our own
+            content = Files.createTempFile("product-import-", json ? ".json" : ".csv");
+            MessageDigest digest = sha256();
+            try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(inputStream, content, StandardCopyOption.REPLACE_EXISTING);
+            }
+            claim(job, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | RuntimeException e) {
+            jobs.remove(job.id());
+            if (content != null) {
+                Files.deleteIfExists(content);
+            }
+            throw e;
+        }
+
+        log.info("submit:: jobId - {}, fileName - {}, size - {} bytes", job.id(), file.getOriginalFilename(), file.getSize());
+        Path stored = content;
+        virtualThreadExecutor.execute(() -> run(job, stored, json));
+        return job.status();
+    }
+
+    public ImportJobStatus status(String jobId) {
+        return find(jobId).status();
+    }
+
+    /**
+     * Streams a {@code progress} event with the job status every second and once more when the job
+     * finishes, then completes the stream.
+     */
+    public SseEmitter events(String jobId) {
+        ImportJob job = find(jobId);
+        SseEmitter emitter = new SseEmitter(EVENTS_TIMEOUT_MILLIS);
+        virtualThreadExecutor.execute(() -> {
+            try {
+                while (!job.isFinished()) {
+                    emitter.send(SseEmitter.event().name("progress").data(job.status()));
+                    job.awaitFinished(PROGRESS_INTERVAL);
+                }
+                emitter.send(SseEmitter.event().name("progress").data(job.status()));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter timed out
+                log.debug("events:: jobId - {}, stream closed - {}", jobId, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    private void run(ImportJob job, Path content, boolean json) {
+        try (InputStream inputStream = job.track(Files.newInputStream(content))) {
+            ImportCheckpointTracker checkpoint =
+                    ImportCheckpointTracker.open(checkpointRepository, job.fileHash(), job.fileName());
+            job.skippedRows(checkpoint.committedRows());
+            if (json) {
+                batchProcessingService.processJsonStream(inputStream, job.tally(), checkpoint);
+            } else {
+                batchProcessingService.processStream(inputStream, job.tally(), checkpoint);
+            }
+            job.complete();
+        } catch (Exception e) {
+            log.error("run:: jobId - {} failed: {}", job.id(), e.getMessage(), e);
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(content);
+            } catch (IOException e) {
+                log.warn("run:: could not delete {}: {}", content, e.getMessage());
+            }
+        }
+        log.info("run:: jobId - {} {}", job.id(), job.status());
+    }
+
+    private ImportJob find(String jobId) {
+        evictExpired();
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ImportJobNotFoundException("Import job not found with id: " + jobId);
+        }
+        return job;
+    }
+
+    private synchronized void reserve(ImportJob job) {
+        evictExpired();
+        if (jobs.size() >= maxJobs) {
+            // Make room by dropping the oldest finished job
+            jobs.values().stream()
+                    .filter(ImportJob::isFinished)
+                    .min(Comparator.comparing(ImportJob::finishedAt))
+                    .ifPresent(oldest -> jobs.remove(oldest.id()));
+        }
+        if (jobs.size() >= maxJobs) {
+            throw new TooManyImportJobsException("Too many import jobs running, retry once one has finished");
+        }
+        jobs.put(job.id(), job);
+    }
+
+    /**
+     * Binds the stored file to the job, unless another running job imports the same file: both
+     * would then write the same checkpoint.
+     */
+    private synchronized void claim(ImportJob job, String fileHash) {
+        for (ImportJob other : jobs.values()) {
+            if (!other.isFinished() && fileHash.equals(other.fileHash())) {
+                throw new IllegalArgumentException("This file is already being imported by job " + other.id());
+            }
+        }
+        job.fileHash(fileHash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void evictExpired() {
+        Instant expiry = Instant.now().minus(finishedJobTtl);
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt().isBefore(expiry));
+    }
+}
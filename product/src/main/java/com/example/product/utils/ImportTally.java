@@ -0,0 +1,49 @@
+package com.example.product.utils;
+
+import com.example.product.dto.response.BatchProcessingResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Running totals of one import, updated concurrently by the batch tasks and read while the import runs.
+ */
+final class ImportTally {
+
+    static final int MAX_FAILURE_REPORT = 100; // Failures listed in the result, the count stays exact
+
+    private int batches;
+    private int processed;
+    private int successful;
+    private int failed;
+    private final List<String> failedProducts = new ArrayList<>();
+
+    synchronized void recordProcessed() {
+        processed++;
+    }
+
+    synchronized void recordBatchCompleted() {
+        batches++;
+    }
+
+    synchronized void recordSuccessful(int count) {
+        successful += count;
+    }
+
+    synchronized void recordFailure(String description) {
+        failed++;
+        if (failedProducts.size() < MAX_FAILURE_REPORT) {
+            failedProducts.add(description);
+        }
+    }
+
+    synchronized BatchProcessingResult toResult() {
+        return new BatchProcessingResult(
+                batches,
+                processed,
+                successful,
+                failed,
+                List.copyOf(failedProducts)
+        );
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.product.utils;
+
+import com.example.product.dto.request.ProductDTO;
+import com.example.product.dto.response.BatchProcessingResult;
+import com.example.product.dto.response.BulkCreateResult;
+import com.example.product.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Imports catalog files that already sit on a volume mounted by the product service.
+ * <p>
+ * The file is memory-mapped and cut into line-aligned chunks by a single quote-aware scan for line
+ * breaks, which runs at memory speed. The chunks are then parsed in parallel, one worker per core,
+ * so import time scales with cores instead of with a single reader thread. Batch size and bulk
+ * insert concurrency come from {@link AdaptiveBatchController}.
+ * <p>
+ * Only files inside {@code product.import.directory} can be imported; the API is disabled while
+ * the property is blank.
+ */
+@Slf4j
+@Service
+public class MappedFileImportService {
+
+    private static final long MIN_CHUNK_SIZE = 4L * 1024 * 1024;
+    private static final long MAX_CHUNK_SIZE = 64L * 1024 * 1024;
+    private static final long SCAN_WINDOW = 1L << 30; // Stays below the 2 GB limit of a single mapping
+    private static final long MAX_MAPPED_CHUNK = Integer.MAX_VALUE; // Largest range a single mapping can cover
+
+    private final ProductService productService;
+    private final ExecutorService virtualThreadExecutor;
+    private final ObjectMapper objectMapper;
+    private final AdaptiveBatchController batchController;
+    private final Path importDirectory;
+    private final int maxRecordLength;
+
+    public MappedFileImportService(
+            ProductService productService,
+            @Qualifier("asyncVirtualExecutor") ExecutorService virtualThreadExecutor,
+            ObjectMapper objectMapper,
+            AdaptiveBatchController batchController,
+            @Value("${product.import.directory:}") String importDirectory,
+            @Value("${product.import.max-record-length:1048576}") int maxRecordLength) {
+        this.productService = productService;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.objectMapper = objectMapper;
+        this.batchController = batchController;
+        this.importDirectory = importDirectory.isBlank() ? null : Path.of(importDirectory).toAbsolutePath().normalize();
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Imports a CSV (header line first) or JSON Lines file.
+     *
+     * @param path file path, absolute or relative to the import directory
+     * @return totals for the whole file
+     */
+    public BatchProcessingResult importFile(String path) throws IOException {
+        Path file = resolve(path);
+        Format format = Format.of(file);
+        long start = System.currentTimeMillis();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int workers = Runtime.getRuntime().availableProcessors();
+            long chunkSize = Math.clamp(channel.size() / (workers * 4L), MIN_CHUNK_SIZE, MAX_CHUNK_SIZE);
+            List<Chunk> chunks = split(channel, format, chunkSize);
+            log.info("importFile:: file - {}, size - {} bytes, chunks - {}, workers - {}",
+                    file, channel.size(), chunks.size(), workers);
+
+            ImportTally tally = new ImportTally();
+            Semaphore running = new Semaphore(workers);
+            CompletableFuture<?>[] futures = chunks.stream()
+                    .map(chunk -> CompletableFuture.runAsync(() -> {
+                        running.acquireUninterruptibly();
+                        try {
+                            importChunk(channel, chunk, format, tally);
+                        } finally {
+                            running.release();
+                        }
+                    }, virtualThreadExecutor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(futures).join();
+
+            BatchProcessingResult result = tally.toResult();
+            log.info("importFile:: completed in {} ms: {} batches, {} processed, {} successful, {} failed",
+                    System.currentTimeMillis() - start, result.getTotalBatches(), result.getTotalProcessed(),
+                    result.getSuccessful(), result.getFailed());
+            return result;
+        }
+    }
+
+    private Path resolve(String path) throws IOException {
+        if (importDirectory == null) {
+            throw new IllegalArgumentException(
+                    "Server-side imports are disabled. Set product.import.directory to enable them.");
+        }
+        if (path == null || path.isBlank()) {
+            throw new IllegalArgumentException("path is required");
+        }
+        Path file = importDirectory.resolve(path).normalize();
+        if (!file.startsWith(importDirectory) || !Files.isRegularFile(file)
+                || !file.toRealPath().startsWith(importDirectory.toRealPath())) {
+            throw new IllegalArgumentException("No importable file at " + path);
+        }
+        return file;
+    }
+
+    /**
+     * Cuts the file into chunks of about {@code chunkSize} bytes that each end right after a line
+     * break. Line breaks inside quoted CSV fields are skipped by tracking quote parity, which also
+     * holds for escaped quotes since they come in pairs. UTF-8 never uses these bytes inside a
+     * multi-byte character, so chunks are also character aligned.
+     *
+     * @throws IllegalArgumentException when no line break can end a chunk before it outgrows a single
+     *                                  mapping, which in practice means an unbalanced quote
+     */
+    static List<Chunk> split(FileChannel channel, Format format, long chunkSize) throws IOException {
+        return split(channel, format, chunkSize, MAX_MAPPED_CHUNK);
+    }
+
+    static List<Chunk> split(FileChannel channel, Format format, long chunkSize, long maxChunkLength)
+            throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+
+        List<Chunk> chunks = new ArrayList<>();
+        boolean inHeader = format == Format.CSV;
+        boolean inQuotes = false;
+        long line = 1;
+        long chunkStart = 0;
+        long chunkStartLine = 1;
+        for (long windowStart = 0; windowStart < size; windowStart += SCAN_WINDOW) {
+            MappedByteBuffer window = channel.map(
+                    FileChannel.MapMode.READ_ONLY, windowStart, Math.min(SCAN_WINDOW, size - windowStart));
+            int limit = window.limit();
+            for (int i = 0; i < limit; i++) {
+                byte b = window.get(i);
+                if (b == '"' && format == Format.CSV) {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n') {
+                    line++;
+                    if (inQuotes) {
+                        continue;
+                    }
+                    long next = windowStart + i + 1;
+                    if (inHeader) {
+                        inHeader = false;
+                        chunkStart = next;
+                        chunkStartLine = line;
+                    } else if (next - chunkStart >= chunkSize) {
+                        chunks.add(new Chunk(chunkStart, next, chunkStartLine));
+                        chunkStart = next;
+                        chunkStartLine = line;
+                    }
+                }
+            }
+            // Checked once per window, which is smaller than the limit, so no chunk over it is ever mapped
+            requireMappable(Math.min(windowStart + SCAN_WINDOW, size) - chunkStart, chunkStartLine, maxChunkLength);
+        }
+        if (!inHeader && chunkStart < size) {
+            chunks.add(new Chunk(chunkStart, size, chunkStartLine));
+        }
+        return chunks;
+    }
+
+    private static void requireMappable(long chunkLength, long startLine, long maxChunkLength) {
+        if (chunkLength > maxChunkLength) {
+            throw new IllegalArgumentException("Line " + startLine + " starts a record longer than "
+                    + maxChunkLength + " bytes, the file likely has an unbalanced quote");
+        }
+    }
+
+    private void importChunk(FileChannel channel, Chunk chunk, Format format, ImportTally tally) {
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(), chunk.length());
+            Reader reader = new InputStreamReader(new ByteBufferInputStream(buffer), StandardCharsets.UTF_8);
+            List<ProductDTO> batch = new ArrayList<>(batchController.batchSize());
+
+            if (format == Format.CSV) {
+                CsvTokenizer csv = new CsvTokenizer(reader, CsvTokenizer.DEFAULT_BUFFER_SIZE, maxRecordLength);
+                while (csv.nextRecord()) {
+                    if (csv.isBlankRecord()) {
+                        continue;
+                    }
+                    try {
+                        batch.add(FileParser.toProduct(csv));
+                        tally.recordProcessed();
+                    } catch (Exception e) {
+                        tally.recordFailure("Line " + (chunk.startLine() + csv.recordLine() - 1) + ": " + e.getMessage());
+                    }
+                    batch = flushIfFull(batch, tally);
+                }
+            } else {
+                BufferedReader lines = new BufferedReader(reader);
+                long lineNumber = chunk.startLine();
+                for (String line = lines.readLine(); line != null; line = lines.readLine(), lineNumber++) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        batch.add(objectMapper.readValue(line, ProductDTO.class));
+                        tally.recordProcessed();
+                    } catch (Exception e) {
+                        tally.recordFailure("Line " + lineNumber + ": " + e.getMessage());
+                    }
+                    batch = flushIfFull(batch, tally);
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                insert(batch, tally);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Only this chunk is lost, the others still finish and are tallied
+            log.error("importChunk:: chunk starting at line {} failed: {}", chunk.startLine(), e.getMessage(), e);
+            tally.recordFailure("Chunk starting at line " + chunk.startLine() + ": " + e.getMessage());
+        }
+    }
+
+    private List<ProductDTO> flushIfFull(List<ProductDTO> batch, ImportTally tally) {
+        if (batch.size() < batchController.batchSize()) {
+            return batch;
+        }
+        insert(batch, tally);
+        return new ArrayList<>(batchController.batchSize());
+    }
+
+    private void insert(List<ProductDTO> batch, ImportTally tally) {
+        try {
+            batchController.acquire(); // Shares the in-flight limit with the upload imports
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to submit a batch", e);
+        }
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            // Unordered bulk insert - single database call for entire batch
+            BulkCreateResult result = productService.bulkCreateProducts(batch);
+            tally.recordSuccessful(result.getCreated().size());
+            result.getFailures().forEach((index, message) ->
+                    tally.recordFailure(batch.get(index).getProductName() + ": " + message));
+        } catch (Exception e) {
+            failed = true;
+            log.error("Batch of {} products failed: {}", batch.size(), e.getMessage(), e);
+            batch.forEach(p -> tally.recordFailure(p.getProductName() + ": " + e.getMessage()));
+        } finally {
+            batchController.release(batch.size(), System.nanoTime() - start, failed);
+            tally.recordBatchCompleted();
+        }
+    }
+
+    enum Format {
+        CSV, JSON_LINES;
+
+        static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+                return JSON_LINES;
+            }
+            throw new IllegalArgumentException(
+                    "Unsupported file format. Supported formats: CSV (.csv) and JSON Lines (.jsonl, .ndjson)");
+        }
+    }
+
+    /**
+     * Byte range {@code [start, end)} of the file starting on line {@code startLine}.
+     */
+    record Chunk(long start, long end, long startLine) {
+        long length() {
+            return end - start;
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package com.example.product.utils;
 
 import com.example.product.dto.request.ProductDTO;
+import com.example.product.dto.response.BulkCreateResult;
+import com.example.product.dto.response.BulkItemResult;
 import com.example.product.dto.response.GenericResponseListDTO;
 import com.example.product.dto.response.GenericResponseSingleDTO;
 import com.example.product.service.ProductService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -20,12 +30,27 @@ public class ParallelExecutionService {
 
     private final ProductService productService;
     private final ExecutorService virtualThreadExecutor;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxItems;
+    private final Semaphore writePermits;
 
     public ParallelExecutionService(
             ProductService productService,
-            @Qualifier("asyncVirtualExecutor") ExecutorService virtualThreadExecutor) {
+            @Qualifier("asyncVirtualExecutor") ExecutorService virtualThreadExecutor,
+            Validator validator,
+            @Value("${product.bulk.chunk-size:500}") int chunkSize,
+            @Value("${product.bulk.max-items:10000}") int maxItems,
+            @Value("${product.bulk.max-concurrent-writes:4}") int maxConcurrentWrites) {
+        if (chunkSize < 1 || maxItems < 1 || maxConcurrentWrites < 1) {
+            throw new IllegalArgumentException("Invalid product.bulk chunk size / limits");
+        }
         this.productService = productService;
         this.virtualThreadExecutor = virtualThreadExecutor;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+        this.writePermits = new Semaphore(maxConcurrentWrites);
     }
 
     /**
@@ -55,43 +80,93 @@ public class ParallelExecutionService {
     }
 
     /**
-     * Creates multiple products in parallel using virtual threads.
-     * Processes all products concurrently and returns the results.
+     * Creates products in chunks of {@code product.bulk.chunk-size}, each written with one unordered
+     * bulk insert on a virtual thread. At most {@code product.bulk.max-concurrent-writes} chunks are
+     * written at a time across all requests, so a large request cannot flood Mongo. Items failing
+     * validation or the insert are reported without affecting the others.
      *
-     * @param productDTOs List of products to create
-     * @return CompletableFuture containing list of created products
+     * @param productDTOs products to create, at most {@code product.bulk.max-items}
+     * @return CompletableFuture containing one result per product, in input order
      */
-    public CompletableFuture<GenericResponseListDTO<ProductDTO>> createProductsInParallel(List<ProductDTO> productDTOs) {
+    public CompletableFuture<GenericResponseListDTO<BulkItemResult>> createProductsInParallel(List<ProductDTO> productDTOs) {
+        if (productDTOs == null || productDTOs.isEmpty()) {
+            throw new IllegalArgumentException("At least one product is required");
+        }
+        if (productDTOs.size() > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " products can be created per request");
+        }
         log.debug("createProductsInParallel:: processing {} products", productDTOs.size());
 
-        // Process all products in parallel using virtual threads
-        List<CompletableFuture<ProductDTO>> futures = productDTOs.stream()
-                .map(productDTO -> CompletableFuture.supplyAsync(() -> {
-                    try {
-                        log.debug("Creating product: {}", productDTO.getProductName());
-                        return productService.createProduct(productDTO);
-                    } catch (Exception e) {
-                        log.error("Error creating product {}: {}", 
-                                productDTO.getProductName(), e.getMessage(), e);
-                        throw new RuntimeException("Failed to create product: " + productDTO.getProductName(), e);
-                    }
-                }, virtualThreadExecutor))
-                .toList();
+        BulkItemResult[] results = new BulkItemResult[productDTOs.size()];
+        List<Integer> valid = new ArrayList<>(productDTOs.size());
+        for (int i = 0; i < productDTOs.size(); i++) {
+            String violations = violations(productDTOs.get(i));
+            if (violations == null) {
+                valid.add(i);
+            } else {
+                results[i] = failed(i, violations);
+            }
+        }
+
+        // Write the valid products chunk by chunk, each chunk waits for a write permit on its own thread
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            List<Integer> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+            futures.add(CompletableFuture.runAsync(() -> writeChunk(productDTOs, chunk, results), virtualThreadExecutor));
+        }
 
         // Combine all futures and return the result
         return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
                 .thenApply(v -> {
-                    List<ProductDTO> createdProducts = futures.stream()
-                            .map(CompletableFuture::join)
-                            .toList();
-                    
-                    log.info("Successfully created {} products in parallel", createdProducts.size());
+                    long created = Arrays.stream(results)
+                            .filter(result -> result.getStatus() == BulkItemResult.Status.CREATED)
+                            .count();
+                    log.info("Created {} of {} products in {} chunks", created, results.length, futures.size());
                     return new GenericResponseListDTO<>(
                             HttpStatus.CREATED.value(),
                             HttpStatus.CREATED.name(),
-                            createdProducts
+                            Arrays.asList(results)
                     );
                 });
     }
-}
 
+    private void writeChunk(List<ProductDTO> productDTOs, List<Integer> indexes, BulkItemResult[] results) {
+        List<ProductDTO> chunk = indexes.stream().map(productDTOs::get).toList();
+        writePermits.acquireUninterruptibly();
+        try {
+            BulkCreateResult result = productService.bulkCreateProducts(chunk);
+            // Created products come back in chunk order, without the failed rows
+            Iterator<ProductDTO> created = result.getCreated().iterator();
+            for (int i = 0; i < indexes.size(); i++) {
+                int index = indexes.get(i);
+                String failure = result.getFailures().get(i);
+                results[index] = failure == null
+                        ? new BulkItemResult(index, BulkItemResult.Status.CREATED, created.next(), null)
+                        : failed(index, failure);
+            }
+        } catch (Exception e) {
+            log.error("Error creating {} products: {}", chunk.size(), e.getMessage(), e);
+            indexes.forEach(index -> results[index] = failed(index, e.getMessage()));
+        } finally {
+            writePermits.release();
+        }
+    }
+
+    private String violations(ProductDTO productDTO) {
+        if (productDTO == null) {
+            return "Product cannot be null";
+        }
+        Set<ConstraintViolation<ProductDTO>> violations = validator.validate(productDTO);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static BulkItemResult failed(int index, String error) {
+        return new BulkItemResult(index, BulkItemResult.Status.FAILED, null, error);
+    }
+}
@@ -2,13 +2,59 @@ package com.example.product.utils;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Slf4j
 public final class SearchUtils {
 
+    private static final int MAX_CACHED_PATTERNS = 1024;
+
+    /**
+     * Upper bound for prefix range queries. Under an ICU collation U+FFFF sorts after every
+     * other character, so {@code [prefix, prefix + PREFIX_RANGE_END)} covers all names with that prefix.
+     */
+    public static final String PREFIX_RANGE_END = "\uFFFF";
+
+    // Access ordered LinkedHashMap acting as a bounded LRU cache of compiled patterns
+    private static final Map<String, WildcardPattern> PATTERN_CACHE =
+            new LinkedHashMap<>(MAX_CACHED_PATTERNS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, WildcardPattern> eldest) {
+                    return size() > MAX_CACHED_PATTERNS;
+                }
+            };
+
     // Do not allow to create an Object as all the methods are static
     private SearchUtils() {
     }
 
+    /**
+     * Returns the classified and compiled form of a wildcard search pattern.
+     * Results are kept in a bounded LRU cache keyed by the raw pattern, so repeated
+     * type-ahead searches do not rebuild or recompile the regex.
+     *
+     * @param searchPattern The search pattern with wildcards
+     * @return The compiled pattern
+     */
+    public static WildcardPattern compileWildcard(String searchPattern) {
+        String key = searchPattern == null ? "" : searchPattern;
+        synchronized (PATTERN_CACHE) {
+            WildcardPattern cached = PATTERN_CACHE.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        WildcardPattern compiled = WildcardPattern.parse(key);
+        log.debug("compileWildcard:: searchPattern - {}, kind - {}, regex - {}",
+                key, compiled.kind(), compiled.regex());
+        synchronized (PATTERN_CACHE) {
+            PATTERN_CACHE.put(key, compiled);
+        }
+        return compiled;
+    }
+
     /**
      * Converts wildcard search pattern to MongoDB regex pattern.
      * Supports:
@@ -46,5 +92,25 @@ public final class SearchUtils {
         log.debug("convertWildcardToRegex:: searchPattern - {}, regex - {}", searchPattern, regex.toString());
         return regex.toString();
     }
-}
 
+    /**
+     * Escapes every regex special character, including the wildcard characters * and ?.
+     *
+     * @param literal The text to match verbatim
+     * @return Regex pattern string matching the literal
+     */
+    public static String escapeRegex(String literal) {
+        StringBuilder regex = new StringBuilder(literal.length() + 8);
+        for (char c : literal.toCharArray()) {
+            switch (c) {
+                case '.', '^', '$', '+', '*', '?', '(', ')', '[', ']', '{', '}', '|', '\\':
+                    regex.append("\\").append(c);
+                    break;
+                default:
+                    regex.append(c);
+                    break;
+            }
+        }
+        return regex.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.product.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A parsed and compiled product name search pattern.
+ * <p>
+ * Matching semantics:
+ * <ul>
+ *     <li>{@link Kind#CONTAINS} - no wildcards ({@code laptop}) or only leading stars ({@code *laptop},
+ *     {@code *laptop*}), matches names containing the literal</li>
+ *     <li>{@link Kind#PREFIX} - a literal followed by stars ({@code lap*}), matches names starting with it</li>
+ *     <li>{@link Kind#GENERAL} - any other wildcard pattern ({@code lap?op}), matches names containing a match
+ *     of the pattern, like the unanchored regex from {@link SearchUtils#convertWildcardToRegex}</li>
+ * </ul>
+ * All kinds are case-insensitive. Instances are immutable and shared through {@link SearchUtils#compileWildcard}.
+ *
+ * @param raw      the pattern as received
+ * @param kind     the shape of the pattern
+ * @param literal  the literal to compare against for {@code CONTAINS} and {@code PREFIX}, otherwise {@code null}
+ * @param regex    regex equivalent of the pattern, usable as a Mongo {@code $regex} with the {@code i} option
+ * @param compiled compiled form of {@code regex}
+ */
+public record WildcardPattern(String raw, Kind kind, String literal, String regex, Pattern compiled) {
+
+    public enum Kind { PREFIX, CONTAINS, GENERAL }
+
+    /**
+     * Returns {@code true} when the product name matches this pattern.
+     */
+    public boolean matches(CharSequence productName) {
+        return productName != null && compiled.matcher(productName).find();
+    }
+
+    /**
+     * Returns {@code true} for an empty pattern, which matches every product name.
+     */
+    public boolean matchesAll() {
+        return kind == Kind.CONTAINS && literal.isEmpty();
+    }
+
+    /**
+     * Runs of characters that every matching name contains, used to look up candidates in an n-gram index.
+     */
+    public List<String> literalSegments() {
+        if (literal != null) {
+            return List.of(literal);
+        }
+        return Arrays.stream(raw.split("[*?]"))
+                .filter(segment -> !segment.isEmpty())
+                .toList();
+    }
+
+    static WildcardPattern parse(String searchPattern) {
+        String pattern = searchPattern == null ? "" : searchPattern;
+
+        int start = 0;
+        int end = pattern.length();
+        while (start < end && pattern.charAt(start) == '*') {
+            start++;
+        }
+        while (end > start && pattern.charAt(end - 1) == '*') {
+            end--;
+        }
+        String core = pattern.substring(start, end);
+        boolean hasInnerWildcards = core.indexOf('*') >= 0 || core.indexOf('?') >= 0;
+
+        if (!hasInnerWildcards) {
+            boolean leadingStar = start > 0;
+            boolean trailingStar = end < pattern.length();
+            if (trailingStar && !leadingStar && !core.isEmpty()) {
+                return of(pattern, Kind.PREFIX, core, "^" + SearchUtils.escapeRegex(core));
+            }
+            return of(pattern, Kind.CONTAINS, core, SearchUtils.escapeRegex(core));
+        }
+        return of(pattern, Kind.GENERAL, null, SearchUtils.convertWildcardToRegex(pattern));
+    }
+
+    private static WildcardPattern of(String raw, Kind kind, String literal, String regex) {
+        return new WildcardPattern(raw, kind, literal, regex,
+                Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.product.benchmark;
+
+import com.example.product.dto.request.ProductDTO;
+import com.example.product.utils.CsvTokenizer;
+import com.example.product.utils.FileParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares {@link CsvTokenizer} with the line based parser it replaced.
+ * <p>
+ * Run from the IDE through {@link #main}, with {@code -prof gc} added to the options to see the
+ * allocation rate per operation. Not picked up by surefire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParserBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    private String csv;
+
+    @Setup
+    public void setUp() {
+        StringBuilder content = new StringBuilder("productName,description,price,category,images\n");
+        for (int i = 0; i < rows; i++) {
+            content.append("Product ").append(i)
+                    .append(",\"High-performance laptop, model ").append(i).append("\",")
+                    .append(i % 1000).append(".99,Electronics,")
+                    .append("\"https://cdn.example.com/").append(i).append("/1.jpg,https://cdn.example.com/")
+                    .append(i).append("/2.jpg\"\n");
+        }
+        csv = content.toString();
+    }
+
+    @Benchmark
+    public void legacyLineParser(Blackhole blackhole) throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader(csv));
+        reader.readLine();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (!line.isEmpty()) {
+                blackhole.consume(legacyParseCsvLine(line));
+            }
+        }
+    }
+
+    @Benchmark
+    public void csvTokenizer(Blackhole blackhole) throws IOException {
+        CsvTokenizer tokenizer = new CsvTokenizer(new StringReader(csv));
+        tokenizer.nextRecord();
+        while (tokenizer.nextRecord()) {
+            if (!tokenizer.isBlankRecord()) {
+                blackhole.consume(FileParser.toProduct(tokenizer));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CsvParserBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    // Verbatim copy of the previous FileParser.parseCsvLine / parseCsvFields, kept as the baseline
+
+    private static ProductDTO legacyParseCsvLine(String line) {
+        List<String> fields = legacyParseCsvFields(line);
+
+        ProductDTO product = new ProductDTO();
+        product.setProductName(fields.get(0).trim());
+        product.setDescription(fields.get(1).trim());
+
+        String priceStr = fields.get(2).trim();
+        if (!priceStr.isEmpty()) {
+            product.setPrice(Double.parseDouble(priceStr));
+        }
+
+        if (fields.size() > 3 && !fields.get(3).trim().isEmpty()) {
+            product.setCategory(fields.get(3).trim());
+        }
+
+        if (fields.size() > 4 && !fields.get(4).trim().isEmpty()) {
+            String imagesStr = fields.get(4).trim();
+            if (imagesStr.startsWith("\"") && imagesStr.endsWith("\"")) {
+                imagesStr = imagesStr.substring(1, imagesStr.length() - 1);
+            }
+            List<String> images = Arrays.stream(imagesStr.split(","))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .collect(Collectors.toList());
+            product.setImages(images);
+        }
+
+        return product;
+    }
+
+    private static List<String> legacyParseCsvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder currentField = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (c == ',' && !inQuotes) {
+                fields.add(currentField.toString());
+                currentField = new StringBuilder();
+            } else {
+                currentField.append(c);
+            }
+        }
+
+        fields.add(currentField.toString());
+
+        return fields;
+    }
+}
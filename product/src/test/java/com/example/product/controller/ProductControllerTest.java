@@ -3,11 +3,20 @@ package com.example.product.controller;
 import com.example.product.controllers.ProductController;
 import com.example.product.dto.request.ProductDTO;
 import com.example.product.dto.response.BatchProcessingResult;
+import com.example.product.dto.response.BulkItemResult;
+import com.example.product.dto.response.CursorPageDTO;
 import com.example.product.dto.response.GenericResponseListDTO;
 import com.example.product.dto.response.GenericResponseSingleDTO;
+import com.example.product.dto.response.ImportJobStatus;
+import com.example.product.dto.response.ProductBatchDTO;
+import com.example.product.dto.response.ProductSummaryDTO;
+import com.example.product.dto.response.TextSearchHitDTO;
 import com.example.product.exception.ProductNotFoundException;
+import com.example.product.search.ProductFilter;
+import com.example.product.search.ProductSort;
 import com.example.product.service.ProductService;
 import com.example.product.utils.BatchProcessingService;
+import com.example.product.utils.ImportJobRegistry;
 import com.example.product.utils.ParallelExecutionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.bson.types.ObjectId;
@@ -23,15 +32,20 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -44,6 +58,7 @@ class ProductControllerTest {
     private ProductService productService;
     private ParallelExecutionService parallelExecutionService;
     private BatchProcessingService batchProcessingService;
+    private ImportJobRegistry importJobRegistry;
     private ProductController productController;
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
@@ -58,11 +73,13 @@ class ProductControllerTest {
         productService = mock(ProductService.class);
         parallelExecutionService = mock(ParallelExecutionService.class);
         batchProcessingService = mock(BatchProcessingService.class);
+        importJobRegistry = mock(ImportJobRegistry.class);
         
         productController = new ProductController(
                 productService,
                 parallelExecutionService,
-                batchProcessingService
+                batchProcessingService,
+                importJobRegistry
         );
         mockMvc = MockMvcBuilders.standaloneSetup(productController).build();
         objectMapper = new ObjectMapper();
@@ -228,6 +245,263 @@ class ProductControllerTest {
         verify(productService, times(1)).getAllProducts(pageable);
     }
 
+    @Test
+    @DisplayName("Should create products from a streamed CSV body")
+    void testCreateProductsFromStreamSuccess() throws Exception {
+        // Given
+        BatchProcessingResult result = new BatchProcessingResult(1, 1, 1, 0, Collections.emptyList());
+        when(batchProcessingService.processStream(any())).thenReturn(result);
+
+        // When & Then
+        mockMvc.perform(post("/api/product/create/stream")
+                .contentType("text/csv")
+                .content("productName,description,price\nLaptop,High-performance laptop,999.99\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statusCode").value(201))
+                .andExpect(jsonPath("$.response[0].successful").value(1));
+
+        verify(batchProcessingService, times(1)).processStream(any());
+    }
+
+    @Test
+    @DisplayName("Should create products from a streamed JSON body")
+    void testCreateProductsFromJsonStreamSuccess() throws Exception {
+        // Given
+        BatchProcessingResult result = new BatchProcessingResult(1, 1, 1, 0, Collections.emptyList());
+        when(batchProcessingService.processJsonStream(any())).thenReturn(result);
+
+        // When & Then
+        mockMvc.perform(post("/api/product/create/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(productDTO))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statusCode").value(201))
+                .andExpect(jsonPath("$.response[0].successful").value(1));
+
+        verify(batchProcessingService, times(1)).processJsonStream(any());
+        verify(batchProcessingService, never()).processStream(any());
+    }
+
+    @Test
+    @DisplayName("Should get a batch of products by ids")
+    void testGetProductsByIdsSuccess() throws Exception {
+        // Given
+        ObjectId missingId = new ObjectId();
+        when(productService.getProducts(List.of(productId, missingId))).thenReturn(new ProductBatchDTO(
+                Map.of(productId.toHexString(), productDTO), List.of(missingId.toHexString())));
+
+        // When & Then
+        mockMvc.perform(get("/api/product/batch")
+                .param("ids", productId.toHexString() + "," + missingId.toHexString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statusCode").value(200))
+                .andExpect(jsonPath("$.response.products." + productId.toHexString() + ".productName").value("Laptop"))
+                .andExpect(jsonPath("$.response.missingIds[0]").value(missingId.toHexString()));
+
+        verify(productService, times(1)).getProducts(List.of(productId, missingId));
+    }
+
+    @Test
+    @DisplayName("Should get all products with a next cursor")
+    void testGetAllProductsByCursorSuccess() throws Exception {
+        // Given
+        when(productService.getAllProducts("abc", 10))
+                .thenReturn(new CursorPageDTO<>(List.of(productDTO), "next"));
+
+        // When & Then
+        mockMvc.perform(get("/api/product/list/cursor")
+                .param("cursor", "abc")
+                .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statusCode").value(200))
+                .andExpect(jsonPath("$.response[0].productName").value("Laptop"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(productService, times(1)).getAllProducts("abc", 10);
+    }
+
+    @Test
+    @DisplayName("Should list product summaries for view=summary")
+    void testGetAllProductsSummaryView() throws Exception {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        ProductSummaryDTO summary = new ProductSummaryDTO(productId.toHexString(), "Laptop", 999.99, "Electronics");
+        when(productService.getAllProductSummaries(pageable)).thenReturn(List.of(summary));
+
+        // When & Then
+        mockMvc.perform(get("/api/product/list")
+                .param("startIndex", "0")
+                .param("size", "10")
+                .param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response[0].productName").value("Laptop"))
+                .andExpect(jsonPath("$.response[0].price").value(999.99))
+                .andExpect(jsonPath("$.response[0].description").doesNotExist())
+                .andExpect(jsonPath("$.response[0].images").doesNotExist());
+
+        verify(productService, never()).getAllProducts(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should page product summaries by cursor for view=summary")
+    void testSearchByProductNameByCursorSummaryView() throws Exception {
+        // Given
+        ProductSummaryDTO summary = new ProductSummaryDTO(productId.toHexString(), "Laptop", 999.99, "Electronics");
+        when(productService.searchProductSummaries(ProductFilter.of("Laptop", "Electronics", null, null), null, null, 10))
+                .thenReturn(new CursorPageDTO<>(List.of(summary), "next"));
+
+        // When & Then
+        mockMvc.perform(get("/api/product/getByName/cursor")
+                .param("productName", "Laptop")
+                .param("category", "Electronics")
+                .param("size", "10")
+                .param("view", "SUMMARY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response[0].productId").value(productId.toHexString()))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(productService, never()).searchProducts(any(ProductFilter.class), any(), anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should omit nextCursor on the last cursor page")
+    void testSearchByProductNameByCursorLastPage() throws Exception {
+        // Given
+        when(productService.searchProducts(ProductFilter.of("Laptop", null, null, null), null, null, 10))
+                .thenReturn(new CursorPageDTO<>(List.of(productDTO), null));
+
+        // When & Then
+        mockMvc.perform(get("/api/product/getByName/cursor")
+                .param("productName", "Laptop")
+                .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response[0].productName").value("Laptop"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(productService, times(1)).searchProducts(ProductFilter.of("Laptop", null, null, null), null, null, 10);
+    }
+
+    @Test
+    @DisplayName("Should browse a category by cursor without a product name")
+    void testBrowseCategoryByCursor() throws Exception {
+        // Given
+        when(productService.searchProducts(ProductFilter.of(null, "Electronics", null, null), null, null, 10))
+                .thenReturn(new CursorPageDTO<>(List.of(productDTO), null));
+
+        // When & Then
+        mockMvc.perform(get("/api/product/getByName/cursor")
+                .param("category", "Electronics")
+                .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response[0].productName").value("Laptop"));
+
+        verify(productService, times(1)).searchProducts(ProductFilter.of(null, "Electronics", null, null), null, null, 10);
+    }
+
+    @Test
+    @DisplayName("Should search by price range sorted by price")
+    void testSearchByPriceRangeSortedByPrice() throws Exception {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        ProductFilter filter = ProductFilter.of("Laptop", "Electronics", 500.0, 1500.0);
+        when(productService.searchProducts(filter, ProductSort.PRICE, pageable)).thenReturn(List.of(productDTO));
+
+        // When & Then
+        mockMvc.perform(get("/api/product/getByName")
+                .param("productName", "Laptop")
+                .param("category", "Electronics")
+                .param("startIndex", "0")
+                .param("size", "10")
+                .param("minPrice", "500")
+                .param("maxPrice", "1500")
+                .param("sort", "price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response[0].productName").value("Laptop"));
+
+        verify(productService, never()).searchProducts(anyString(), anyString(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should browse a price range by cursor sorted by price")
+    void testBrowsePriceRangeByCursor() throws Exception {
+        // Given
+        ProductFilter filter = ProductFilter.of(null, null, null, 100.0);
+        when(productService.searchProducts(filter, ProductSort.PRICE, null, 10))
+                .thenReturn(new CursorPageDTO<>(List.of(productDTO), "next"));
+
+        // When & Then
+        mockMvc.perform(get("/api/product/getByName/cursor")
+                .param("maxPrice", "100")
+                .param("sort", "PRICE")
+                .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(productService, times(1)).searchProducts(filter, ProductSort.PRICE, null, 10);
+    }
+
+    @Test
+    @DisplayName("Should run a text search with mode=text and return scored hits with the next cursor")
+    void testSearchByText() throws Exception {
+        // Given
+        ProductFilter filter = ProductFilter.of(null, "Electronics", null, null);
+        when(productService.searchProductsByText("gaming laptop", filter, "previous", 10))
+                .thenReturn(new CursorPageDTO<>(List.of(new TextSearchHitDTO<>(productDTO, 12.5)), "next"));
+
+        // When & Then
+        mockMvc.perform(get("/api/product/getByName")
+                .param("productName", "gaming laptop")
+                .param("category", "Electronics")
+                .param("mode", "text")
+                .param("cursor", "previous")
+                .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response[0].product.productName").value("Laptop"))
+                .andExpect(jsonPath("$.response[0].score").value(12.5))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(productService, never()).searchProducts(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should run a fuzzy search with mode=fuzzy")
+    void testSearchFuzzy() throws Exception {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productService.searchProductsFuzzy("laptpo", "Electronics", pageable)).thenReturn(List.of(productDTO));
+
+        // When & Then
+        mockMvc.perform(get("/api/product/getByName")
+                .param("productName", "laptpo")
+                .param("category", "Electronics")
+                .param("mode", "fuzzy")
+                .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response[0].productName").value("Laptop"));
+
+        verify(productService, never()).searchProducts(anyString(), anyString(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should return product counts keyed by category")
+    void testGetCategoryFacets() throws Exception {
+        // Given
+        Map<String, Long> facets = new LinkedHashMap<>();
+        facets.put("Electronics", 128L);
+        facets.put("Gaming", 17L);
+        when(productService.getCategoryFacets("lap*")).thenReturn(facets);
+
+        // When & Then
+        mockMvc.perform(get("/api/product/facets")
+                .param("productName", "lap*"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statusCode").value(200))
+                .andExpect(jsonPath("$.response.Electronics").value(128))
+                .andExpect(jsonPath("$.response.Gaming").value(17));
+
+        verify(productService, times(1)).getCategoryFacets("lap*");
+    }
+
     @Test
     @DisplayName("Should create product successfully")
     void testCreateProductSuccess() throws Exception {
@@ -251,6 +525,36 @@ class ProductControllerTest {
         verify(parallelExecutionService, times(1)).createProductAsync(any(ProductDTO.class));
     }
 
+    @Test
+    @DisplayName("Should bulk create products and return per-item results in request order")
+    void testCreateProductsBulk() throws Exception {
+        // Given
+        ProductDTO invalidDTO = new ProductDTO();
+        List<BulkItemResult> results = List.of(
+                new BulkItemResult(0, BulkItemResult.Status.CREATED, productDTO, null),
+                new BulkItemResult(1, BulkItemResult.Status.FAILED, null, "Product name cannot be null"));
+        when(parallelExecutionService.createProductsInParallel(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(new GenericResponseListDTO<>(201, "CREATED", results)));
+
+        // When
+        MvcResult asyncResult = mockMvc.perform(post("/api/product/create/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(productDTO, invalidDTO))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statusCode").value(201))
+                .andExpect(jsonPath("$.response[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.response[0].product.productName").value("Laptop"))
+                .andExpect(jsonPath("$.response[1].status").value("FAILED"))
+                .andExpect(jsonPath("$.response[1].error").value("Product name cannot be null"));
+
+        verify(parallelExecutionService, times(1)).createProductsInParallel(argThat(products -> products.size() == 2));
+    }
+
     @Test
     @DisplayName("Should return 400 when creating product with invalid data")
     void testCreateProductWithInvalidData() throws Exception {
@@ -268,7 +572,7 @@ class ProductControllerTest {
     }
 
     @Test
-    @DisplayName("Should create products from CSV file successfully")
+    @DisplayName("Should start an import job for a CSV file upload")
     void testCreateProductsFromFileSuccess() throws Exception {
         // Given
         String csvContent = "productName,description,price,category,images\n" +
@@ -276,24 +580,42 @@ class ProductControllerTest {
         MockMultipartFile file = new MockMultipartFile(
                 "file", "products.csv", "text/csv", csvContent.getBytes());
 
-        BatchProcessingResult result = new BatchProcessingResult(1, 1, 1, 0, Collections.emptyList());
-        GenericResponseListDTO<BatchProcessingResult> expectedResponse = new GenericResponseListDTO<>(
-                201, "CREATED", Arrays.asList(result));
-        CompletableFuture<GenericResponseListDTO<BatchProcessingResult>> future = 
-                CompletableFuture.completedFuture(expectedResponse);
-
-        when(batchProcessingService.processFileInBatches(any())).thenReturn(future);
+        ImportJobStatus job = new ImportJobStatus();
+        job.setJobId("job-1");
+        job.setFileName("products.csv");
+        job.setState(ImportJobStatus.State.RUNNING);
+        when(importJobRegistry.submit(any())).thenReturn(job);
 
         // When & Then
         mockMvc.perform(multipart("/api/product/create/batch")
                 .file(file))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.statusCode").value(201))
-                .andExpect(jsonPath("$.statusMessage").value("CREATED"))
-                .andExpect(jsonPath("$.response").isArray())
-                .andExpect(jsonPath("$.response[0].totalProcessed").value(1));
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.statusCode").value(202))
+                .andExpect(jsonPath("$.statusMessage").value("ACCEPTED"))
+                .andExpect(jsonPath("$.response.jobId").value("job-1"))
+                .andExpect(jsonPath("$.response.state").value("RUNNING"));
+
+        verify(importJobRegistry, times(1)).submit(any());
+    }
+
+    @Test
+    @DisplayName("Should return the progress of an import job")
+    void testGetImportJob() throws Exception {
+        // Given
+        ImportJobStatus job = new ImportJobStatus();
+        job.setJobId("job-1");
+        job.setState(ImportJobStatus.State.COMPLETED);
+        job.setSuccessful(10);
+        job.setPercentComplete(100.0);
+        when(importJobRegistry.status("job-1")).thenReturn(job);
 
-        verify(batchProcessingService, times(1)).processFileInBatches(any());
+        // When & Then
+        mockMvc.perform(get("/api/product/create/batch/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.statusCode").value(200))
+                .andExpect(jsonPath("$.response.state").value("COMPLETED"))
+                .andExpect(jsonPath("$.response.successful").value(10))
+                .andExpect(jsonPath("$.response.percentComplete").value(100.0));
     }
 
     @Test
@@ -310,7 +632,7 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.statusCode").value(400))
                 .andExpect(jsonPath("$.statusMessage").value("Invalid argument"));
 
-        verify(batchProcessingService, never()).processFileInBatches(any());
+        verify(importJobRegistry, never()).submit(any());
     }
 
     @Test
@@ -327,7 +649,7 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.statusCode").value(400))
                 .andExpect(jsonPath("$.statusMessage").value("Invalid argument"));
 
-        verify(batchProcessingService, never()).processFileInBatches(any());
+        verify(importJobRegistry, never()).submit(any());
     }
 
     @Test
@@ -343,7 +665,7 @@ class ProductControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.statusCode").value(400));
 
-        verify(batchProcessingService, never()).processFileInBatches(any());
+        verify(importJobRegistry, never()).submit(any());
     }
 
     @Test
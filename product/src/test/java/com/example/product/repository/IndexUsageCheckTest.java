@@ -0,0 +1,45 @@
+package com.example.product.repository;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IndexUsageCheck Unit Tests")
+class IndexUsageCheckTest {
+
+    @Test
+    @DisplayName("Should collect the index names of nested plan stages")
+    void testWinningPlanIndexes() {
+        // Given
+        Document explain = Document.parse("""
+                { "queryPlanner": { "winningPlan": { "queryPlan": {
+                    "stage": "LIMIT", "inputStage": { "stage": "FETCH", "inputStage": { "stage": "OR", "inputStages": [
+                        { "stage": "IXSCAN", "indexName": "category_price_idx" },
+                        { "stage": "IXSCAN", "indexName": "price_browse_idx" } ] } } } },
+                  "rejectedPlans": [ { "stage": "IXSCAN", "indexName": "product_name_idx" } ] } }
+                """);
+
+        // When
+        Set<String> indexes = IndexUsageCheck.winningPlanIndexes(explain);
+
+        // Then
+        assertEquals(List.of("category_price_idx", "price_browse_idx"), List.copyOf(indexes));
+    }
+
+    @Test
+    @DisplayName("Should report a collection scan")
+    void testWinningPlanCollectionScan() {
+        // Given
+        Document explain = Document.parse("""
+                { "queryPlanner": { "winningPlan": { "stage": "SORT", "inputStage": { "stage": "COLLSCAN" } } } }
+                """);
+
+        // Then
+        assertEquals(Set.of(IndexUsageCheck.COLLECTION_SCAN), IndexUsageCheck.winningPlanIndexes(explain));
+    }
+}
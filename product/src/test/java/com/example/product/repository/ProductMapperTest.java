@@ -0,0 +1,64 @@
+package com.example.product.repository;
+
+import com.example.product.dto.request.ProductDTO;
+import com.example.product.dto.response.ProductSummaryDTO;
+import com.example.product.entity.Product;
+import com.example.product.entity.ProductSummary;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProductMapper Unit Tests")
+class ProductMapperTest {
+
+    private final ProductMapper mapper = ProductMapper.INSTANCE;
+
+    @Test
+    @DisplayName("Should map every product field and the id as a hex string")
+    void testToDTO() {
+        // Given
+        ObjectId id = new ObjectId();
+        Product product = new Product(id, "Laptop", "High-performance laptop", 1299.99, "Electronics",
+                List.of("https://cdn.example.com/1.jpg"));
+
+        // When
+        ProductDTO productDTO = mapper.toDTO(product);
+
+        // Then
+        assertEquals(new ProductDTO(id.toHexString(), "Laptop", "High-performance laptop", 1299.99, "Electronics",
+                List.of("https://cdn.example.com/1.jpg")), productDTO);
+    }
+
+    @Test
+    @DisplayName("Should map every DTO field except the product id")
+    void testToEntity() {
+        // Given
+        ProductDTO productDTO = new ProductDTO(new ObjectId().toHexString(), "Laptop", "High-performance laptop",
+                1299.99, "Electronics", List.of("https://cdn.example.com/1.jpg"));
+
+        // When
+        Product product = mapper.toEntity(productDTO);
+
+        // Then
+        assertEquals(new Product(null, "Laptop", "High-performance laptop", 1299.99, "Electronics",
+                List.of("https://cdn.example.com/1.jpg")), product);
+    }
+
+    @Test
+    @DisplayName("Should map a summary and leave a missing id null")
+    void testToSummaryDTO() {
+        // Given
+        ProductSummary summary = new ProductSummary(null, "Laptop", 1299.99, "Electronics");
+
+        // When
+        ProductSummaryDTO summaryDTO = mapper.toSummaryDTO(summary);
+
+        // Then
+        assertEquals(new ProductSummaryDTO(null, "Laptop", 1299.99, "Electronics"), summaryDTO);
+        assertNull(mapper.toDTO(null));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.product.search;
+
+import com.example.product.entity.Product;
+import com.example.product.event.ProductsChangedEvent;
+import com.example.product.utils.SearchUtils;
+import com.example.product.utils.WildcardPattern;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CategoryFacetCache Unit Tests")
+class CategoryFacetCacheTest {
+
+    private static final WildcardPattern LAPTOPS = SearchUtils.compileWildcard("lap*");
+    private static final WildcardPattern PHONES = SearchUtils.compileWildcard("*phone");
+
+    private CategoryFacetCache cache;
+    private AtomicInteger aggregations;
+    private Function<WildcardPattern, Map<String, Long>> counter;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CategoryFacetCache(new SimpleMeterRegistry(), 30, 100);
+        aggregations = new AtomicInteger();
+        counter = pattern -> {
+            aggregations.incrementAndGet();
+            Map<String, Long> counts = new LinkedHashMap<>();
+            counts.put("Electronics", 5L);
+            counts.put("Gaming", 2L);
+            return counts;
+        };
+    }
+
+    private static Product product(String name) {
+        return new Product(new ObjectId(), name, "", 9.99, "Electronics", List.of());
+    }
+
+    @Test
+    @DisplayName("Should count a pattern once and keep the largest category first")
+    void testGetCachesCounts() {
+        // When
+        Map<String, Long> first = cache.get(LAPTOPS, counter);
+        Map<String, Long> second = cache.get(LAPTOPS, counter);
+
+        // Then
+        assertEquals(1, aggregations.get());
+        assertEquals(List.of("Electronics", "Gaming"), new ArrayList<>(second.keySet()));
+        assertEquals(first, second);
+    }
+
+    @Test
+    @DisplayName("Should only invalidate the patterns matching a written product name")
+    void testWriteInvalidatesMatchingPatterns() {
+        // Given
+        cache.get(LAPTOPS, counter);
+        cache.get(PHONES, counter);
+
+        // When
+        cache.onProductsChanged(ProductsChangedEvent.saved(List.of(product("Laptop Pro"))));
+        cache.get(LAPTOPS, counter);
+        cache.get(PHONES, counter);
+
+        // Then
+        assertEquals(3, aggregations.get());
+    }
+
+    @Test
+    @DisplayName("Should clear every pattern on a delete")
+    void testDeleteInvalidatesAll() {
+        // Given
+        cache.get(LAPTOPS, counter);
+        cache.get(PHONES, counter);
+
+        // When
+        cache.onProductsChanged(ProductsChangedEvent.deleted(new ObjectId()));
+        cache.get(LAPTOPS, counter);
+        cache.get(PHONES, counter);
+
+        // Then
+        assertEquals(4, aggregations.get());
+    }
+
+    @Test
+    @DisplayName("Should clear every pattern on a large bulk write")
+    void testLargeWriteInvalidatesAll() {
+        // Given
+        cache.get(PHONES, counter);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i <= CategoryFacetCache.MAX_INCREMENTAL_INVALIDATION; i++) {
+            products.add(product("Laptop " + i));
+        }
+
+        // When
+        cache.onProductsChanged(ProductsChangedEvent.saved(products));
+        cache.get(PHONES, counter);
+
+        // Then
+        assertEquals(2, aggregations.get());
+    }
+}
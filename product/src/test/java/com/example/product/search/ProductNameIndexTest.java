@@ -0,0 +1,160 @@
+package com.example.product.search;
+
+import com.example.product.entity.Product;
+import com.example.product.event.ProductsChangedEvent;
+import com.example.product.utils.SearchUtils;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ProductNameIndex Unit Tests")
+class ProductNameIndexTest {
+
+    private ProductNameIndex index;
+    private Product laptop;
+    private Product gamingLaptop;
+    private Product phone;
+
+    @BeforeEach
+    void setUp() {
+        laptop = new Product(new ObjectId(), "Laptop", "", 999.99, "Electronics", List.of());
+        gamingLaptop = new Product(new ObjectId(), "Gaming LAPTOP Pro", "", 1999.99, "Gaming", List.of());
+        phone = new Product(new ObjectId(), "Smartphone", "", 599.99, "Electronics", List.of());
+
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class)))
+                .thenReturn(Stream.of(laptop, gamingLaptop, phone));
+        index = new ProductNameIndex(mongoTemplate, true, null);
+        index.build();
+    }
+
+    private Optional<List<ObjectId>> search(String pattern, String category, long offset, int limit) {
+        return index.search(SearchUtils.compileWildcard(pattern), category, offset, limit);
+    }
+
+    @Test
+    @DisplayName("Should match wildcard patterns case-insensitively in index order")
+    void testSearchMatchesWildcardPattern() {
+        assertEquals(Optional.of(List.of(laptop.getProductId(), gamingLaptop.getProductId())),
+                search("laptop", null, 0, 10));
+        assertEquals(Optional.of(List.of(laptop.getProductId())),
+                search("lap*", null, 0, 10));
+        assertEquals(Optional.of(List.of(phone.getProductId())),
+                search("*phone", null, 0, 10));
+        assertEquals(Optional.of(List.of(laptop.getProductId())),
+                search("lap?op", "Electronics", 0, 10));
+        // General patterns are not anchored, they match anywhere in the name
+        assertEquals(Optional.of(List.of(laptop.getProductId(), gamingLaptop.getProductId())),
+                search("lap?op", null, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Should page through matches with offset and limit")
+    void testSearchPagination() {
+        assertEquals(Optional.of(List.of(gamingLaptop.getProductId())), search("laptop", null, 1, 10));
+        assertEquals(Optional.of(List.of(laptop.getProductId())), search("laptop", null, 0, 1));
+    }
+
+    @Test
+    @DisplayName("Should defer to Mongo when the pattern has no trigram")
+    void testSearchWithoutTrigram() {
+        assertTrue(search("l*p", null, 0, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should follow renames and deletes")
+    void testIndexFollowsChanges() {
+        laptop.setProductName("Notebook");
+        index.onProductsChanged(ProductsChangedEvent.saved(List.of(laptop)));
+        index.onProductsChanged(ProductsChangedEvent.deleted(phone.getProductId()));
+
+        assertEquals(Optional.of(List.of(gamingLaptop.getProductId())), search("laptop", null, 0, 10));
+        assertEquals(Optional.of(List.of(laptop.getProductId())), search("note*", null, 0, 10));
+        assertEquals(Optional.of(List.of()), search("phone", null, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Should match names within the edit budget of a fuzzy term, closest first")
+    void testSearchFuzzy() {
+        // Given
+        Product laptops = new Product(new ObjectId(), "Laptops", "", 1099.99, "Electronics", List.of());
+        Product lapdesk = new Product(new ObjectId(), "Lapdesk", "", 49.99, "Accessories", List.of());
+        index.onProductsChanged(ProductsChangedEvent.saved(List.of(lapdesk, laptops)));
+
+        // When & Then
+        assertEquals(Optional.of(List.of(laptop.getProductId(), gamingLaptop.getProductId(), laptops.getProductId())),
+                index.searchFuzzy("LAPTOP", null, 0, 10));
+        // One substitution away from "laptop", ranked after the exact matches
+        assertEquals(Optional.of(List.of(laptop.getProductId(), gamingLaptop.getProductId(), laptops.getProductId())),
+                index.searchFuzzy("laptob", null, 0, 10));
+        assertEquals(Optional.of(List.of(phone.getProductId())), index.searchFuzzy("smarphone", null, 0, 10));
+        assertEquals(Optional.of(List.of(laptop.getProductId(), laptops.getProductId())),
+                index.searchFuzzy("lpatop", "Electronics", 0, 10));
+        assertEquals(Optional.of(List.of(gamingLaptop.getProductId())), index.searchFuzzy("laptop", null, 1, 1));
+        assertEquals(Optional.of(List.of()), index.searchFuzzy("tablet", null, 0, 10));
+        // Without a trigram there are no candidates to look up, the caller runs a plain search
+        assertTrue(index.searchFuzzy("la", null, 0, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should count edits against the closest substring of the name")
+    void testSubstringEditDistance() {
+        assertEquals(0, ProductNameIndex.substringEditDistance("laptop", "Gaming LAPTOP Pro"));
+        assertEquals(1, ProductNameIndex.substringEditDistance("laptob", "Gaming LAPTOP Pro"));
+        assertEquals(2, ProductNameIndex.substringEditDistance("lpatop", "Laptop"));
+        assertEquals(0, ProductNameIndex.maxEdits(2));
+        assertEquals(1, ProductNameIndex.maxEdits(5));
+        assertEquals(2, ProductNameIndex.maxEdits(6));
+    }
+
+    @Test
+    @DisplayName("Should serve searches from the snapshot and reconcile it with Mongo on restart")
+    void testSnapshotRestore(@TempDir Path directory) {
+        // Given
+        Path snapshot = directory.resolve("product-names.idx");
+        MongoTemplate firstRun = mock(MongoTemplate.class);
+        when(firstRun.stream(any(Query.class), eq(Product.class))).thenReturn(Stream.of(laptop, gamingLaptop, phone));
+        ProductNameIndex first = new ProductNameIndex(firstRun, true, snapshot.toString());
+        first.build();
+        first.writeSnapshot();
+
+        // While down, the phone was deleted and the laptop renamed
+        Product notebook = new Product(laptop.getProductId(), "Notebook", "", 999.99, "Electronics", List.of());
+        MongoTemplate secondRun = mock(MongoTemplate.class);
+        AtomicReference<ProductNameIndex> restarted = new AtomicReference<>();
+        AtomicReference<Optional<List<ObjectId>>> beforeMongo = new AtomicReference<>();
+        when(secondRun.stream(any(Query.class), eq(Product.class))).thenAnswer(invocation -> {
+            beforeMongo.set(restarted.get().search(SearchUtils.compileWildcard("phone"), null, 0, 10));
+            return Stream.of(notebook, gamingLaptop);
+        });
+        ProductNameIndex second = new ProductNameIndex(secondRun, true, snapshot.toString());
+        restarted.set(second);
+
+        // When
+        second.build();
+
+        // Then
+        assertEquals(Optional.of(List.of(phone.getProductId())), beforeMongo.get());
+        assertEquals(Optional.of(List.of(gamingLaptop.getProductId())),
+                second.search(SearchUtils.compileWildcard("laptop"), null, 0, 10));
+        assertEquals(Optional.of(List.of(laptop.getProductId())),
+                second.search(SearchUtils.compileWildcard("note*"), null, 0, 10));
+        assertEquals(Optional.of(List.of()), second.search(SearchUtils.compileWildcard("phone"), null, 0, 10));
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.product.service.impl;
+
+import com.example.product.dto.request.ProductDTO;
+import com.example.product.entity.Product;
+import com.example.product.repository.ProductRepository;
+import com.example.product.search.CategoryFacetCache;
+import com.example.product.search.ProductNameIndex;
+import com.example.product.service.ProductService;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {ProductServiceImpl.class, ProductServiceCacheTest.CacheConfig.class})
+@DisplayName("ProductService Cache Tests")
+class ProductServiceCacheTest {
+
+    @Configuration
+    @EnableCaching
+    static class CacheConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(ProductServiceImpl.PRODUCT_CACHE);
+        }
+    }
+
+    @MockitoBean
+    private ProductRepository productRepository;
+
+    @MockitoBean
+    private ProductNameIndex productNameIndex;
+
+    @MockitoBean
+    private CategoryFacetCache categoryFacetCache;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private ObjectId laptopId;
+    private ObjectId phoneId;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(ProductServiceImpl.PRODUCT_CACHE).clear();
+        laptopId = new ObjectId();
+        phoneId = new ObjectId();
+        when(productRepository.findById(laptopId)).thenReturn(Optional.of(product(laptopId, "Laptop")));
+        when(productRepository.findById(phoneId)).thenReturn(Optional.of(product(phoneId, "Smartphone")));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("Should serve a repeated getProduct from the cache and miss for another id")
+    void testGetProductHitAndMiss() {
+        // When
+        productService.getProduct(laptopId);
+        productService.getProduct(laptopId);
+        productService.getProduct(phoneId);
+
+        // Then
+        verify(productRepository, times(1)).findById(laptopId);
+        verify(productRepository, times(1)).findById(phoneId);
+    }
+
+    @Test
+    @DisplayName("Should evict the updated and the deleted product only")
+    void testUpdateAndDeleteEvict() {
+        // Given
+        productService.getProduct(laptopId);
+        productService.getProduct(phoneId);
+
+        // When
+        productService.updateProduct(laptopId, dto(laptopId, "Laptop Pro"));
+        productService.deleteProduct(phoneId);
+        productService.getProduct(laptopId);
+        productService.getProduct(phoneId);
+
+        // Then
+        verify(productRepository, times(3)).findById(laptopId); // Cached, update check, reloaded
+        verify(productRepository, times(2)).findById(phoneId);
+    }
+
+    @Test
+    @DisplayName("Should keep the cache when bulk creating products, even from rows carrying an id")
+    void testBulkCreateKeepsCache() {
+        // Given
+        when(productRepository.saveAllUnordered(anyList())).thenReturn(Map.of());
+        productService.getProduct(laptopId);
+
+        // When
+        productService.bulkCreateProducts(List.of(dto(null, "Keyboard"), dto(laptopId, "Laptop Pro")));
+        productService.getProduct(laptopId);
+
+        // Then
+        verify(productRepository, times(1)).findById(laptopId);
+        verify(productRepository).saveAllUnordered(argThat(products ->
+                products.stream().allMatch(product -> product.getProductId() == null)));
+    }
+
+    @Test
+    @DisplayName("Should evict only the products a bulk upsert wrote")
+    void testBulkUpsertEvictsWrittenIds() {
+        // Given
+        when(productRepository.upsertAllByNaturalKey(anyList())).thenAnswer(invocation -> {
+            List<Product> entities = invocation.getArgument(0);
+            entities.forEach(entity -> entity.setProductId(laptopId));
+            return Map.of();
+        });
+        productService.getProduct(laptopId);
+        productService.getProduct(phoneId);
+
+        // When
+        productService.bulkUpsertProducts(List.of(dto(null, "Laptop")));
+        productService.getProduct(laptopId);
+        productService.getProduct(phoneId);
+
+        // Then
+        verify(productRepository, times(2)).findById(laptopId);
+        verify(productRepository, times(1)).findById(phoneId);
+    }
+
+    private static Product product(ObjectId id, String name) {
+        return new Product(id, name, "Description", 9.99, "Electronics", List.of());
+    }
+
+    private static ProductDTO dto(ObjectId id, String name) {
+        ProductDTO dto = new ProductDTO();
+        dto.setProductId(id == null ? null : id.toHexString());
+        dto.setProductName(name);
+        dto.setPrice(9.99);
+        dto.setCategory("Electronics");
+        return dto;
+    }
+}
@@ -1,9 +1,26 @@
 package com.example.product.service.impl;
 
 import com.example.product.dto.request.ProductDTO;
+import com.example.product.dto.response.BulkCreateResult;
+import com.example.product.dto.response.CursorPageDTO;
+import com.example.product.dto.response.ProductBatchDTO;
+import com.example.product.dto.response.ProductSummaryDTO;
+import com.example.product.dto.response.TextSearchHitDTO;
 import com.example.product.entity.Product;
+import com.example.product.entity.ProductSummary;
+import com.example.product.event.ProductsChangedEvent;
 import com.example.product.exception.ProductNotFoundException;
 import com.example.product.repository.ProductRepository;
+import com.example.product.search.CategoryFacetCache;
+import com.example.product.search.ProductFilter;
+import com.example.product.search.ProductNameIndex;
+import com.example.product.search.ProductSort;
+import com.example.product.search.TextSearchHit;
+import com.example.product.utils.CursorUtils;
+import com.example.product.utils.CursorUtils.ProductCursor;
+import com.example.product.utils.CursorUtils.ScoreCursor;
+import com.example.product.utils.SearchUtils;
+import com.example.product.utils.WildcardPattern;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,6 +29,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -19,10 +39,14 @@ import org.springframework.data.domain.Pageable;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +56,18 @@ class ProductServiceImplTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductNameIndex productNameIndex;
+
+    @Mock
+    private CategoryFacetCache categoryFacetCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -87,6 +123,58 @@ class ProductServiceImplTest {
         assertEquals(productDTO.getImages(), result.getImages());
         
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(eventPublisher, times(1)).publishEvent(any(ProductsChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should bulk create products and return only the rows the bulk write rejected as failures")
+    void testBulkCreateProductsReportsRowFailures() {
+        // Given
+        ProductDTO duplicate = new ProductDTO();
+        duplicate.setProductName("Mouse");
+        ProductDTO keyboard = new ProductDTO();
+        keyboard.setProductName("Keyboard");
+        when(productRepository.saveAllUnordered(anyList())).thenAnswer(invocation -> {
+            List<Product> entities = invocation.getArgument(0);
+            entities.forEach(entity -> entity.setProductId(new ObjectId()));
+            return Map.of(1, "E11000 duplicate key");
+        });
+
+        // When
+        BulkCreateResult result = productService.bulkCreateProducts(List.of(productDTO, duplicate, keyboard));
+
+        // Then
+        assertEquals(List.of(PRODUCT_NAME_VALUE, "Keyboard"),
+                result.getCreated().stream().map(ProductDTO::getProductName).toList());
+        assertTrue(result.getCreated().stream().allMatch(created -> created.getProductId() != null));
+        assertEquals(Map.of(1, "E11000 duplicate key"), result.getFailures());
+        verify(productRepository, never()).saveAll(anyList());
+        verify(eventPublisher, times(1)).publishEvent(argThat((ProductsChangedEvent event) -> event.saved().size() == 2));
+    }
+
+    @Test
+    @DisplayName("Should bulk upsert products by natural key and evict only the written ids from the product cache")
+    void testBulkUpsertProducts() {
+        // Given
+        ObjectId existingId = new ObjectId();
+        Cache cache = mock(Cache.class);
+        when(cacheManager.getCache(ProductServiceImpl.PRODUCT_CACHE)).thenReturn(cache);
+        when(productRepository.upsertAllByNaturalKey(anyList())).thenAnswer(invocation -> {
+            List<Product> entities = invocation.getArgument(0);
+            entities.forEach(entity -> entity.setProductId(existingId));
+            return Map.of();
+        });
+
+        // When
+        BulkCreateResult result = productService.bulkUpsertProducts(List.of(productDTO));
+
+        // Then
+        assertEquals(existingId.toHexString(), result.getCreated().getFirst().getProductId());
+        assertTrue(result.getFailures().isEmpty());
+        verify(productRepository, never()).saveAllUnordered(anyList());
+        verify(eventPublisher, times(1)).publishEvent(argThat((ProductsChangedEvent event) -> event.saved().size() == 1));
+        verify(cache, times(1)).evict(existingId.toHexString());
+        verify(cache, never()).clear();
     }
 
     @Test
@@ -123,6 +211,23 @@ class ProductServiceImplTest {
         verify(productRepository, times(1)).findById(productId);
     }
 
+    @Test
+    @DisplayName("Should look up a batch of products with one query and report missing ids")
+    void testGetProductsBatch() {
+        // Given
+        ObjectId missingId = new ObjectId();
+        when(productRepository.findAllById(List.of(productId, missingId))).thenReturn(List.of(product));
+
+        // When
+        ProductBatchDTO result = productService.getProducts(List.of(productId, missingId, productId));
+
+        // Then
+        assertEquals(1, result.getProducts().size());
+        assertEquals(PRODUCT_NAME_VALUE, result.getProducts().get(productId.toHexString()).getProductName());
+        assertEquals(List.of(missingId.toHexString()), result.getMissingIds());
+        verify(productRepository, times(1)).findAllById(any());
+    }
+
     @Test
     @DisplayName("Should update product successfully when product exists")
     void testUpdateProductWhenProductExists() {
@@ -190,6 +295,67 @@ class ProductServiceImplTest {
 
         // Then
         verify(productRepository, times(1)).deleteById(productId);
+        verify(eventPublisher, times(1)).publishEvent(ProductsChangedEvent.deleted(productId));
+    }
+
+    @Test
+    @DisplayName("Should read summary listings through the ProductSummary projection")
+    void testGetAllProductSummaries() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        ProductSummary summary = new ProductSummary(productId, PRODUCT_NAME_VALUE, 999.99, CATEGORY_VALUE);
+        when(productRepository.findAllBy(pageable, ProductSummary.class)).thenReturn(new PageImpl<>(List.of(summary)));
+
+        // When
+        List<ProductSummaryDTO> result = productService.getAllProductSummaries(pageable);
+
+        // Then
+        assertEquals(List.of(new ProductSummaryDTO(productId.toHexString(), PRODUCT_NAME_VALUE, 999.99, CATEGORY_VALUE)),
+                result);
+        verify(productRepository, never()).findAllBy(any(), eq(Product.class));
+    }
+
+    @Test
+    @DisplayName("Should page summary search results by cursor")
+    void testSearchProductSummariesByCursor() {
+        // Given
+        ProductSummary first = new ProductSummary(productId, PRODUCT_NAME_VALUE, 999.99, CATEGORY_VALUE);
+        ProductSummary second = new ProductSummary(new ObjectId(), "Laptop Pro", 1499.99, CATEGORY_VALUE);
+        ProductFilter filter = ProductFilter.of("Lap*", null, null, null);
+        when(productRepository.searchAfter(filter, ProductSort.NAME, null, 2, ProductSummary.class))
+                .thenReturn(List.of(first, second));
+
+        // When
+        CursorPageDTO<ProductSummaryDTO> page = productService.searchProductSummaries(filter, null, null, 1);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertEquals(PRODUCT_NAME_VALUE, page.getItems().getFirst().getProductName());
+        ProductCursor next = CursorUtils.decode(page.getNextCursor());
+        assertEquals(productId, next.lastId());
+        assertEquals(PRODUCT_NAME_VALUE, next.lastName());
+    }
+
+    @Test
+    @DisplayName("Should resolve search through the name index and fetch the page by ids")
+    void testSearchProductsThroughNameIndex() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        Product laptopPro = new Product(new ObjectId(), "Laptop Pro", "Pro laptop", 1499.99, CATEGORY_VALUE, List.of());
+
+        when(productNameIndex.search(SearchUtils.compileWildcard("*top*"), null, 0L, 10))
+                .thenReturn(Optional.of(List.of(laptopPro.getProductId(), productId)));
+        when(productRepository.findByProductIdIn(List.of(laptopPro.getProductId(), productId), Product.class))
+                .thenReturn(List.of(product, laptopPro));
+
+        // When
+        List<ProductDTO> result = productService.searchProducts("*top*", pageable);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals("Laptop Pro", result.get(0).getProductName());
+        assertEquals(PRODUCT_NAME_VALUE, result.get(1).getProductName());
+        verify(productRepository, never()).findByProductName(any(), any(), any());
     }
 
     @Test
@@ -204,7 +370,7 @@ class ProductServiceImplTest {
         );
         Page<Product> productPage = new PageImpl<>(products, pageable, products.size());
 
-        when(productRepository.findByProductName(PRODUCT_NAME_VALUE, pageable)).thenReturn(productPage);
+        when(productRepository.findByProductName(PRODUCT_NAME_VALUE, pageable, Product.class)).thenReturn(productPage);
 
         // When
         List<ProductDTO> result = productService.searchProducts(PRODUCT_NAME_VALUE, pageable);
@@ -214,7 +380,7 @@ class ProductServiceImplTest {
         assertEquals(2, result.size());
         assertTrue(result.stream().allMatch(dto -> dto.getProductName().contains(PRODUCT_NAME_VALUE)));
         
-        verify(productRepository, times(1)).findByProductName(PRODUCT_NAME_VALUE, pageable);
+        verify(productRepository, times(1)).findByProductName(PRODUCT_NAME_VALUE, pageable, Product.class);
     }
 
     @Test
@@ -225,7 +391,7 @@ class ProductServiceImplTest {
         Pageable pageable = PageRequest.of(0, 10);
         Page<Product> emptyPage = new PageImpl<>(List.of(), pageable, 0);
 
-        when(productRepository.findByProductName(productName, pageable)).thenReturn(emptyPage);
+        when(productRepository.findByProductName(productName, pageable, Product.class)).thenReturn(emptyPage);
 
         // When
         List<ProductDTO> result = productService.searchProducts(productName, pageable);
@@ -234,7 +400,89 @@ class ProductServiceImplTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
         
-        verify(productRepository, times(1)).findByProductName(productName, pageable);
+        verify(productRepository, times(1)).findByProductName(productName, pageable, Product.class);
+    }
+
+    @Test
+    @DisplayName("Should rewrite prefix searches into an anchored range query when the name index cannot answer")
+    void testSearchProductsByPrefix() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productNameIndex.search(SearchUtils.compileWildcard("Lap*"), null, 0L, 10)).thenReturn(Optional.empty());
+        when(productRepository.findByProductNameRange("Lap", "Lap" + SearchUtils.PREFIX_RANGE_END, pageable, Product.class))
+                .thenReturn(List.of(product));
+
+        // When
+        List<ProductDTO> result = productService.searchProducts("Lap*", pageable);
+
+        // Then
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findByProductName(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should serve prefix searches from the name index once it is built")
+    void testSearchProductsByPrefixThroughNameIndex() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productNameIndex.search(SearchUtils.compileWildcard("Lap*"), CATEGORY_VALUE, 0L, 10))
+                .thenReturn(Optional.of(List.of(productId)));
+        when(productRepository.findByProductIdIn(List.of(productId), Product.class)).thenReturn(List.of(product));
+
+        // When
+        List<ProductDTO> result = productService.searchProducts("Lap*", CATEGORY_VALUE, pageable);
+
+        // Then
+        assertEquals(1, result.size());
+        verify(productRepository, never()).findByProductNameRangeAndCategory(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should rank fuzzy searches through the name index")
+    void testSearchProductsFuzzy() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productNameIndex.searchFuzzy("laptpo", null, 0L, 10)).thenReturn(Optional.of(List.of(productId)));
+        when(productRepository.findByProductIdIn(List.of(productId), Product.class)).thenReturn(List.of(product));
+
+        // When
+        List<ProductDTO> result = productService.searchProductsFuzzy(" laptpo ", null, pageable);
+
+        // Then
+        assertEquals(PRODUCT_NAME_VALUE, result.getFirst().getProductName());
+    }
+
+    @Test
+    @DisplayName("Should fall back to a plain name search while the name index is not built")
+    void testSearchProductsFuzzyBeforeIndexIsBuilt() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productNameIndex.searchFuzzy("laptop", null, 0L, 10)).thenReturn(Optional.empty());
+        when(productRepository.findByProductName("laptop", pageable, Product.class))
+                .thenReturn(new PageImpl<>(List.of(product), pageable, 1));
+
+        // When
+        List<ProductDTO> result = productService.searchProductsFuzzy("laptop", null, pageable);
+
+        // Then
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    @DisplayName("Should keep general wildcard searches as an unanchored regex")
+    void testSearchProductsByGeneralWildcard() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productNameIndex.search(SearchUtils.compileWildcard("lap?op"), CATEGORY_VALUE, 0L, 10))
+                .thenReturn(Optional.empty());
+        when(productRepository.findByProductNameAndCategory("lap.op", CATEGORY_VALUE, pageable, Product.class))
+                .thenReturn(new PageImpl<>(List.of(product), pageable, 1));
+
+        // When
+        List<ProductDTO> result = productService.searchProducts("lap?op", CATEGORY_VALUE, pageable);
+
+        // Then
+        assertEquals(1, result.size());
     }
 
     @Test
@@ -246,7 +494,7 @@ class ProductServiceImplTest {
         List<Product> products = Arrays.asList(product);
         Page<Product> productPage = new PageImpl<>(products, pageable, products.size());
 
-        when(productRepository.findByProductNameAndCategory(PRODUCT_NAME_VALUE, CATEGORY_VALUE, pageable))
+        when(productRepository.findByProductNameAndCategory(PRODUCT_NAME_VALUE, CATEGORY_VALUE, pageable, Product.class))
                 .thenReturn(productPage);
 
         // When
@@ -259,7 +507,7 @@ class ProductServiceImplTest {
         assertEquals(CATEGORY_VALUE, result.get(0).getCategory());
         
         verify(productRepository, times(1))
-                .findByProductNameAndCategory(PRODUCT_NAME_VALUE, CATEGORY_VALUE, pageable);
+                .findByProductNameAndCategory(PRODUCT_NAME_VALUE, CATEGORY_VALUE, pageable, Product.class);
     }
 
     @Test
@@ -270,7 +518,7 @@ class ProductServiceImplTest {
         Pageable pageable = PageRequest.of(0, 10);
         Page<Product> emptyPage = new PageImpl<>(List.of(), pageable, 0);
 
-        when(productRepository.findByProductNameAndCategory(PRODUCT_NAME_VALUE, category, pageable))
+        when(productRepository.findByProductNameAndCategory(PRODUCT_NAME_VALUE, category, pageable, Product.class))
                 .thenReturn(emptyPage);
 
         // When
@@ -281,7 +529,7 @@ class ProductServiceImplTest {
         assertTrue(result.isEmpty());
         
         verify(productRepository, times(1))
-                .findByProductNameAndCategory(PRODUCT_NAME_VALUE, category, pageable);
+                .findByProductNameAndCategory(PRODUCT_NAME_VALUE, category, pageable, Product.class);
     }
 
     @Test
@@ -293,7 +541,7 @@ class ProductServiceImplTest {
         List<Product> products = Arrays.asList(product);
         Page<Product> productPage = new PageImpl<>(products, pageable, 10); // Total 10 items
 
-        when(productRepository.findByProductName(PRODUCT_NAME_VALUE, pageable)).thenReturn(productPage);
+        when(productRepository.findByProductName(PRODUCT_NAME_VALUE, pageable, Product.class)).thenReturn(productPage);
 
         // When
         List<ProductDTO> result = productService.searchProducts(PRODUCT_NAME_VALUE, pageable);
@@ -301,7 +549,149 @@ class ProductServiceImplTest {
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(productRepository, times(1)).findByProductName(PRODUCT_NAME_VALUE, pageable);
+        verify(productRepository, times(1)).findByProductName(PRODUCT_NAME_VALUE, pageable, Product.class);
+    }
+
+    @Test
+    @DisplayName("Should return a next cursor when more products follow the cursor page")
+    void testGetAllProductsByCursorWithNextPage() {
+        // Given
+        Product next = new Product(new ObjectId(), "Mouse", "Wireless mouse", 29.99, CATEGORY_VALUE, List.of());
+        when(productRepository.findAllAfter(null, 2, Product.class)).thenReturn(List.of(product, next));
+
+        // When
+        CursorPageDTO<ProductDTO> result = productService.getAllProducts(null, 1);
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertEquals(productId, CursorUtils.decode(result.getNextCursor()).lastId());
+    }
+
+    @Test
+    @DisplayName("Should continue a name search after the cursor without a next cursor on the last page")
+    void testSearchProductsByCursorLastPage() {
+        // Given
+        String cursor = CursorUtils.encode(productId, PRODUCT_NAME_VALUE);
+        ProductFilter filter = ProductFilter.of("Lap*", CATEGORY_VALUE, null, null);
+        when(productRepository.searchAfter(filter, ProductSort.NAME,
+                new ProductCursor(productId, PRODUCT_NAME_VALUE, null), 11, Product.class)).thenReturn(List.of(product));
+
+        // When
+        CursorPageDTO<ProductDTO> result = productService.searchProducts(filter, ProductSort.NAME, cursor, 10);
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should count categories through the facet cache")
+    void testGetCategoryFacets() {
+        // Given
+        WildcardPattern pattern = SearchUtils.compileWildcard("lap*");
+        when(categoryFacetCache.get(eq(pattern), any())).thenAnswer(invocation ->
+                invocation.<Function<WildcardPattern, Map<String, Long>>>getArgument(1).apply(pattern));
+        when(productRepository.countByCategory(pattern)).thenReturn(Map.of(CATEGORY_VALUE, 3L));
+
+        // When
+        Map<String, Long> facets = productService.getCategoryFacets("lap*");
+
+        // Then
+        assertEquals(Map.of(CATEGORY_VALUE, 3L), facets);
+        verify(productRepository, times(1)).countByCategory(pattern);
+    }
+
+    @Test
+    @DisplayName("Should carry the price of the last product in the next cursor of a price sorted search")
+    void testSearchProductsByPriceCursor() {
+        // Given
+        Product next = new Product(new ObjectId(), "Laptop Pro", "", 1499.99, CATEGORY_VALUE, List.of());
+        ProductFilter filter = ProductFilter.of(null, CATEGORY_VALUE, 500.0, null);
+        when(productRepository.searchAfter(filter, ProductSort.PRICE, null, 2, Product.class))
+                .thenReturn(List.of(product, next));
+
+        // When
+        CursorPageDTO<ProductDTO> result = productService.searchProducts(filter, ProductSort.PRICE, null, 1);
+
+        // Then
+        assertEquals(new ProductCursor(productId, PRODUCT_NAME_VALUE, 999.99), CursorUtils.decode(result.getNextCursor()));
+    }
+
+    @Test
+    @DisplayName("Should read price filtered offset searches with one query instead of the name index")
+    void testSearchProductsByPriceRange() {
+        // Given
+        Pageable pageable = PageRequest.of(2, 10);
+        ProductFilter filter = ProductFilter.of("lap*", null, 100.0, 1000.0);
+        when(productRepository.search(filter, ProductSort.NAME, 20, 10, Product.class)).thenReturn(List.of(product));
+
+        // When
+        List<ProductDTO> result = productService.searchProducts(filter, null, pageable);
+
+        // Then
+        assertEquals(1, result.size());
+        verifyNoInteractions(productNameIndex);
+    }
+
+    @Test
+    @DisplayName("Should return text search hits with scores and continue after the last hit by (score, _id)")
+    void testSearchProductsByText() {
+        // Given
+        Product next = new Product(new ObjectId(), "Laptop Sleeve", "", 29.99, "Accessories", List.of());
+        ProductFilter filter = ProductFilter.of(null, null, null, null);
+        when(productRepository.textSearchAfter("laptop", filter, null, 2, Product.class))
+                .thenReturn(List.of(new TextSearchHit<>(product, 11.5), new TextSearchHit<>(next, 1.25)));
+
+        // When
+        CursorPageDTO<TextSearchHitDTO<ProductDTO>> result = productService.searchProductsByText("laptop", filter, null, 1);
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertEquals(PRODUCT_NAME_VALUE, result.getItems().get(0).getProduct().getProductName());
+        assertEquals(11.5, result.getItems().get(0).getScore());
+        assertEquals(new ScoreCursor(productId, 11.5), CursorUtils.decodeScore(result.getNextCursor()));
+    }
+
+    @Test
+    @DisplayName("Should pass the decoded score cursor to the text search and end on a short page")
+    void testSearchProductSummariesByTextLastPage() {
+        // Given
+        ProductFilter filter = ProductFilter.of(null, CATEGORY_VALUE, null, null);
+        ProductSummary summary = new ProductSummary(productId, PRODUCT_NAME_VALUE, 999.99, CATEGORY_VALUE);
+        when(productRepository.textSearchAfter("laptop", filter, new ScoreCursor(productId, 2.0), 11, ProductSummary.class))
+                .thenReturn(List.of(new TextSearchHit<>(summary, 1.5)));
+
+        // When
+        CursorPageDTO<TextSearchHitDTO<ProductSummaryDTO>> result = productService.searchProductSummariesByText(
+                "laptop", filter, CursorUtils.encodeScore(productId, 2.0), 10);
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertEquals(1.5, result.getItems().get(0).getScore());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should reject a name cursor in text mode")
+    void testSearchProductsByTextRejectsNameCursor() {
+        String cursor = CursorUtils.encode(productId, PRODUCT_NAME_VALUE);
+        ProductFilter filter = ProductFilter.of(null, null, null, null);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.searchProductsByText("laptop", filter, cursor, 10));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject an empty price range")
+    void testProductFilterRejectsEmptyPriceRange() {
+        assertThrows(IllegalArgumentException.class, () -> ProductFilter.of("lap*", null, 100.0, 10.0));
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void testGetAllProductsByInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> productService.getAllProducts("not-a-cursor", 10));
     }
 
     @Test
@@ -0,0 +1,135 @@
+package com.example.product.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AdaptiveBatchController Unit Tests")
+class AdaptiveBatchControllerTest {
+
+    private static final long TARGET_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private MeterRegistry meterRegistry;
+    private AtomicLong nanos;
+    private AdaptiveBatchController controller;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        nanos = new AtomicLong();
+        controller = new AdaptiveBatchController(meterRegistry, 100, 5000, 1000, 1, 32, 4, 500, nanos::get);
+    }
+
+    @Test
+    @DisplayName("Should grow concurrency additively and batch size towards the target latency when batches are fast")
+    void testFastBatchesIncreaseLimits() throws Exception {
+        // When - 5 batches of 1000 products at 100 ms, each adds 1 / limit to a limit of 4
+        for (int i = 0; i < 5; i++) {
+            controller.acquire();
+            controller.release(1000, TimeUnit.MILLISECONDS.toNanos(100), false);
+        }
+
+        // Then
+        assertEquals(5, controller.concurrencyLimit());
+        assertEquals(5000, controller.batchSize());
+        assertEquals(0, controller.inFlight());
+    }
+
+    @Test
+    @DisplayName("Should shrink batch size and concurrency on slow and failed batches, within the bounds")
+    void testSlowAndFailedBatchesDecreaseLimits() throws Exception {
+        // When - a batch at twice the target latency
+        controller.acquire();
+        controller.release(1000, 2 * TARGET_NANOS, false);
+
+        // Then
+        assertEquals(3, controller.concurrencyLimit());
+        assertEquals(500, controller.batchSize());
+
+        // When - repeated failures, one target latency apart
+        for (int i = 0; i < 10; i++) {
+            nanos.addAndGet(TARGET_NANOS + 1);
+            controller.acquire();
+            controller.release(controller.batchSize(), TARGET_NANOS, true);
+        }
+
+        // Then
+        assertEquals(1, controller.concurrencyLimit());
+        assertEquals(100, controller.batchSize());
+    }
+
+    @Test
+    @DisplayName("Should cut concurrency once for slow batches finishing together, and again after the target latency")
+    void testConcurrentSlowReleasesCutOnce() throws Exception {
+        // Given
+        AdaptiveBatchController wide = new AdaptiveBatchController(meterRegistry, 100, 5000, 1000, 1, 32, 20, 500, nanos::get);
+        for (int i = 0; i < 20; i++) {
+            wide.acquire();
+        }
+
+        // When - 11 of the batches in flight report the same latency spike, one of them as a failure
+        CompletableFuture<?>[] releases = new CompletableFuture<?>[10];
+        for (int i = 0; i < releases.length; i++) {
+            releases[i] = CompletableFuture.runAsync(() -> wide.release(1000, 2 * TARGET_NANOS, false));
+        }
+        CompletableFuture.allOf(releases).get(5, TimeUnit.SECONDS);
+        wide.release(1000, 2 * TARGET_NANOS, true);
+
+        // Then - one 10% cut instead of 0.9^10 and a halving
+        assertEquals(18, wide.concurrencyLimit());
+
+        // When - still slow once the window has passed
+        nanos.addAndGet(TARGET_NANOS + 1);
+        wide.release(1000, 2 * TARGET_NANOS, false);
+
+        // Then
+        assertEquals(16, wide.concurrencyLimit());
+    }
+
+    @Test
+    @DisplayName("Should block acquire while the concurrency limit is reached")
+    void testAcquireBlocksAtLimit() throws Exception {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            controller.acquire();
+        }
+
+        // When
+        CompletableFuture<Void> fifth = CompletableFuture.runAsync(() -> {
+            try {
+                controller.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // Then
+        Thread.sleep(100);
+        assertFalse(fifth.isDone());
+        controller.release(1000, TimeUnit.MILLISECONDS.toNanos(100), false);
+        fifth.get(5, TimeUnit.SECONDS);
+        assertEquals(4, controller.inFlight());
+    }
+
+    @Test
+    @DisplayName("Should publish the current values as metrics")
+    void testMetrics() throws Exception {
+        // When
+        controller.acquire();
+        controller.release(1000, TimeUnit.MILLISECONDS.toNanos(100), false);
+
+        // Then
+        assertEquals(2000, meterRegistry.get("product.import.batch.size").gauge().value());
+        assertEquals(4, meterRegistry.get("product.import.concurrency.limit").gauge().value());
+        assertEquals(0, meterRegistry.get("product.import.batches.in-flight").gauge().value());
+        assertEquals(1, meterRegistry.get("product.import.batch.latency").timer().count());
+    }
+}
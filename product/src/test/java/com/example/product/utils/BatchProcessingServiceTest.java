@@ -0,0 +1,184 @@
+package com.example.product.utils;
+
+import com.example.product.dto.request.ProductDTO;
+import com.example.product.dto.response.BatchProcessingResult;
+import com.example.product.dto.response.BulkCreateResult;
+import com.example.product.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("BatchProcessingService Unit Tests")
+class BatchProcessingServiceTest {
+
+    private ProductService productService;
+    private ExecutorService executor;
+    private BatchProcessingService batchProcessingService;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        // Fixed at 1000 products per batch, as no latency can shrink a batch below its minimum
+        AdaptiveBatchController batchController =
+                new AdaptiveBatchController(new SimpleMeterRegistry(), 1000, 1000, 1000, 1, 10, 10, 500);
+        batchProcessingService = new BatchProcessingService(productService, executor, batchController,
+                CsvTokenizer.DEFAULT_MAX_RECORD_LENGTH);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    @DisplayName("Should stream rows into bulk inserts of at most 1000 products")
+    void testProcessStreamBatchesRows() throws Exception {
+        // Given
+        StringBuilder csv = new StringBuilder("productName,description,price,category,images\n");
+        for (int i = 0; i < 2500; i++) {
+            csv.append("Product ").append(i).append(",Description,9.99,Category,\n");
+        }
+        when(productService.bulkCreateProducts(anyList()))
+                .thenAnswer(invocation -> new BulkCreateResult(invocation.<List<ProductDTO>>getArgument(0), Map.of()));
+
+        // When
+        BatchProcessingResult result = batchProcessingService.processStream(stream(csv.toString()));
+
+        // Then
+        assertEquals(3, result.getTotalBatches());
+        assertEquals(2500, result.getTotalProcessed());
+        assertEquals(2500, result.getSuccessful());
+        assertEquals(0, result.getFailed());
+        verify(productService, times(3)).bulkCreateProducts(anyList());
+    }
+
+    @Test
+    @DisplayName("Should report only the rows the bulk write rejected")
+    void testProcessStreamReportsRowFailures() throws Exception {
+        // Given
+        String csv = "productName,description,price\nLaptop,Fast,999.99\nMouse,Wireless,19.99\nKeyboard,Mechanical,49.99\n";
+        when(productService.bulkCreateProducts(anyList())).thenAnswer(invocation -> {
+            List<ProductDTO> batch = invocation.getArgument(0);
+            return new BulkCreateResult(List.of(batch.get(0), batch.get(2)), Map.of(1, "E11000 duplicate key"));
+        });
+
+        // When
+        BatchProcessingResult result = batchProcessingService.processStream(stream(csv));
+
+        // Then
+        assertEquals(3, result.getTotalProcessed());
+        assertEquals(2, result.getSuccessful());
+        assertEquals(1, result.getFailed());
+        assertEquals(List.of("Mouse: E11000 duplicate key"), result.getFailedProducts());
+    }
+
+    @Test
+    @DisplayName("Should reject a record past the length limit with its line instead of buffering the stream")
+    void testProcessStreamRejectsOverlongRecord() throws Exception {
+        // Given
+        BatchProcessingService limited = new BatchProcessingService(productService, executor,
+                new AdaptiveBatchController(new SimpleMeterRegistry(), 1000, 1000, 1000, 1, 10, 10, 500), 64);
+        StringBuilder csv = new StringBuilder("productName,description,price\nLaptop,Fast,999.99\nMouse,\"Wireless,19.99\n");
+        for (int i = 0; i < 1000; i++) {
+            csv.append("Product ").append(i).append(",Description,9.99\n");
+        }
+        when(productService.bulkCreateProducts(anyList()))
+                .thenAnswer(invocation -> new BulkCreateResult(invocation.<List<ProductDTO>>getArgument(0), Map.of()));
+
+        // When
+        BatchProcessingResult result = limited.processStream(stream(csv.toString()));
+
+        // Then
+        assertEquals(1, result.getSuccessful());
+        assertEquals(1, result.getFailed());
+        assertTrue(result.getFailedProducts().getFirst().startsWith("Line 3: Record longer than 64 characters"));
+    }
+
+    @Test
+    @DisplayName("Should fail the batches the executor rejects instead of waiting for them")
+    void testProcessStreamRejectedBatch() {
+        // Given
+        executor.shutdown();
+        String csv = "productName,description,price\nLaptop,Fast,999.99\nMouse,Wireless,19.99\n";
+
+        // When
+        BatchProcessingResult result = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> batchProcessingService.processStream(stream(csv)));
+
+        // Then
+        assertEquals(1, result.getTotalBatches());
+        assertEquals(0, result.getSuccessful());
+        assertEquals(2, result.getFailed());
+        verify(productService, never()).bulkCreateProducts(anyList());
+    }
+
+    @Test
+    @DisplayName("Should count every failure but cap the failure report")
+    void testProcessStreamCapsFailureReport() throws Exception {
+        // Given
+        StringBuilder csv = new StringBuilder("productName,description,price\n");
+        for (int i = 0; i < 150; i++) {
+            csv.append("Product ").append(i).append(",Description,not-a-price\n");
+        }
+
+        // When
+        BatchProcessingResult result = batchProcessingService.processStream(stream(csv.toString()));
+
+        // Then
+        assertEquals(0, result.getTotalBatches());
+        assertEquals(150, result.getFailed());
+        assertEquals(100, result.getFailedProducts().size());
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    @DisplayName("Should stream a JSON array into bulk inserts and skip items that do not map to a product")
+    void testProcessJsonStream() throws Exception {
+        // Given
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 1500; i++) {
+            json.append("{\"productName\":\"Product ").append(i).append("\",\"price\":9.99},");
+        }
+        json.append("{\"productName\":\"Broken\",\"price\":\"not-a-price\"},");
+        json.append("{\"productName\":\"Last\",\"price\":1.5}]");
+        when(productService.bulkCreateProducts(anyList()))
+                .thenAnswer(invocation -> new BulkCreateResult(invocation.<List<ProductDTO>>getArgument(0), Map.of()));
+
+        // When
+        BatchProcessingResult result = batchProcessingService.processJsonStream(stream(json.toString()));
+
+        // Then
+        assertEquals(2, result.getTotalBatches());
+        assertEquals(1501, result.getTotalProcessed());
+        assertEquals(1501, result.getSuccessful());
+        assertEquals(1, result.getFailed());
+        assertTrue(result.getFailedProducts().getFirst().startsWith("Item 1501:"));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed JSON")
+    void testProcessJsonStreamMalformed() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> batchProcessingService.processJsonStream(stream("[{\"productName\": ")));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
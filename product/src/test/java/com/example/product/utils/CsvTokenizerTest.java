@@ -0,0 +1,138 @@
+package com.example.product.utils;
+
+import com.example.product.dto.request.ProductDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CsvTokenizer Unit Tests")
+class CsvTokenizerTest {
+
+    @Test
+    @DisplayName("Should unescape doubled quotes and keep commas inside quoted fields")
+    void testEscapedQuotesAndCommas() throws Exception {
+        // Given
+        CsvTokenizer csv = tokenizer("Laptop,\"15\"\" screen, backlit\",999.99\n");
+
+        // When & Then
+        assertTrue(csv.nextRecord());
+        assertEquals(3, csv.fieldCount());
+        assertEquals("Laptop", csv.trimmed(0));
+        assertEquals("15\" screen, backlit", csv.trimmed(1));
+        assertEquals("999.99", csv.trimmed(2));
+        assertFalse(csv.nextRecord());
+    }
+
+    @Test
+    @DisplayName("Should keep line breaks inside quoted fields and report the starting line")
+    void testEmbeddedNewlines() throws Exception {
+        // Given
+        CsvTokenizer csv = tokenizer("header\r\nLaptop,\"line one\nline two\",10\r\nMouse,Wireless,20");
+
+        // When & Then
+        assertTrue(csv.nextRecord());
+        assertTrue(csv.nextRecord());
+        assertEquals(2, csv.recordLine());
+        assertEquals("line one\nline two", csv.trimmed(1));
+        assertTrue(csv.nextRecord());
+        assertEquals(4, csv.recordLine());
+        assertEquals("Mouse", csv.trimmed(0));
+        assertFalse(csv.nextRecord());
+    }
+
+    @Test
+    @DisplayName("Should read records that span buffer refills")
+    void testSmallBuffer() throws Exception {
+        // Given
+        CsvTokenizer csv = new CsvTokenizer(new StringReader("\"a\"\"b\",c\r\n\"d\"\r\n"), 1);
+
+        // When & Then
+        assertTrue(csv.nextRecord());
+        assertEquals("a\"b", csv.trimmed(0));
+        assertEquals("c", csv.trimmed(1));
+        assertTrue(csv.nextRecord());
+        assertEquals("d", csv.trimmed(0));
+        assertFalse(csv.nextRecord());
+    }
+
+    @Test
+    @DisplayName("Should detect blank records and unterminated quotes")
+    void testBlankAndUnterminated() throws Exception {
+        // Given
+        CsvTokenizer csv = tokenizer("   \nLaptop,\"open");
+
+        // When & Then
+        assertTrue(csv.nextRecord());
+        assertTrue(csv.isBlankRecord());
+        assertTrue(csv.nextRecord());
+        assertTrue(csv.hasUnterminatedQuote());
+        assertThrows(IllegalArgumentException.class, () -> FileParser.toProduct(csv));
+    }
+
+    @Test
+    @DisplayName("Should flag a record past the length limit without buffering it and read the next one")
+    void testMaxRecordLength() throws Exception {
+        // Given
+        CsvTokenizer csv = new CsvTokenizer(new StringReader("Laptop,Fast,9.99\nMouse,\"" + "x".repeat(100)
+                + "\",1.99\nKeyboard,Quiet,4.99\n"), 8, 20);
+
+        // When & Then
+        assertTrue(csv.nextRecord());
+        assertFalse(csv.isTooLong());
+        assertTrue(csv.nextRecord());
+        assertTrue(csv.isTooLong());
+        assertFalse(csv.isBlankRecord());
+        assertEquals(2, csv.recordLine());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> FileParser.toProduct(csv));
+        assertTrue(e.getMessage().startsWith("Record longer than 20 characters"));
+        assertTrue(csv.nextRecord());
+        assertFalse(csv.isTooLong());
+        assertEquals("Keyboard", csv.trimmed(0));
+        assertFalse(csv.nextRecord());
+    }
+
+    @Test
+    @DisplayName("Should map a record to a product and split the image list")
+    void testToProduct() throws Exception {
+        // Given
+        CsvTokenizer csv = tokenizer(" Laptop , Fast ,999.99,Electronics,\"url1, url2,,\",ignored\n");
+        assertTrue(csv.nextRecord());
+
+        // When
+        ProductDTO product = FileParser.toProduct(csv);
+
+        // Then
+        assertEquals("Laptop", product.getProductName());
+        assertEquals("Fast", product.getDescription());
+        assertEquals(999.99, product.getPrice());
+        assertEquals("Electronics", product.getCategory());
+        assertEquals(List.of("url1", "url2"), product.getImages());
+    }
+
+    @Test
+    @DisplayName("Should reuse its buffers after reset")
+    void testReset() throws Exception {
+        // Given
+        CsvTokenizer csv = tokenizer("a,b\n");
+        assertTrue(csv.nextRecord());
+
+        // When
+        csv.reset(new StringReader("c\n"));
+
+        // Then
+        assertTrue(csv.nextRecord());
+        assertEquals(1, csv.recordLine());
+        List<String> parts = new ArrayList<>();
+        csv.forEachPart(0, parts::add);
+        assertEquals(List.of("c"), parts);
+    }
+
+    private static CsvTokenizer tokenizer(String content) {
+        return new CsvTokenizer(new StringReader(content));
+    }
+}
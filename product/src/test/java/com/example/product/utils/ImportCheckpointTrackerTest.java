@@ -0,0 +1,95 @@
+package com.example.product.utils;
+
+import com.example.product.entity.ImportCheckpoint;
+import com.example.product.repository.ImportCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ImportCheckpointTracker Unit Tests")
+class ImportCheckpointTrackerTest {
+
+    private static final String FILE_HASH = "5f2b";
+
+    private ImportCheckpointRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ImportCheckpointRepository.class);
+    }
+
+    @Test
+    @DisplayName("Should only move the checkpoint over batches whose predecessors committed")
+    void testCheckpointFollowsContiguousCommits() {
+        // Given
+        when(repository.findById(FILE_HASH)).thenReturn(Optional.empty());
+        ImportCheckpointTracker tracker = ImportCheckpointTracker.open(repository, FILE_HASH, "products.csv");
+        tracker.dispatched(1, 1000);
+        tracker.dispatched(2, 2000);
+        tracker.dispatched(3, 3000);
+
+        // When
+        tracker.committed(2);
+        tracker.committed(3);
+
+        // Then
+        verify(repository, never()).save(any());
+
+        // When
+        tracker.committed(1);
+
+        // Then
+        ArgumentCaptor<ImportCheckpoint> saved = ArgumentCaptor.forClass(ImportCheckpoint.class);
+        verify(repository, times(1)).save(saved.capture());
+        assertEquals(3000, saved.getValue().getCommittedRows());
+        assertEquals(3, saved.getValue().getLastCommittedBatch());
+        assertFalse(saved.getValue().isCompleted());
+    }
+
+    @Test
+    @DisplayName("Should keep the checkpoint before a batch that never committed")
+    void testFailedBatchHoldsCheckpoint() {
+        // Given
+        when(repository.findById(FILE_HASH)).thenReturn(Optional.of(
+                new ImportCheckpoint(FILE_HASH, "products.csv", 4, 4000, false, Instant.now())));
+        ImportCheckpointTracker tracker = ImportCheckpointTracker.open(repository, FILE_HASH, "products.csv");
+        tracker.dispatched(1, 5000);
+        tracker.dispatched(2, 6000);
+
+        // When
+        tracker.committed(2); // Batch 1 failed
+        tracker.finished(6000);
+
+        // Then
+        assertEquals(4000, tracker.committedRows());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should mark the file completed once every batch committed")
+    void testFinishedMarksCompleted() {
+        // Given
+        when(repository.findById(FILE_HASH)).thenReturn(Optional.of(
+                new ImportCheckpoint(FILE_HASH, "products.csv", 4, 4000, false, Instant.now())));
+        ImportCheckpointTracker tracker = ImportCheckpointTracker.open(repository, FILE_HASH, "products.csv");
+        tracker.dispatched(1, 4500);
+
+        // When
+        tracker.committed(1);
+        tracker.finished(4502); // Two invalid rows after the last batch
+
+        // Then
+        ArgumentCaptor<ImportCheckpoint> saved = ArgumentCaptor.forClass(ImportCheckpoint.class);
+        verify(repository, times(2)).save(saved.capture());
+        assertTrue(saved.getValue().isCompleted());
+        assertEquals(4502, saved.getValue().getCommittedRows());
+        assertEquals(5, saved.getValue().getLastCommittedBatch());
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.product.utils;
+
+import com.example.product.dto.request.ProductDTO;
+import com.example.product.dto.response.BulkCreateResult;
+import com.example.product.dto.response.ImportJobStatus;
+import com.example.product.entity.ImportCheckpoint;
+import com.example.product.exception.ImportJobNotFoundException;
+import com.example.product.exception.TooManyImportJobsException;
+import com.example.product.repository.ImportCheckpointRepository;
+import com.example.product.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ImportJobRegistry Unit Tests")
+class ImportJobRegistryTest {
+
+    private ProductService productService;
+    private ExecutorService executor;
+    private BatchProcessingService batchProcessingService;
+    private ImportCheckpointRepository checkpointRepository;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        checkpointRepository = mock(ImportCheckpointRepository.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        AdaptiveBatchController batchController =
+                new AdaptiveBatchController(new SimpleMeterRegistry(), 1000, 1000, 1000, 1, 10, 10, 500);
+        batchProcessingService = new BatchProcessingService(productService, executor, batchController,
+                CsvTokenizer.DEFAULT_MAX_RECORD_LENGTH);
+        when(productService.bulkUpsertProducts(anyList()))
+                .thenAnswer(invocation -> new BulkCreateResult(invocation.<List<ProductDTO>>getArgument(0), Map.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    @DisplayName("Should run an upload in the background and report its progress")
+    void testSubmitCompletesJob() throws Exception {
+        // Given
+        ImportJobRegistry registry = new ImportJobRegistry(batchProcessingService, checkpointRepository, executor, 10, 60);
+        StringBuilder csv = new StringBuilder("productName,description,price,category,images\n");
+        for (int i = 0; i < 1500; i++) {
+            csv.append("Product ").append(i).append(",Description,9.99,Category,\n");
+        }
+        csv.append("Broken,Description,not-a-price,Category,\n");
+
+        // When
+        ImportJobStatus submitted = registry.submit(csvFile(csv.toString()));
+        ImportJobStatus finished = awaitFinished(registry, submitted.getJobId());
+
+        // Then
+        assertNotNull(submitted.getJobId());
+        assertEquals("products.csv", submitted.getFileName());
+        assertEquals(ImportJobStatus.State.COMPLETED, finished.getState());
+        assertEquals(2, finished.getTotalBatches());
+        assertEquals(1500, finished.getSuccessful());
+        assertEquals(1, finished.getFailed());
+        assertEquals(100.0, finished.getPercentComplete());
+        assertEquals(0L, finished.getEtaSeconds());
+        assertNotNull(finished.getFinishedAt());
+        assertTrue(finished.getFailedProducts().getFirst().startsWith("Line 1502"));
+    }
+
+    @Test
+    @DisplayName("Should mark a job failed when the upload cannot be read")
+    void testSubmitMarksJobFailed() throws Exception {
+        // Given
+        ImportJobRegistry registry = new ImportJobRegistry(batchProcessingService, checkpointRepository, executor, 10, 60);
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "products.json", "application/json", "[{\"productName\": ".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        ImportJobStatus finished = awaitFinished(registry, registry.submit(file).getJobId());
+
+        // Then
+        assertEquals(ImportJobStatus.State.FAILED, finished.getState());
+        assertTrue(finished.getError().startsWith("Malformed JSON"));
+    }
+
+    @Test
+    @DisplayName("Should throw for an unknown job id")
+    void testStatusUnknownJob() {
+        // Given
+        ImportJobRegistry registry = new ImportJobRegistry(batchProcessingService, checkpointRepository, executor, 10, 60);
+
+        // When & Then
+        assertThrows(ImportJobNotFoundException.class, () -> registry.status("missing"));
+    }
+
+    @Test
+    @DisplayName("Should reject a job while the registry is full of running jobs and evict finished ones")
+    void testRegistryBound() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(productService.bulkUpsertProducts(anyList())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return new BulkCreateResult(invocation.<List<ProductDTO>>getArgument(0), Map.of());
+        });
+        ImportJobRegistry registry = new ImportJobRegistry(batchProcessingService, checkpointRepository, executor, 1, 60);
+        String csv = "productName,description,price,category,images\nLaptop,Description,9.99,Category,\n";
+
+        // When
+        String first = registry.submit(csvFile(csv)).getJobId();
+
+        // Then
+        assertThrows(TooManyImportJobsException.class, () -> registry.submit(csvFile(csv)));
+
+        release.countDown();
+        awaitFinished(registry, first);
+        String second = registry.submit(csvFile(csv)).getJobId();
+        assertThrows(ImportJobNotFoundException.class, () -> registry.status(first));
+        assertEquals(ImportJobStatus.State.COMPLETED, awaitFinished(registry, second).getState());
+    }
+
+    @Test
+    @DisplayName("Should checkpoint a completed import and resume a re-upload after the committed rows")
+    void testResumeFromCheckpoint() throws Exception {
+        // Given
+        ImportJobRegistry registry = new ImportJobRegistry(batchProcessingService, checkpointRepository, executor, 10, 60);
+        StringBuilder csv = new StringBuilder("productName,description,price,category,images\n");
+        for (int i = 0; i < 2500; i++) {
+            csv.append("Product ").append(i).append(",Description,9.99,Category,\n");
+        }
+        when(checkpointRepository.findById(anyString())).thenAnswer(invocation -> Optional.of(
+                new ImportCheckpoint(invocation.getArgument(0), "products.csv", 2, 2000, false, Instant.now())));
+
+        // When
+        ImportJobStatus finished = awaitFinished(registry, registry.submit(csvFile(csv.toString())).getJobId());
+
+        // Then
+        assertEquals(ImportJobStatus.State.COMPLETED, finished.getState());
+        assertEquals(2000L, finished.getSkippedRows());
+        assertEquals(500, finished.getSuccessful());
+        verify(productService, times(1)).bulkUpsertProducts(argThat(batch ->
+                batch.size() == 500 && batch.getFirst().getProductName().equals("Product 2000")));
+        verify(productService, never()).bulkCreateProducts(anyList());
+        verify(checkpointRepository, atLeastOnce()).save(argThat(checkpoint ->
+                checkpoint.isCompleted() && checkpoint.getCommittedRows() == 2500 && checkpoint.getLastCommittedBatch() == 3));
+    }
+
+    @Test
+    @DisplayName("Should not checkpoint past a batch with a failed row and write that batch again on resume")
+    void testFailedRowIsRetriedOnResume() throws Exception {
+        // Given
+        AtomicReference<ImportCheckpoint> stored = new AtomicReference<>();
+        when(checkpointRepository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(stored.get()));
+        when(checkpointRepository.save(any(ImportCheckpoint.class))).thenAnswer(invocation -> {
+            ImportCheckpoint checkpoint = invocation.getArgument(0);
+            stored.set(new ImportCheckpoint(checkpoint.getFileHash(), checkpoint.getFileName(),
+                    checkpoint.getLastCommittedBatch(), checkpoint.getCommittedRows(), checkpoint.isCompleted(),
+                    checkpoint.getUpdatedAt()));
+            return checkpoint;
+        });
+        AtomicBoolean failOnce = new AtomicBoolean(true);
+        when(productService.bulkUpsertProducts(anyList())).thenAnswer(invocation -> {
+            List<ProductDTO> batch = invocation.getArgument(0);
+            // Row 1501 of the file, in batch 2, is rejected on the first run only
+            if (batch.getFirst().getProductName().equals("Product 1000") && failOnce.getAndSet(false)) {
+                List<ProductDTO> written = new ArrayList<>(batch);
+                written.remove(500);
+                return new BulkCreateResult(written, Map.of(500, "E11000 duplicate key"));
+            }
+            return new BulkCreateResult(batch, Map.of());
+        });
+        ImportJobRegistry registry = new ImportJobRegistry(batchProcessingService, checkpointRepository, executor, 10, 60);
+        StringBuilder csv = new StringBuilder("productName,description,price,category,images\n");
+        for (int i = 0; i < 2500; i++) {
+            csv.append("Product ").append(i).append(",Description,9.99,Category,\n");
+        }
+
+        // When
+        ImportJobStatus first = awaitFinished(registry, registry.submit(csvFile(csv.toString())).getJobId());
+
+        // Then
+        assertEquals(1, first.getFailed());
+        assertEquals(1000L, stored.get().getCommittedRows());
+        assertFalse(stored.get().isCompleted());
+
+        // When
+        ImportJobStatus resumed = awaitFinished(registry, registry.submit(csvFile(csv.toString())).getJobId());
+
+        // Then
+        assertEquals(ImportJobStatus.State.COMPLETED, resumed.getState());
+        assertEquals(1000L, resumed.getSkippedRows());
+        assertEquals(0, resumed.getFailed());
+        verify(productService, times(2)).bulkUpsertProducts(argThat(batch ->
+                batch.size() == 1000 && batch.get(500).getProductName().equals("Product 1500")));
+        assertEquals(2500L, stored.get().getCommittedRows());
+        assertTrue(stored.get().isCompleted());
+    }
+
+    @Test
+    @DisplayName("Should reject a file that is already being imported")
+    void testRejectConcurrentImportOfSameFile() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(productService.bulkUpsertProducts(anyList())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return new BulkCreateResult(invocation.<List<ProductDTO>>getArgument(0), Map.of());
+        });
+        ImportJobRegistry registry = new ImportJobRegistry(batchProcessingService, checkpointRepository, executor, 10, 60);
+        String csv = "productName,description,price,category,images\nLaptop,Description,9.99,Category,\n";
+
+        // When
+        String first = registry.submit(csvFile(csv)).getJobId();
+
+        // Then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> registry.submit(csvFile(csv)));
+        assertTrue(e.getMessage().contains(first));
+        release.countDown();
+        assertEquals(ImportJobStatus.State.COMPLETED, awaitFinished(registry, first).getState());
+    }
+
+    private static MockMultipartFile csvFile(String content) {
+        return new MockMultipartFile("file", "products.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ImportJobStatus awaitFinished(ImportJobRegistry registry, String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        ImportJobStatus status = registry.status(jobId);
+        while (status.getState() == ImportJobStatus.State.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = registry.status(jobId);
+        }
+        return status;
+    }
+}
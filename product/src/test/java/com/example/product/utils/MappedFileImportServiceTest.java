@@ -0,0 +1,172 @@
+package com.example.product.utils;
+
+import com.example.product.dto.request.ProductDTO;
+import com.example.product.dto.response.BatchProcessingResult;
+import com.example.product.dto.response.BulkCreateResult;
+import com.example.product.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("MappedFileImportService Unit Tests")
+class MappedFileImportServiceTest {
+
+    @TempDir
+    Path importDirectory;
+
+    private ProductService productService;
+    private ExecutorService executor;
+    private MappedFileImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        when(productService.bulkCreateProducts(anyList()))
+                .thenAnswer(invocation -> new BulkCreateResult(invocation.<List<ProductDTO>>getArgument(0), Map.of()));
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        importService = new MappedFileImportService(
+                productService, executor, new ObjectMapper(),
+                new AdaptiveBatchController(new SimpleMeterRegistry(), 1000, 1000, 1000, 1, 10, 10, 500),
+                importDirectory.toString(), CsvTokenizer.DEFAULT_MAX_RECORD_LENGTH);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    @DisplayName("Should cut chunks at line breaks outside quoted fields")
+    void testSplitSkipsQuotedLineBreaks() throws Exception {
+        // Given
+        Path file = Files.writeString(importDirectory.resolve("products.csv"),
+                "productName,description,price\n"
+                        + "Laptop,\"line one\nline two\",10\n"
+                        + "Mouse,Wireless,20\n");
+
+        // When
+        List<MappedFileImportService.Chunk> chunks;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            chunks = MappedFileImportService.split(channel, MappedFileImportService.Format.CSV, 1);
+        }
+
+        // Then
+        assertEquals(2, chunks.size());
+        assertEquals(30, chunks.get(0).start());
+        assertEquals(2, chunks.get(0).startLine());
+        assertEquals(4, chunks.get(1).startLine());
+        assertEquals(Files.size(file), chunks.get(1).end());
+    }
+
+    @Test
+    @DisplayName("Should reject a file whose unbalanced quote keeps a chunk from ending before the mapping limit")
+    void testSplitRejectsUnbalancedQuote() throws Exception {
+        // Given
+        Path file = Files.writeString(importDirectory.resolve("products.csv"),
+                "productName,description,price\n"
+                        + "Laptop,Description,10\n"
+                        + "Mouse,\"never closed,20\n"
+                        + "Keyboard,Wired,30\n");
+
+        // When
+        IllegalArgumentException e;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            e = assertThrows(IllegalArgumentException.class, () ->
+                    MappedFileImportService.split(channel, MappedFileImportService.Format.CSV, 1, 32));
+        }
+
+        // Then
+        assertTrue(e.getMessage().startsWith("Line 3"));
+    }
+
+    @Test
+    @DisplayName("Should import every row of a CSV file and report bad lines with their file line number")
+    void testImportCsv() throws Exception {
+        // Given
+        StringBuilder csv = new StringBuilder("productName,description,price,category\n");
+        for (int i = 0; i < 2500; i++) {
+            csv.append("Product ").append(i).append(",Description,9.99,Category\n");
+        }
+        csv.append("Broken,Description,not-a-price\n");
+        Files.writeString(importDirectory.resolve("products.csv"), csv);
+
+        // When
+        BatchProcessingResult result = importService.importFile("products.csv");
+
+        // Then
+        assertEquals(2500, result.getTotalProcessed());
+        assertEquals(2500, result.getSuccessful());
+        assertEquals(1, result.getFailed());
+        assertTrue(result.getFailedProducts().getFirst().startsWith("Line 2502:"));
+    }
+
+    @Test
+    @DisplayName("Should report a chunk that fails with a runtime exception and still return the totals")
+    void testChunkRuntimeFailure() throws Exception {
+        // Given
+        AdaptiveBatchController batchController = mock(AdaptiveBatchController.class);
+        when(batchController.batchSize()).thenReturn(1000);
+        doThrow(new InterruptedException()).when(batchController).acquire();
+        MappedFileImportService failingService = new MappedFileImportService(productService, executor,
+                new ObjectMapper(), batchController, importDirectory.toString(), CsvTokenizer.DEFAULT_MAX_RECORD_LENGTH);
+        Files.writeString(importDirectory.resolve("products.csv"),
+                "productName,description,price\nLaptop,Fast,999.99\nMouse,Wireless,19.99\n");
+
+        // When
+        BatchProcessingResult result = failingService.importFile("products.csv");
+
+        // Then
+        assertEquals(2, result.getTotalProcessed());
+        assertEquals(0, result.getSuccessful());
+        assertEquals(List.of("Chunk starting at line 2: Interrupted while waiting to submit a batch"),
+                result.getFailedProducts());
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    @DisplayName("Should import a JSON Lines file")
+    void testImportJsonLines() throws Exception {
+        // Given
+        Files.writeString(importDirectory.resolve("products.jsonl"),
+                "{\"productName\":\"Laptop\",\"description\":\"Fast\",\"price\":999.99}\n\n"
+                        + "{\"productName\":\"Mouse\",\"description\":\"Wireless\",\"price\":19.99}\n");
+
+        // When
+        BatchProcessingResult result = importService.importFile("products.jsonl");
+
+        // Then
+        assertEquals(1, result.getTotalBatches());
+        assertEquals(2, result.getSuccessful());
+        verify(productService, times(1)).bulkCreateProducts(anyList());
+    }
+
+    @Test
+    @DisplayName("Should reject paths outside the import directory and unsupported formats")
+    void testRejectsInvalidPaths() throws Exception {
+        // Given
+        Files.writeString(importDirectory.resolve("products.json"), "[]");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> importService.importFile("../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> importService.importFile("missing.csv"));
+        assertThrows(IllegalArgumentException.class, () -> importService.importFile("products.json"));
+        verifyNoInteractions(productService);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.product.utils;
+
+import com.example.product.dto.request.ProductDTO;
+import com.example.product.dto.response.BulkCreateResult;
+import com.example.product.dto.response.BulkItemResult;
+import com.example.product.service.ProductService;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ParallelExecutionService Unit Tests")
+class ParallelExecutionServiceTest {
+
+    private ProductService productService;
+    private ExecutorService executor;
+    private ValidatorFactory validatorFactory;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+        validatorFactory.close();
+    }
+
+    @Test
+    @DisplayName("Should write products in chunks and return results in request order")
+    void testCreateProductsInParallelKeepsRequestOrder() {
+        // Given
+        ParallelExecutionService service = service(2, 1);
+        List<ProductDTO> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            products.add(product("Product " + i));
+        }
+        products.set(1, product(null)); // Fails validation
+        when(productService.bulkCreateProducts(anyList())).thenAnswer(invocation -> {
+            List<ProductDTO> chunk = invocation.getArgument(0);
+            // Mongo rejects "Product 2"
+            List<ProductDTO> created = new ArrayList<>();
+            Map<Integer, String> failures = new HashMap<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                if (chunk.get(i).getProductName().equals("Product 2")) {
+                    failures.put(i, "E11000 duplicate key");
+                } else {
+                    created.add(withId(chunk.get(i)));
+                }
+            }
+            return new BulkCreateResult(created, failures);
+        });
+
+        // When
+        List<BulkItemResult> results = service.createProductsInParallel(products).join().getResponse();
+
+        // Then
+        assertEquals(List.of(0, 1, 2, 3, 4), results.stream().map(BulkItemResult::getIndex).toList());
+        assertEquals(BulkItemResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals("Product name cannot be null", results.get(1).getError());
+        assertEquals(BulkItemResult.Status.FAILED, results.get(2).getStatus());
+        assertEquals("E11000 duplicate key", results.get(2).getError());
+        assertEquals("Product 3", results.get(3).getProduct().getProductName());
+        assertNotNull(results.get(3).getProduct().getProductId());
+        assertEquals("Product 4", results.get(4).getProduct().getProductName());
+        // Four valid products in chunks of two
+        verify(productService, times(2)).bulkCreateProducts(anyList());
+    }
+
+    @Test
+    @DisplayName("Should never run more bulk inserts at once than the write limit")
+    void testCreateProductsInParallelBoundsConcurrentWrites() {
+        // Given
+        ParallelExecutionService service = service(10, 2);
+        List<ProductDTO> products = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            products.add(product("Product " + i));
+        }
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(productService.bulkCreateProducts(anyList())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            running.decrementAndGet();
+            List<ProductDTO> chunk = invocation.getArgument(0);
+            return new BulkCreateResult(chunk.stream().map(ParallelExecutionServiceTest::withId).toList(), Map.of());
+        });
+
+        // When
+        List<BulkItemResult> results = service.createProductsInParallel(products).join().getResponse();
+
+        // Then
+        assertEquals(200, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == BulkItemResult.Status.CREATED));
+        assertTrue(maxRunning.get() <= 2, "at most 2 concurrent writes, saw " + maxRunning.get());
+        verify(productService, times(20)).bulkCreateProducts(anyList());
+    }
+
+    @Test
+    @DisplayName("Should reject an empty or oversized request")
+    void testCreateProductsInParallelRejectsRequestSize() {
+        // Given
+        ParallelExecutionService service = service(10, 2);
+        List<ProductDTO> tooMany = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            tooMany.add(product("Product " + i));
+        }
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> service.createProductsInParallel(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> service.createProductsInParallel(tooMany));
+        verify(productService, never()).bulkCreateProducts(anyList());
+    }
+
+    private ParallelExecutionService service(int chunkSize, int maxConcurrentWrites) {
+        return new ParallelExecutionService(
+                productService, executor, validatorFactory.getValidator(), chunkSize, 1000, maxConcurrentWrites);
+    }
+
+    private static ProductDTO product(String name) {
+        ProductDTO product = new ProductDTO();
+        product.setProductName(name);
+        product.setDescription("Description");
+        product.setPrice(9.99);
+        return product;
+    }
+
+    private static ProductDTO withId(ProductDTO product) {
+        ProductDTO created = product(product.getProductName());
+        created.setProductId(new ObjectId().toHexString());
+        return created;
+    }
+}